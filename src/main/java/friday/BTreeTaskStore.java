@@ -0,0 +1,261 @@
+package friday;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link TaskStore} that keeps every task in a single paged B+-tree file.
+ * <p>
+ * The file ({@code Friday.db} next to the text save file) holds two
+ * {@link PagedBTree}s. The primary tree maps a task id to the task encoded as a
+ * {@link BinaryTaskCodec} record; ids are handed out in increasing order, so key
+ * order is list order and a list position is found by rank. The secondary tree
+ * indexes deadlines and events by {@code (epoch day, id)} for date range scans.
+ * These keys belong to the store; the tasks keep their own ids in their records, and
+ * the meta page also holds the id the next new task will get, so that the ids of
+ * deleted tasks are not handed out again after a restart.
+ * <p>
+ * Each put or delete is one transaction of O(log n) page writes followed by a meta
+ * page commit (see {@link PageFile}), forced to disk unless the durability policy is
+ * {@link DurabilityPolicy#OS_BUFFERED}. If the file does not exist yet, the tasks of
+ * an existing {@link Storage} save are copied into it on the first load.
+ */
+public class BTreeTaskStore implements TaskStore {
+    private static final String DATABASE_SUFFIX = ".db";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int PRIMARY_ROOT = 0;
+    private static final int DATE_ROOT = 1;
+    private static final int NEXT_ID = 0;
+    /** Meta page slot of the next task id, which is 0 in files written before it was kept. */
+    private static final int NEXT_TASK_ID = 1;
+    /** High half of every primary key; the low half is the task id. */
+    private static final long PRIMARY = 0;
+    private static final byte[] NO_VALUE = new byte[0];
+
+    private final Path filePath;
+    private final Path databasePath;
+    private final StorageConfig config;
+    private final boolean isForced;
+
+    private PageFile file;
+    private PagedBTree primary;
+    private PagedBTree dates;
+    private LoadReport loadReport = new LoadReport();
+
+    /**
+     * Constructs a {@code BTreeTaskStore}. The file is opened on first use.
+     *
+     * @param filePath Path of the text save file; the database is kept alongside it.
+     * @param config   The storage settings.
+     */
+    public BTreeTaskStore(Path filePath, StorageConfig config) {
+        this.filePath = filePath;
+        this.databasePath = Storage.siblingWithSuffix(filePath, DATABASE_SUFFIX);
+        this.config = config;
+        this.isForced = config.getDurabilityPolicy() != DurabilityPolicy.OS_BUFFERED;
+    }
+
+    private void open() throws FridayException {
+        if (file != null) {
+            return;
+        }
+        file = PageFile.open(databasePath);
+        primary = new PagedBTree(file, PRIMARY_ROOT);
+        dates = new PagedBTree(file, DATE_ROOT);
+    }
+
+    @Override
+    public TaskList loadTaskList(Parser parser) throws FridayException {
+        if (file == null && Files.notExists(databasePath)) {
+            importLegacySave(parser);
+        }
+        TaskList list = new TaskList();
+        forEach(parser, list::addTask);
+        list.reserveIdsBelow(file.getValue(NEXT_TASK_ID));
+        list.clearChanges();
+        return list;
+    }
+
+    /** Copies the tasks of a file-based save, if any, into a new database. */
+    private void importLegacySave(Parser parser) throws FridayException {
+        Storage legacy = new Storage(filePath, config.withStoreEngine(StoreEngine.FILE));
+        TaskList existing = legacy.loadTaskList(parser);
+        loadReport = legacy.getLoadReport();
+        legacy.close();
+        saveTaskList(existing);
+    }
+
+    @Override
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    @Override
+    public void put(int index, Task task) throws FridayException {
+        open();
+        try {
+            if (index == primary.size()) {
+                long id = file.getValue(NEXT_ID) + 1;
+                file.setValue(NEXT_ID, id);
+                file.setValue(NEXT_TASK_ID, Math.max(file.getValue(NEXT_TASK_ID), task.getId() + 1));
+                insert(id, task);
+            } else {
+                long id = idAt(index);
+                removeDateEntry(id);
+                insert(id, task);
+            }
+            file.commit(isForced);
+        } catch (FridayException e) {
+            file.abort();
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(int index) throws FridayException {
+        open();
+        try {
+            long id = idAt(index);
+            removeDateEntry(id);
+            primary.delete(PRIMARY, id);
+            file.commit(isForced);
+        } catch (FridayException e) {
+            file.abort();
+            throw e;
+        }
+    }
+
+    private long idAt(int index) throws FridayException {
+        if (index < 0 || index >= primary.size()) {
+            throw new FridayException("Invalid index for the task store: " + index);
+        }
+        return primary.keyAt(index)[1];
+    }
+
+    private void insert(long id, Task task) throws FridayException {
+        primary.put(PRIMARY, id, BinaryTaskCodec.encodeTask(task));
+        LocalDate date = DateIndex.dateOf(task);
+        if (date != null) {
+            dates.put(date.toEpochDay(), id, NO_VALUE);
+        }
+    }
+
+    private void removeDateEntry(long id) throws FridayException {
+        byte[] stored = primary.get(PRIMARY, id);
+        LocalDate date = stored == null ? null : DateIndex.dateOf(BinaryTaskCodec.decodeTask(stored));
+        if (date != null) {
+            dates.delete(date.toEpochDay(), id);
+        }
+    }
+
+    @Override
+    public List<Task> scanByDate(LocalDate from, LocalDate to, Parser parser) throws FridayException {
+        open();
+        List<Task> matches = new ArrayList<>();
+        dates.scan(from.toEpochDay(), Long.MIN_VALUE, to.toEpochDay(), Long.MAX_VALUE, (day, id, unused) ->
+                matches.add(BinaryTaskCodec.decodeTask(primary.get(PRIMARY, id))));
+        return matches;
+    }
+
+    @Override
+    public void forEach(Parser parser, TaskVisitor visitor) throws FridayException {
+        open();
+        primary.scan(PRIMARY, Long.MIN_VALUE, PRIMARY, Long.MAX_VALUE, (high, id, value) ->
+                visitor.visit(BinaryTaskCodec.decodeTask(value)));
+    }
+
+    /**
+     * Replaces every stored task with the given list by writing a new database
+     * next to the current one and renaming it into place.
+     *
+     * @param list The tasks to store.
+     * @throws FridayException If the list cannot be stored.
+     */
+    @Override
+    public void saveTaskList(TaskList list) throws FridayException {
+        close();
+        Path temp = databasePath.resolveSibling(databasePath.getFileName() + TEMP_SUFFIX);
+        try {
+            Files.deleteIfExists(temp);
+            file = PageFile.open(temp);
+            primary = new PagedBTree(file, PRIMARY_ROOT);
+            dates = new PagedBTree(file, DATE_ROOT);
+            buildTrees(list);
+            file.setValue(NEXT_ID, list.size());
+            file.setValue(NEXT_TASK_ID, list.getNextId());
+            file.commit(true);
+            file.close();
+            file = null;
+            Files.move(temp, databasePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            list.clearChanges();
+        } catch (IOException e) {
+            throw new FridayException("Error saving tasks to '" + databasePath + "': " + e.getMessage());
+        } finally {
+            if (file != null) {
+                file.close();
+                file = null;
+            }
+        }
+    }
+
+    /** Fills both empty trees from the list, giving the tasks ids 1 to n in order. */
+    private void buildTrees(TaskList list) throws FridayException {
+        int size = list.size();
+        long[] highs = new long[size];
+        long[] ids = new long[size];
+        byte[][] records = new byte[size][];
+        List<long[]> dateKeys = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Task task = list.get(i);
+            highs[i] = PRIMARY;
+            ids[i] = i + 1;
+            records[i] = BinaryTaskCodec.encodeTask(task);
+            LocalDate date = DateIndex.dateOf(task);
+            if (date != null) {
+                dateKeys.add(new long[] {date.toEpochDay(), i + 1});
+            }
+        }
+        primary.build(highs, ids, records);
+        dateKeys.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        long[] days = new long[dateKeys.size()];
+        long[] dateIds = new long[dateKeys.size()];
+        byte[][] empty = new byte[dateKeys.size()][];
+        for (int i = 0; i < dateKeys.size(); i++) {
+            days[i] = dateKeys.get(i)[0];
+            dateIds[i] = dateKeys.get(i)[1];
+            empty[i] = NO_VALUE;
+        }
+        dates.build(days, dateIds, empty);
+    }
+
+    /**
+     * Does nothing: every change is already written in place of the pages it replaced.
+     *
+     * @param list The current list.
+     */
+    @Override
+    public void compactIfNeeded(TaskList list) {
+        // Nothing to compact.
+    }
+
+    @Override
+    public void flush() throws FridayException {
+        if (file != null) {
+            file.force();
+        }
+    }
+
+    @Override
+    public void close() throws FridayException {
+        if (file != null) {
+            file.force();
+            file.close();
+            file = null;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package friday;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Encodes and decodes the compact binary save format.
+ * <p>
+ * Layout:
+ * <pre>
+ * HEADER  = MAGIC("FRDY") VERSION(1 byte) SEQ(varint, version 2 and later) COUNT(varint)
+ *           NEXT_ID(varint, version 3 and later)
+ * RECORD  = FLAGS(1 byte) [ID(varint)] DESC_LENGTH(varint) DESC(UTF-8) [DATE_FIELDS]
+ * FLAGS   = bits 0-1 task type (0 = to-do, 1 = deadline, 2 = event), bit 2 completed,
+ *           bit 3 set if an ID follows
+ * DEADLINE fields = EPOCH_DAY(zigzag varint)
+ * EVENT fields    = EPOCH_DAY(zigzag varint) START_MINUTE(varint) END_MINUTE(varint)
+ * </pre>
+ * Both directions stream through fixed-size NIO buffers, and decoding builds tasks
+ * directly from {@link LocalDate} and {@link LocalTime} values without any text parsing.
+ * {@code SEQ}, {@code COUNT} and {@code NEXT_ID} carry the {@link SnapshotHeader};
+ * files of earlier versions, which lack some of them, are still readable.
+ */
+public class BinaryTaskCodec {
+    private static final byte[] MAGIC = {'F', 'R', 'D', 'Y'};
+    private static final byte VERSION = 3;
+    private static final byte VERSION_WITHOUT_NEXT_ID = 2;
+    private static final byte VERSION_WITHOUT_SEQ = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SINGLE_TASK_BUFFER_SIZE = 256;
+
+    private static final int TYPE_TODO = 0;
+    private static final int TYPE_DEADLINE = 1;
+    private static final int TYPE_EVENT = 2;
+    private static final int TYPE_MASK = 0x03;
+    private static final int FLAG_COMPLETED = 0x04;
+    private static final int FLAG_HAS_ID = 0x08;
+
+    private static final int MINUTES_PER_HOUR = 60;
+
+    /**
+     * Writes the header and every task in the list to the given file, replacing its
+     * contents, and forces the file to disk.
+     *
+     * @param path   The file to write.
+     * @param header The snapshot header to store.
+     * @param list   The tasks to encode.
+     * @throws IOException     If the file cannot be written.
+     * @throws FridayException If a task cannot be read from the list.
+     */
+    public static void write(Path path, SnapshotHeader header, TaskList list) throws IOException, FridayException {
+        Files.createDirectories(path.getParent());
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Encoder encoder = new Encoder(out, BUFFER_SIZE);
+            encoder.putBytes(MAGIC);
+            encoder.putByte(VERSION);
+            encoder.putVarint(header.getSeq());
+            encoder.putVarint(list.size());
+            encoder.putVarint(header.getNextId());
+            for (int i = 0; i < list.size(); i++) {
+                encoder.putTask(list.get(i));
+            }
+            encoder.flush();
+            out.force(true);
+        }
+    }
+
+    /**
+     * Reads every task from the given binary save file and appends it to the list.
+     *
+     * @param path The file to read.
+     * @param list The list to append the decoded tasks to.
+     * @return The header of the file.
+     * @throws FridayException If the file cannot be read, has an unknown header, or is corrupted.
+     */
+    public static SnapshotHeader read(Path path, TaskList list) throws FridayException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            Decoder decoder = new Decoder(in, BUFFER_SIZE);
+            for (byte b : MAGIC) {
+                if (decoder.getByte() != b) {
+                    throw new FridayException("'" + path + "' is not a Friday binary save file.");
+                }
+            }
+            int version = decoder.getByte();
+            if (version != VERSION && version != VERSION_WITHOUT_NEXT_ID && version != VERSION_WITHOUT_SEQ) {
+                throw new FridayException("Unsupported binary save version " + version + " in '" + path + "'.");
+            }
+            long seq = version == VERSION_WITHOUT_SEQ ? 0 : decoder.getVarint();
+            long count = decoder.getVarint();
+            long nextId = version == VERSION ? decoder.getVarint() : SnapshotHeader.UNKNOWN_NEXT_ID;
+            for (long i = 0; i < count; i++) {
+                list.addTask(decoder.getTask());
+            }
+            return new SnapshotHeader(seq, count, nextId);
+        } catch (EOFException e) {
+            throw new FridayException("Corrupted binary save file '" + path + "': unexpected end of data.");
+        } catch (DateTimeException e) {
+            throw new FridayException("Corrupted binary save file '" + path + "': invalid date.");
+        } catch (IOException e) {
+            throw new FridayException("Error loading tasks from '" + path + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes a single task as one record of this format, without a file header.
+     *
+     * @param task The task to encode.
+     * @return The encoded record.
+     */
+    static byte[] encodeTask(Task task) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(SINGLE_TASK_BUFFER_SIZE);
+        try {
+            Encoder encoder = new Encoder(Channels.newChannel(bytes), SINGLE_TASK_BUFFER_SIZE);
+            encoder.putTask(task);
+            encoder.flush();
+        } catch (IOException e) {
+            // Writing to memory cannot fail.
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a single record written by {@link #encodeTask(Task)}.
+     *
+     * @param record The encoded record.
+     * @return The decoded task.
+     * @throws FridayException If the record is corrupted.
+     */
+    static Task decodeTask(byte[] record) throws FridayException {
+        try {
+            Decoder decoder = new Decoder(Channels.newChannel(new ByteArrayInputStream(record)),
+                    SINGLE_TASK_BUFFER_SIZE);
+            return decoder.getTask();
+        } catch (EOFException e) {
+            throw new FridayException("Corrupted task record: unexpected end of data.");
+        } catch (DateTimeException e) {
+            throw new FridayException("Corrupted task record: invalid date.");
+        } catch (IOException e) {
+            throw new FridayException("Error decoding task record: " + e.getMessage());
+        }
+    }
+
+    private static int toMinutes(LocalTime time) {
+        return time.getHour() * MINUTES_PER_HOUR + time.getMinute();
+    }
+
+    private static LocalTime fromMinutes(long minutes) throws FridayException {
+        if (minutes < 0 || minutes >= 24 * MINUTES_PER_HOUR) {
+            throw new FridayException("Corrupted binary save file: invalid time.");
+        }
+        return LocalTime.of((int) minutes / MINUTES_PER_HOUR, (int) minutes % MINUTES_PER_HOUR);
+    }
+
+    /**
+     * Encodes values into a fixed-size buffer that is drained to a channel when full.
+     */
+    private static final class Encoder {
+        private final WritableByteChannel out;
+        private final ByteBuffer buffer;
+
+        private Encoder(WritableByteChannel out, int bufferSize) {
+            this.out = out;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void putByte(int b) throws IOException {
+            ensure(1);
+            buffer.put((byte) b);
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer large = ByteBuffer.wrap(bytes);
+                while (large.hasRemaining()) {
+                    out.write(large);
+                }
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void putVarint(long value) throws IOException {
+            ensure(10);
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                buffer.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buffer.put((byte) v);
+        }
+
+        private void putZigzag(long value) throws IOException {
+            putVarint((value << 1) ^ (value >> 63));
+        }
+
+        private void putTask(Task task) throws IOException {
+            int flags = task.isCompleted() ? FLAG_COMPLETED : 0;
+            if (task instanceof Deadline) {
+                flags |= TYPE_DEADLINE;
+            } else if (task instanceof Event) {
+                flags |= TYPE_EVENT;
+            } else {
+                flags |= TYPE_TODO;
+            }
+            if (task.getId() != 0) {
+                flags |= FLAG_HAS_ID;
+            }
+            putByte(flags);
+            if (task.getId() != 0) {
+                putVarint(task.getId());
+            }
+            byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+            putVarint(description.length);
+            putBytes(description);
+            if (task instanceof Deadline d) {
+                putZigzag(d.getDate().toEpochDay());
+            } else if (task instanceof Event e) {
+                putZigzag(e.getDate().toEpochDay());
+                putVarint(toMinutes(e.getStart()));
+                putVarint(toMinutes(e.getEnd()));
+            }
+        }
+
+    }
+
+    /**
+     * Reads encoded values from a channel through a refilled fixed-size buffer.
+     */
+    private static final class Decoder {
+        private final ReadableByteChannel in;
+        private final ByteBuffer buffer;
+
+        private Decoder(ReadableByteChannel in, int bufferSize) {
+            this.in = in;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+            buffer.flip();
+        }
+
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (in.read(buffer) < 0) {
+                    throw new EOFException();
+                }
+            }
+            buffer.flip();
+        }
+
+        private int getByte() throws IOException {
+            require(1);
+            return buffer.get() & 0xFF;
+        }
+
+        private long getVarint() throws IOException, FridayException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = getByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new FridayException("Corrupted binary save file: malformed number.");
+        }
+
+        private long getZigzag() throws IOException, FridayException {
+            long raw = getVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        private String getString() throws IOException, FridayException {
+            long length = getVarint();
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new FridayException("Corrupted binary save file: invalid description length.");
+            }
+            int size = (int) length;
+            if (size <= buffer.capacity()) {
+                require(size);
+                String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                        size, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + size);
+                return value;
+            }
+            byte[] bytes = new byte[size];
+            int copied = 0;
+            while (copied < size) {
+                require(1);
+                int chunk = Math.min(buffer.remaining(), size - copied);
+                buffer.get(bytes, copied, chunk);
+                copied += chunk;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private Task getTask() throws IOException, FridayException {
+            int flags = getByte();
+            long id = (flags & FLAG_HAS_ID) != 0 ? getVarint() : 0;
+            String description = getString();
+            Task task;
+            switch (flags & TYPE_MASK) {
+            case TYPE_TODO:
+                task = new ToDo(description);
+                break;
+            case TYPE_DEADLINE:
+                task = new Deadline(description, LocalDate.ofEpochDay(getZigzag()));
+                break;
+            case TYPE_EVENT:
+                LocalDate date = LocalDate.ofEpochDay(getZigzag());
+                task = new Event(description, date, fromMinutes(getVarint()), fromMinutes(getVarint()));
+                break;
+            default:
+                throw new FridayException("Corrupted binary save file: unknown task type.");
+            }
+            if ((flags & FLAG_COMPLETED) != 0) {
+                task.mark();
+            }
+            if (id != 0) {
+                task.assignId(id);
+            }
+            return task;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package friday;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitmap indexes over the type, completion status and month of the tasks of a list,
+ * for answering a {@link TaskFilter}.
+ * <p>
+ * Each bitmap is a {@link CompressedBitmap} of task ids, which unlike positions do not
+ * change when other tasks are deleted. A filter intersects the union of the bitmaps
+ * of its months, the union of the bitmaps of its types and the bitmap of completed
+ * tasks or its complement, starting with the most selective condition, so it touches
+ * only the chunks of ids those bitmaps share.
+ */
+public class BitmapIndex {
+    private final CompressedBitmap all = new CompressedBitmap();
+    private final CompressedBitmap done = new CompressedBitmap();
+    private final Map<TaskFilter.Kind, CompressedBitmap> byKind = new EnumMap<>(TaskFilter.Kind.class);
+    private final Map<YearMonth, CompressedBitmap> byMonth = new HashMap<>();
+
+    /**
+     * Returns an index of the given tasks.
+     *
+     * @param tasks The tasks.
+     * @return The index.
+     */
+    public static BitmapIndex build(List<Task> tasks) {
+        BitmapIndex index = new BitmapIndex();
+        for (Task task : tasks) {
+            index.add(task);
+        }
+        return index;
+    }
+
+    /**
+     * Indexes a task added to the list.
+     *
+     * @param task The task, which must have an id.
+     */
+    public void add(Task task) {
+        long id = task.getId();
+        all.add(id);
+        byKind.computeIfAbsent(TaskFilter.Kind.of(task), unused -> new CompressedBitmap()).add(id);
+        LocalDate date = DateIndex.dateOf(task);
+        if (date != null) {
+            byMonth.computeIfAbsent(YearMonth.from(date), unused -> new CompressedBitmap()).add(id);
+        }
+        updateCompletion(task);
+    }
+
+    /**
+     * Removes a task deleted from the list.
+     *
+     * @param task The task.
+     */
+    public void remove(Task task) {
+        long id = task.getId();
+        all.remove(id);
+        done.remove(id);
+        CompressedBitmap kind = byKind.get(TaskFilter.Kind.of(task));
+        if (kind != null) {
+            kind.remove(id);
+        }
+        LocalDate date = DateIndex.dateOf(task);
+        CompressedBitmap month = date == null ? null : byMonth.get(YearMonth.from(date));
+        if (month != null) {
+            month.remove(id);
+        }
+    }
+
+    /**
+     * Records the current completion status of a task that was marked or unmarked.
+     *
+     * @param task The task.
+     */
+    public void updateCompletion(Task task) {
+        if (task.isCompleted()) {
+            done.add(task.getId());
+        } else {
+            done.remove(task.getId());
+        }
+    }
+
+    /**
+     * Returns the ids of the tasks matching the filter.
+     *
+     * @param filter The filter.
+     * @return The ids, in ascending order.
+     */
+    public long[] select(TaskFilter filter) {
+        CompressedBitmap result = null;
+        if (!filter.getMonths().isEmpty()) {
+            result = union(filter.getMonths().stream().map(byMonth::get).toList());
+        }
+        if (!filter.getKinds().isEmpty()) {
+            CompressedBitmap kinds = union(filter.getKinds().stream().map(byKind::get).toList());
+            result = result == null ? kinds : result.and(kinds);
+        }
+        if (filter.isDone() != null) {
+            if (result == null) {
+                result = filter.isDone() ? done : all.andNot(done);
+            } else {
+                result = filter.isDone() ? result.and(done) : result.andNot(done);
+            }
+        }
+        return (result == null ? all : result).toArray();
+    }
+
+    private static CompressedBitmap union(List<CompressedBitmap> bitmaps) {
+        CompressedBitmap union = new CompressedBitmap();
+        for (CompressedBitmap bitmap : bitmaps) {
+            if (bitmap != null) {
+                union = union.or(bitmap);
+            }
+        }
+        return union;
+    }
+}
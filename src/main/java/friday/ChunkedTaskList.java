@@ -0,0 +1,262 @@
+package friday;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list of tasks stored as a sequence of small arrays, so that deleting or inserting
+ * a task in the middle of a long list only shifts the tasks of one array.
+ * <p>
+ * Each chunk holds at most a fixed number of tasks. A Fenwick tree over the chunk
+ * sizes finds the chunk holding a given position, and is updated when a task is
+ * inserted into or removed from a chunk, both in O(log n). A full chunk is split in
+ * two before an insertion, and a chunk is merged with its successor once both fit
+ * comfortably in one; the tree is rebuilt only then, which happens at most once every
+ * few hundred operations.
+ */
+public class ChunkedTaskList extends AbstractList<Task> implements RandomAccess {
+    /** Default number of tasks a chunk can hold. */
+    public static final int DEFAULT_CHUNK_CAPACITY = 512;
+
+    private final int chunkCapacity;
+    private final List<Chunk> chunks = new ArrayList<>();
+    /** Fenwick tree over the chunk sizes, 1-based. */
+    private int[] tree = new int[1];
+    private int size;
+
+    /**
+     * Creates an empty list with chunks of the default capacity.
+     */
+    public ChunkedTaskList() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    /**
+     * Creates an empty list with chunks of the given capacity.
+     *
+     * @param chunkCapacity The number of tasks a chunk can hold, at least 4.
+     */
+    ChunkedTaskList(int chunkCapacity) {
+        this.chunkCapacity = chunkCapacity;
+    }
+
+    /**
+     * Creates a list holding the given tasks in order.
+     *
+     * @param tasks The tasks.
+     */
+    public ChunkedTaskList(Collection<Task> tasks) {
+        this(DEFAULT_CHUNK_CAPACITY);
+        addAll(tasks);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size);
+        long location = locate(index);
+        return chunks.get(chunkOf(location)).tasks[offsetOf(location)];
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        checkIndex(index, size);
+        long location = locate(index);
+        Task[] tasks = chunks.get(chunkOf(location)).tasks;
+        Task previous = tasks[offsetOf(location)];
+        tasks[offsetOf(location)] = task;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        checkIndex(index, size + 1);
+        if (index == size) {
+            append(task);
+            return;
+        }
+        long location = locate(index);
+        Chunk chunk = chunks.get(chunkOf(location));
+        if (chunk.size == chunkCapacity) {
+            split(chunkOf(location));
+            location = locate(index);
+            chunk = chunks.get(chunkOf(location));
+        }
+        int offset = offsetOf(location);
+        System.arraycopy(chunk.tasks, offset, chunk.tasks, offset + 1, chunk.size - offset);
+        chunk.tasks[offset] = task;
+        chunk.size++;
+        size++;
+        modCount++;
+        update(chunkOf(location), 1);
+    }
+
+    private void append(Task task) {
+        Chunk last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (last == null || last.size == chunkCapacity) {
+            last = new Chunk(chunkCapacity);
+            chunks.add(last);
+            last.tasks[last.size++] = task;
+            size++;
+            modCount++;
+            rebuild();
+            return;
+        }
+        last.tasks[last.size++] = task;
+        size++;
+        modCount++;
+        update(chunks.size() - 1, 1);
+    }
+
+    @Override
+    public Task remove(int index) {
+        checkIndex(index, size);
+        long location = locate(index);
+        int chunkIndex = chunkOf(location);
+        int offset = offsetOf(location);
+        Chunk chunk = chunks.get(chunkIndex);
+        Task removed = chunk.tasks[offset];
+        System.arraycopy(chunk.tasks, offset + 1, chunk.tasks, offset, chunk.size - offset - 1);
+        chunk.tasks[--chunk.size] = null;
+        size--;
+        modCount++;
+        if (chunk.size == 0) {
+            chunks.remove(chunkIndex);
+            rebuild();
+        } else if (chunkIndex + 1 < chunks.size()
+                && chunk.size + chunks.get(chunkIndex + 1).size <= chunkCapacity / 2) {
+            merge(chunkIndex);
+        } else {
+            update(chunkIndex, -1);
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        chunks.clear();
+        size = 0;
+        modCount++;
+        rebuild();
+    }
+
+    /**
+     * Removes the tasks at the given positions in one pass, packing the remaining
+     * tasks into full chunks, and rebuilds the tree once.
+     *
+     * @param positions The 0-based positions to remove, all less than the size.
+     */
+    void removePositions(BitSet positions) {
+        List<Chunk> packed = new ArrayList<>();
+        Chunk current = null;
+        int position = 0;
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.size; i++, position++) {
+                if (positions.get(position)) {
+                    continue;
+                }
+                if (current == null || current.size == chunkCapacity) {
+                    current = new Chunk(chunkCapacity);
+                    packed.add(current);
+                }
+                current.tasks[current.size++] = chunk.tasks[i];
+            }
+        }
+        chunks.clear();
+        chunks.addAll(packed);
+        size -= positions.cardinality();
+        modCount++;
+        rebuild();
+    }
+
+    /** Splits a full chunk into two halves. */
+    private void split(int chunkIndex) {
+        Chunk chunk = chunks.get(chunkIndex);
+        Chunk second = new Chunk(chunkCapacity);
+        int half = chunk.size / 2;
+        second.size = chunk.size - half;
+        System.arraycopy(chunk.tasks, half, second.tasks, 0, second.size);
+        Arrays.fill(chunk.tasks, half, chunk.size, null);
+        chunk.size = half;
+        chunks.add(chunkIndex + 1, second);
+        rebuild();
+    }
+
+    /** Moves the tasks of the next chunk into the given one. */
+    private void merge(int chunkIndex) {
+        Chunk chunk = chunks.get(chunkIndex);
+        Chunk next = chunks.remove(chunkIndex + 1);
+        System.arraycopy(next.tasks, 0, chunk.tasks, chunk.size, next.size);
+        chunk.size += next.size;
+        rebuild();
+    }
+
+    /**
+     * Returns the chunk and offset of the given position, packed into a long.
+     * Uses the Fenwick tree to skip whole runs of chunks at a time.
+     */
+    private long locate(int index) {
+        int chunk = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(chunks.size()); step > 0; step >>= 1) {
+            int next = chunk + step;
+            if (next <= chunks.size() && tree[next] <= remaining) {
+                chunk = next;
+                remaining -= tree[next];
+            }
+        }
+        return ((long) chunk << 32) | remaining;
+    }
+
+    private static int chunkOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    private void update(int chunkIndex, int delta) {
+        for (int i = chunkIndex + 1; i <= chunks.size(); i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void rebuild() {
+        tree = new int[chunks.size() + 1];
+        for (int i = 1; i <= chunks.size(); i++) {
+            tree[i] += chunks.get(i - 1).size;
+            int parent = i + (i & -i);
+            if (parent <= chunks.size()) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+
+    /**
+     * A fixed-capacity array of consecutive tasks.
+     */
+    private static final class Chunk {
+        private final Task[] tasks;
+        private int size;
+
+        private Chunk(int capacity) {
+            this.tasks = new Task[capacity];
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package friday;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A list of tasks stored column by column in primitive arrays instead of as objects.
+ * <p>
+ * Each task takes one entry in each column: its type code, its id, the epoch day of
+ * its date, the minutes of day of an event's start and end, a completion bit, and the
+ * offset and length of its UTF-8 description in a shared byte arena. That is about
+ * 25 bytes plus the description, against well over a hundred for a task object with
+ * its {@code String}, {@code LocalDate} and {@code LocalTime}s.
+ * <p>
+ * {@link #get(int)} builds a {@link Task} view from the columns. Views are remembered
+ * by id only through weak references, so the same object is returned while anyone
+ * holds it, such as a command about to mark it, and is dropped once nobody does. The
+ * indexes of a {@link TaskList} refer to tasks by id, so they keep no view alive.
+ * Since views are copies, a change to a view reaches the columns only through
+ * {@link #set(int, Task)}, which {@link TaskList} calls after marking or unmarking.
+ * <p>
+ * Inserting or removing a task in the middle shifts the later entries of every
+ * column, as in an array list. Descriptions of removed tasks stay in the arena until
+ * they make up half of it, when the arena is compacted.
+ */
+public class ColumnarTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final byte TYPE_TODO = 0;
+    private static final byte TYPE_DEADLINE = 1;
+    private static final byte TYPE_EVENT = 2;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ARENA_SIZE = 1024;
+    private static final int MINUTES_PER_HOUR = 60;
+    /** Bytes per task taken by the fixed-width columns. */
+    private static final int COLUMN_BYTES = Byte.BYTES + Long.BYTES + Integer.BYTES + 2 * Short.BYTES
+            + 2 * Integer.BYTES;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private short[] startMinutes = new short[INITIAL_CAPACITY];
+    private short[] endMinutes = new short[INITIAL_CAPACITY];
+    private int[] descriptionOffsets = new int[INITIAL_CAPACITY];
+    private int[] descriptionLengths = new int[INITIAL_CAPACITY];
+    private final BitSet completed = new BitSet();
+    private byte[] arena = new byte[INITIAL_ARENA_SIZE];
+    private int arenaSize;
+    private int garbageBytes;
+    private int size;
+
+    private final Map<Long, View> views = new HashMap<>();
+    private final ReferenceQueue<Task> collectedViews = new ReferenceQueue<>();
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size);
+        expungeCollectedViews();
+        long id = ids[index];
+        View view = id == 0 ? null : views.get(id);
+        Task task = view == null ? null : view.get();
+        if (task == null) {
+            task = materialize(index);
+            remember(task);
+        }
+        return task;
+    }
+
+    /**
+     * Returns the id of the task at the given position without building a view of it.
+     *
+     * @param index The 0-based position.
+     * @return The id, or 0 if the task has none.
+     */
+    long idAt(int index) {
+        checkIndex(index, size);
+        return ids[index];
+    }
+
+    /**
+     * Builds a new view of the task at the given position without remembering it.
+     * This only reads the columns, so columns that no longer change, such as those
+     * returned by {@link #of(List)}, may be read this way from any thread.
+     *
+     * @param index The 0-based position.
+     * @return A view of the task that nothing else refers to.
+     */
+    Task view(int index) {
+        checkIndex(index, size);
+        return materialize(index);
+    }
+
+    /**
+     * Returns a list reading the tasks through {@link #view(int)}, for building an
+     * index from without remembering a view of every task.
+     *
+     * @return The list, which follows later changes to the columns.
+     */
+    List<Task> views() {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return view(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Stores the task at the given position. Storing a view of the task already
+     * there only updates its completion, which is all that can change about a task.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        checkIndex(index, size);
+        expungeCollectedViews();
+        if (task.getId() != 0 && task.getId() == ids[index]) {
+            completed.set(index, task.isCompleted());
+            remember(task);
+            return task;
+        }
+        Task previous = get(index);
+        views.remove(previous.getId());
+        garbageBytes += descriptionLengths[index];
+        store(index, task);
+        remember(task);
+        compactArenaIfWasteful();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        checkIndex(index, size + 1);
+        expungeCollectedViews();
+        ensureCapacity(size + 1);
+        if (index < size) {
+            shift(index, index + 1, size - index);
+            for (int i = size; i > index; i--) {
+                completed.set(i, completed.get(i - 1));
+            }
+        }
+        size++;
+        modCount++;
+        store(index, task);
+        remember(task);
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        views.remove(removed.getId());
+        garbageBytes += descriptionLengths[index];
+        shift(index + 1, index, size - index - 1);
+        for (int i = index; i < size - 1; i++) {
+            completed.set(i, completed.get(i + 1));
+        }
+        completed.clear(size - 1);
+        size--;
+        modCount++;
+        compactArenaIfWasteful();
+        return removed;
+    }
+
+    /**
+     * Removes the tasks at the given positions, moving each remaining entry of every
+     * column at most once.
+     *
+     * @param positions The 0-based positions to remove, all less than the size.
+     */
+    void removePositions(BitSet positions) {
+        expungeCollectedViews();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (positions.get(i)) {
+                views.remove(ids[i]);
+                garbageBytes += descriptionLengths[i];
+                continue;
+            }
+            if (kept != i) {
+                shift(i, kept, 1);
+                completed.set(kept, completed.get(i));
+            }
+            kept++;
+        }
+        completed.clear(kept, size);
+        size = kept;
+        modCount++;
+        compactArenaIfWasteful();
+    }
+
+    /**
+     * Returns columns holding the given tasks and no spare capacity, for tasks that
+     * are only read through {@link #view(int)} from then on. No view is remembered.
+     *
+     * @param tasks The tasks, in order.
+     * @return The columns.
+     */
+    static ColumnarTaskList of(List<Task> tasks) {
+        ColumnarTaskList columns = new ColumnarTaskList();
+        columns.ensureCapacity(tasks.size());
+        for (Task task : tasks) {
+            columns.store(columns.size++, task);
+        }
+        columns.arena = Arrays.copyOf(columns.arena, columns.arenaSize);
+        return columns;
+    }
+
+    /**
+     * Returns an independent copy of the columns. The copy builds its own views.
+     *
+     * @return The copy.
+     */
+    public ColumnarTaskList copy() {
+        ColumnarTaskList copy = new ColumnarTaskList();
+        copy.types = Arrays.copyOf(types, size);
+        copy.ids = Arrays.copyOf(ids, size);
+        copy.epochDays = Arrays.copyOf(epochDays, size);
+        copy.startMinutes = Arrays.copyOf(startMinutes, size);
+        copy.endMinutes = Arrays.copyOf(endMinutes, size);
+        copy.descriptionOffsets = Arrays.copyOf(descriptionOffsets, size);
+        copy.descriptionLengths = Arrays.copyOf(descriptionLengths, size);
+        copy.completed.or(completed);
+        copy.arena = Arrays.copyOf(arena, arenaSize);
+        copy.arenaSize = arenaSize;
+        copy.garbageBytes = garbageBytes;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Returns the number of bytes allocated for the columns and the arena.
+     *
+     * @return The size of the columns in bytes.
+     */
+    public long allocatedBytes() {
+        expungeCollectedViews();
+        long columns = (long) types.length * COLUMN_BYTES;
+        return columns + arena.length + completed.size() / Byte.SIZE;
+    }
+
+    private void store(int index, Task task) {
+        types[index] = TYPE_TODO;
+        epochDays[index] = 0;
+        startMinutes[index] = 0;
+        endMinutes[index] = 0;
+        if (task instanceof Deadline deadline) {
+            types[index] = TYPE_DEADLINE;
+            epochDays[index] = (int) deadline.getDate().toEpochDay();
+        } else if (task instanceof Event event) {
+            types[index] = TYPE_EVENT;
+            epochDays[index] = (int) event.getDate().toEpochDay();
+            startMinutes[index] = toMinutes(event.getStart());
+            endMinutes[index] = toMinutes(event.getEnd());
+        }
+        ids[index] = task.getId();
+        completed.set(index, task.isCompleted());
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (arenaSize + description.length > arena.length) {
+            long grown = Math.max((long) arena.length * 2, (long) arenaSize + description.length);
+            if (grown > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Task descriptions exceed the capacity of the arena.");
+            }
+            arena = Arrays.copyOf(arena, (int) grown);
+        }
+        System.arraycopy(description, 0, arena, arenaSize, description.length);
+        descriptionOffsets[index] = arenaSize;
+        descriptionLengths[index] = description.length;
+        arenaSize += description.length;
+    }
+
+    private Task materialize(int index) {
+        String description = new String(arena, descriptionOffsets[index], descriptionLengths[index],
+                StandardCharsets.UTF_8);
+        try {
+            Task task;
+            switch (types[index]) {
+            case TYPE_DEADLINE:
+                task = new Deadline(description, LocalDate.ofEpochDay(epochDays[index]));
+                break;
+            case TYPE_EVENT:
+                task = new Event(description, LocalDate.ofEpochDay(epochDays[index]),
+                        fromMinutes(startMinutes[index]), fromMinutes(endMinutes[index]));
+                break;
+            default:
+                task = new ToDo(description);
+                break;
+            }
+            if (completed.get(index)) {
+                task.mark();
+            }
+            if (ids[index] != 0) {
+                task.assignId(ids[index]);
+            }
+            return task;
+        } catch (FridayException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private void remember(Task task) {
+        if (task.getId() != 0) {
+            views.put(task.getId(), new View(task, collectedViews));
+        }
+    }
+
+    /** Forgets the views that have been garbage collected. */
+    private void expungeCollectedViews() {
+        for (Object collected = collectedViews.poll(); collected != null; collected = collectedViews.poll()) {
+            View view = (View) collected;
+            views.remove(view.id, view);
+        }
+    }
+
+    private void compactArenaIfWasteful() {
+        if (garbageBytes <= INITIAL_ARENA_SIZE || garbageBytes * 2 < arenaSize) {
+            return;
+        }
+        byte[] compacted = new byte[Math.max(INITIAL_ARENA_SIZE, (arenaSize - garbageBytes) * 2)];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, descriptionOffsets[i], compacted, position, descriptionLengths[i]);
+            descriptionOffsets[i] = position;
+            position += descriptionLengths[i];
+        }
+        arena = compacted;
+        arenaSize = position;
+        garbageBytes = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= types.length) {
+            return;
+        }
+        int grown = Math.max(capacity, types.length * 2);
+        types = Arrays.copyOf(types, grown);
+        ids = Arrays.copyOf(ids, grown);
+        epochDays = Arrays.copyOf(epochDays, grown);
+        startMinutes = Arrays.copyOf(startMinutes, grown);
+        endMinutes = Arrays.copyOf(endMinutes, grown);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, grown);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, grown);
+    }
+
+    /** Moves a run of entries of every array column. */
+    private void shift(int from, int to, int length) {
+        System.arraycopy(types, from, types, to, length);
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(epochDays, from, epochDays, to, length);
+        System.arraycopy(startMinutes, from, startMinutes, to, length);
+        System.arraycopy(endMinutes, from, endMinutes, to, length);
+        System.arraycopy(descriptionOffsets, from, descriptionOffsets, to, length);
+        System.arraycopy(descriptionLengths, from, descriptionLengths, to, length);
+    }
+
+    private static short toMinutes(LocalTime time) {
+        return (short) (time.getHour() * MINUTES_PER_HOUR + time.getMinute());
+    }
+
+    private static LocalTime fromMinutes(short minutes) {
+        return LocalTime.of(minutes / MINUTES_PER_HOUR, minutes % MINUTES_PER_HOUR);
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + bound);
+        }
+    }
+
+    /**
+     * A weakly held view of a task, remembering its id so it can be forgotten once
+     * it has been collected.
+     */
+    private static final class View extends WeakReference<Task> {
+        private final long id;
+
+        private View(Task task, ReferenceQueue<Task> queue) {
+            super(task, queue);
+            this.id = task.getId();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package friday;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits user commands into a {@link ParsedCommand} in a single pass over the input,
+ * without regular expressions, substrings or exceptions, so that a command such as
+ * {@code mark 12} is recognised without allocating anything.
+ * <p>
+ * Keywords are looked up in a table indexed by their first letter. As before, a
+ * keyword only needs to start the input, so {@code todo} also recognises
+ * {@code todobuy milk}; {@code bye}, {@code list} and {@code stats} must make up the
+ * whole command. No keyword starts another, so at most one can match.
+ */
+public class CommandLexer {
+    private static final int ALPHABET_SIZE = 26;
+    private static final char ID_PREFIX = '#';
+    private static final ParsedCommand.Keyword[][] KEYWORDS_BY_LETTER = buildTable();
+
+    private static ParsedCommand.Keyword[][] buildTable() {
+        List<List<ParsedCommand.Keyword>> byLetter = new ArrayList<>();
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            byLetter.add(new ArrayList<>());
+        }
+        for (ParsedCommand.Keyword keyword : ParsedCommand.Keyword.values()) {
+            if (!keyword.getWord().isEmpty()) {
+                byLetter.get(keyword.getWord().charAt(0) - 'a').add(keyword);
+            }
+        }
+        ParsedCommand.Keyword[][] table = new ParsedCommand.Keyword[ALPHABET_SIZE][];
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            table[i] = byLetter.get(i).toArray(new ParsedCommand.Keyword[0]);
+        }
+        return table;
+    }
+
+    /**
+     * Lexes a command into the given structure, replacing what it held.
+     *
+     * @param input   The command as typed, possibly with surrounding whitespace.
+     * @param command The structure to fill in.
+     * @return The same structure, for convenience.
+     */
+    public ParsedCommand lex(String input, ParsedCommand command) {
+        command.reset(input);
+        int start = skipWhitespace(input, 0);
+        int end = trimEnd(input, start);
+        if (start == end) {
+            return command;
+        }
+        char first = input.charAt(start);
+        if (first < 'a' || first > 'z') {
+            return command;
+        }
+        for (ParsedCommand.Keyword keyword : KEYWORDS_BY_LETTER[first - 'a']) {
+            String word = keyword.getWord();
+            if (!input.startsWith(word, start)) {
+                continue;
+            }
+            int wordEnd = start + word.length();
+            if (keyword.isWholeCommand() && wordEnd != end) {
+                continue;
+            }
+            int argumentStart = skipWhitespace(input, wordEnd);
+            command.setKeyword(keyword, Math.min(argumentStart, end), end);
+            lexWords(input, Math.min(argumentStart, end), end, command);
+            lexTaskNumber(input, Math.min(argumentStart, end), end, command);
+            return command;
+        }
+        return command;
+    }
+
+    /** Records where each word of the argument starts and ends. */
+    private static void lexWords(String input, int start, int end, ParsedCommand command) {
+        int i = start;
+        while (i < end) {
+            int wordStart = i;
+            while (i < end && !Parser.isSpace(input.charAt(i))) {
+                i++;
+            }
+            command.addWord(wordStart, i);
+            i = skipWhitespace(input, i);
+        }
+    }
+
+    /** Records the argument as a task number or id if it is exactly one. */
+    private static void lexTaskNumber(String input, int start, int end, ParsedCommand command) {
+        if (start == end) {
+            return;
+        }
+        boolean isId = input.charAt(start) == ID_PREFIX;
+        long number = Parser.scanPositiveNumber(input, isId ? start + 1 : start, end,
+                isId ? Long.MAX_VALUE : Integer.MAX_VALUE);
+        if (number > 0) {
+            command.setTaskNumber(number, isId);
+        }
+    }
+
+    private static int skipWhitespace(String input, int from) {
+        int i = from;
+        while (i < input.length() && Parser.isSpace(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimEnd(String input, int start) {
+        int end = input.length();
+        while (end > start && Parser.isSpace(input.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,336 @@
+package friday;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A set of non-negative longs, stored compactly in the style of a Roaring bitmap.
+ * <p>
+ * Values are grouped by their high bits into chunks of 65536. A chunk with few values
+ * keeps them as a sorted array of their low 16 bits; once it holds more than 4096 it
+ * switches to a plain 8 KB bitmap, which is smaller from then on. Intersections, unions
+ * and differences work chunk by chunk, merging arrays or combining bitmap words, so
+ * their cost follows the number of values involved rather than the range they span.
+ */
+public class CompressedBitmap {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final int WORDS = (1 << CHUNK_BITS) / Long.SIZE;
+
+    private final TreeMap<Long, Chunk> chunks = new TreeMap<>();
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value The value, at least 0.
+     */
+    public void add(long value) {
+        chunks.computeIfAbsent(value >>> CHUNK_BITS, unused -> new Chunk()).add((int) (value & CHUNK_MASK));
+    }
+
+    /**
+     * Removes a value from the set.
+     *
+     * @param value The value.
+     */
+    public void remove(long value) {
+        Long key = value >>> CHUNK_BITS;
+        Chunk chunk = chunks.get(key);
+        if (chunk != null) {
+            chunk.remove((int) (value & CHUNK_MASK));
+            if (chunk.cardinality == 0) {
+                chunks.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the set contains the value.
+     *
+     * @param value The value.
+     * @return {@code true} if it is in the set.
+     */
+    public boolean contains(long value) {
+        Chunk chunk = chunks.get(value >>> CHUNK_BITS);
+        return chunk != null && chunk.contains((int) (value & CHUNK_MASK));
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return The cardinality.
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (Chunk chunk : chunks.values()) {
+            cardinality += chunk.cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns the values in both sets.
+     *
+     * @param other The other set.
+     * @return A new set.
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        TreeMap<Long, Chunk> smaller = chunks.size() <= other.chunks.size() ? chunks : other.chunks;
+        TreeMap<Long, Chunk> larger = smaller == chunks ? other.chunks : chunks;
+        for (Map.Entry<Long, Chunk> entry : smaller.entrySet()) {
+            Chunk match = larger.get(entry.getKey());
+            if (match != null) {
+                result.putIfNotEmpty(entry.getKey(), entry.getValue().and(match));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values in either set.
+     *
+     * @param other The other set.
+     * @return A new set.
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<Long, Chunk> entry : chunks.entrySet()) {
+            Chunk match = other.chunks.get(entry.getKey());
+            result.chunks.put(entry.getKey(), match == null ? entry.getValue().copy() : entry.getValue().or(match));
+        }
+        for (Map.Entry<Long, Chunk> entry : other.chunks.entrySet()) {
+            result.chunks.putIfAbsent(entry.getKey(), entry.getValue().copy());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values in this set but not in the other.
+     *
+     * @param other The other set.
+     * @return A new set.
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<Long, Chunk> entry : chunks.entrySet()) {
+            Chunk match = other.chunks.get(entry.getKey());
+            Chunk chunk = entry.getValue();
+            result.putIfNotEmpty(entry.getKey(), match == null ? chunk.copy() : chunk.andNot(match));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values in ascending order.
+     *
+     * @return An array of the values.
+     */
+    public long[] toArray() {
+        long[] values = new long[(int) cardinality()];
+        int count = 0;
+        for (Map.Entry<Long, Chunk> entry : chunks.entrySet()) {
+            long high = entry.getKey() << CHUNK_BITS;
+            Iterator<Integer> lows = entry.getValue().iterator();
+            while (lows.hasNext()) {
+                values[count++] = high | lows.next();
+            }
+        }
+        return values;
+    }
+
+    private void putIfNotEmpty(long key, Chunk chunk) {
+        if (chunk.cardinality > 0) {
+            chunks.put(key, chunk);
+        }
+    }
+
+    /**
+     * The values of one chunk: a sorted array of low bits, or a bitmap once dense.
+     */
+    private static final class Chunk {
+        private char[] values = new char[4];
+        private long[] words;
+        private int cardinality;
+
+        private boolean contains(int low) {
+            if (words != null) {
+                return (words[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, (char) low) >= 0;
+        }
+
+        private void add(int low) {
+            if (words != null) {
+                if ((words[low >>> 6] & (1L << low)) == 0) {
+                    words[low >>> 6] |= 1L << low;
+                    cardinality++;
+                }
+                return;
+            }
+            int position = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (position >= 0) {
+                return;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                toWords();
+                add(low);
+                return;
+            }
+            position = -position - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, cardinality * 2));
+            }
+            System.arraycopy(values, position, values, position + 1, cardinality - position);
+            values[position] = (char) low;
+            cardinality++;
+        }
+
+        private void remove(int low) {
+            if (words != null) {
+                if ((words[low >>> 6] & (1L << low)) != 0) {
+                    words[low >>> 6] &= ~(1L << low);
+                    cardinality--;
+                    if (cardinality <= MAX_ARRAY_SIZE / 2) {
+                        toValues();
+                    }
+                }
+                return;
+            }
+            int position = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (position >= 0) {
+                System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+                cardinality--;
+            }
+        }
+
+        private Chunk and(Chunk other) {
+            if (words != null && other.words != null) {
+                Chunk result = new Chunk();
+                result.words = new long[WORDS];
+                for (int i = 0; i < WORDS; i++) {
+                    result.words[i] = words[i] & other.words[i];
+                    result.cardinality += Long.bitCount(result.words[i]);
+                }
+                return result.normalized();
+            }
+            // Probe the smaller side's values against the other side.
+            Chunk sparse = words == null && (other.words != null || cardinality <= other.cardinality) ? this : other;
+            Chunk probed = sparse == this ? other : this;
+            Chunk result = new Chunk();
+            result.values = new char[Math.max(1, sparse.cardinality)];
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (probed.contains(sparse.values[i])) {
+                    result.values[result.cardinality++] = sparse.values[i];
+                }
+            }
+            return result;
+        }
+
+        private Chunk or(Chunk other) {
+            Chunk result = copy();
+            Iterator<Integer> lows = other.iterator();
+            while (lows.hasNext()) {
+                result.add(lows.next());
+            }
+            return result;
+        }
+
+        private Chunk andNot(Chunk other) {
+            if (words != null && other.words != null) {
+                Chunk result = new Chunk();
+                result.words = new long[WORDS];
+                for (int i = 0; i < WORDS; i++) {
+                    result.words[i] = words[i] & ~other.words[i];
+                    result.cardinality += Long.bitCount(result.words[i]);
+                }
+                return result.normalized();
+            }
+            Chunk result = copy();
+            if (words == null) {
+                result.cardinality = 0;
+                for (int i = 0; i < cardinality; i++) {
+                    if (!other.contains(values[i])) {
+                        result.values[result.cardinality++] = values[i];
+                    }
+                }
+                return result;
+            }
+            Iterator<Integer> lows = other.iterator();
+            while (lows.hasNext()) {
+                result.remove(lows.next());
+            }
+            return result;
+        }
+
+        private Chunk copy() {
+            Chunk copy = new Chunk();
+            copy.values = values == null ? null : values.clone();
+            copy.words = words == null ? null : words.clone();
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        private Chunk normalized() {
+            if (words != null && cardinality <= MAX_ARRAY_SIZE / 2) {
+                toValues();
+            }
+            return this;
+        }
+
+        private void toWords() {
+            words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toValues() {
+            char[] sorted = new char[Math.max(4, cardinality)];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    sorted[count++] = (char) (i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                }
+            }
+            values = sorted;
+            words = null;
+        }
+
+        private Iterator<Integer> iterator() {
+            return new Iterator<>() {
+                private int index;
+                private int nextLow = words == null ? -1 : advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return words == null ? index < cardinality : nextLow >= 0;
+                }
+
+                @Override
+                public Integer next() {
+                    if (words == null) {
+                        return (int) values[index++];
+                    }
+                    int low = nextLow;
+                    nextLow = advance(low + 1);
+                    return low;
+                }
+
+                private int advance(int from) {
+                    for (int i = from >>> 6; i < WORDS && from < (1 << CHUNK_BITS); i++) {
+                        long word = words[i] & (i == from >>> 6 ? -1L << from : -1L);
+                        if (word != 0) {
+                            return i * Long.SIZE + Long.numberOfTrailingZeros(word);
+                        }
+                    }
+                    return -1;
+                }
+            };
+        }
+    }
+}
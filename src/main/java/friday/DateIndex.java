@@ -0,0 +1,101 @@
+package friday;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A date-ordered index of the {@link Deadline} and {@link Event} tasks of a run of
+ * tasks, never changed once built.
+ * <p>
+ * The positions of the dated tasks are sorted by their {@code getDate()}, tasks
+ * sharing a date keeping their order in the run, and held in primitive arrays. A
+ * range query finds the first date of the range by binary search and walks only the
+ * dates inside it, so it costs O(log n + k) for k matching tasks.
+ */
+public final class DateIndex {
+    /** Days since the epoch of the dated tasks, in ascending order. */
+    private final long[] days;
+    /** Position in the run of the task with the date at the same place in {@link #days}. */
+    private final int[] positions;
+
+    private DateIndex(long[] days, int[] positions) {
+        this.days = days;
+        this.positions = positions;
+    }
+
+    /**
+     * Returns an index of the given tasks.
+     *
+     * @param tasks The tasks, in list order.
+     * @return The index.
+     */
+    public static DateIndex build(List<Task> tasks) {
+        Integer[] dated = new Integer[tasks.size()];
+        long[] dayOf = new long[tasks.size()];
+        int count = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            LocalDate date = dateOf(tasks.get(i));
+            if (date != null) {
+                dayOf[i] = date.toEpochDay();
+                dated[count++] = i;
+            }
+        }
+        // The sort is stable, so tasks on the same date stay in list order.
+        Arrays.sort(dated, 0, count, Comparator.comparingLong(i -> dayOf[i]));
+        long[] days = new long[count];
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = dated[i];
+            days[i] = dayOf[dated[i]];
+        }
+        return new DateIndex(days, positions);
+    }
+
+    /**
+     * Returns the date a task is indexed under.
+     *
+     * @param task The task.
+     * @return The date of a deadline or event, or {@code null} for other tasks.
+     */
+    public static LocalDate dateOf(Task task) {
+        if (task instanceof Deadline d) {
+            return d.getDate();
+        } else if (task instanceof Event e) {
+            return e.getDate();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the positions of the tasks dated between the given dates (both
+     * inclusive), ordered by date.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return The positions of the matching tasks.
+     */
+    public int[] between(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return new int[0];
+        }
+        int first = firstOnOrAfter(from.toEpochDay());
+        int end = firstOnOrAfter(to.toEpochDay() + 1);
+        return Arrays.copyOfRange(positions, first, end);
+    }
+
+    private int firstOnOrAfter(long day) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (days[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,68 @@
+package friday;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formats the dates and times shown to the user, such as {@code Mar 01 2026} and
+ * {@code 9:30AM}, and remembers each label it has formatted.
+ * <p>
+ * Many tasks share a date, and a day has only {@value #MINUTES_PER_DAY} distinct
+ * times, so most tasks are displayed without calling {@link DateTimeFormatter} at all.
+ * The labels are safe to use from any thread.
+ */
+public class DateLabels {
+    /** Distinct dates remembered before the cache is emptied and starts over. */
+    private static final int MAX_CACHED_DATES = 4096;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final DateTimeFormatter DATE_OUTPUT = DateTimeFormatter.ofPattern("MMM dd yyyy", Locale.ENGLISH);
+    private static final DateTimeFormatter TIME_OUTPUT = DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH);
+
+    private static final Map<LocalDate, String> DATES = new ConcurrentHashMap<>();
+    // Strings are immutable, so a label published through this plain array is always
+    // seen whole; at worst two threads format the same time.
+    private static final String[] TIMES = new String[MINUTES_PER_DAY];
+
+    /**
+     * Returns the label of a date.
+     *
+     * @param date The date.
+     * @return The date formatted as {@code MMM dd yyyy}.
+     */
+    public static String of(LocalDate date) {
+        String label = DATES.get(date);
+        if (label == null) {
+            if (DATES.size() >= MAX_CACHED_DATES) {
+                DATES.clear();
+            }
+            label = date.format(DATE_OUTPUT);
+            DATES.put(date, label);
+        }
+        return label;
+    }
+
+    /**
+     * Returns the label of a time of day. Only times to the minute, as events are
+     * saved, are remembered.
+     *
+     * @param time The time.
+     * @return The time formatted as {@code h:mma}.
+     */
+    public static String of(LocalTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            return time.format(TIME_OUTPUT);
+        }
+        int minute = time.getHour() * 60 + time.getMinute();
+        String label = TIMES[minute];
+        if (label == null) {
+            label = time.format(TIME_OUTPUT);
+            TIMES[minute] = label;
+        }
+        return label;
+    }
+}
@@ -3,7 +3,6 @@ package friday;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Locale;
 
 /**
  * Represents a deadline task that must be completed by a specific date.
@@ -12,12 +11,9 @@ public class Deadline extends Task {
     private static final String TYPE_CODE = "D";
     private static final String STORAGE_DELIMITER = " | ";
 
-    private static final String OUTPUT_PATTERN = "MMM dd yyyy";
-
     private static final String INVALID_DATE_MESSAGE = "Invalid date format. Use: yyyy-MM-dd (e.g 2019-12-02)";
 
     private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
-    private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern(OUTPUT_PATTERN, Locale.ENGLISH);
 
     private final LocalDate deadline;
 
@@ -64,13 +60,13 @@ public class Deadline extends Task {
     }
 
     /**
-     * Returns the string representation of this deadline for display to the user.
+     * Builds the string representation of this deadline for display to the user.
      *
      * @return A formatted string representing the deadline task.
      */
     @Override
-    public String toString() {
-        return "[" + TYPE_CODE + "] " + super.toString() + " (by: " + this.deadline.format(OUTPUT_FORMAT) + ")";
+    protected String render() {
+        return "[" + TYPE_CODE + "] " + super.render() + " (by: " + DateLabels.of(this.deadline) + ")";
     }
 
     /**
@@ -81,11 +77,11 @@ public class Deadline extends Task {
      */
     @Override
     public String toSaveString() {
-        String safeDescription = getDescription().replace(STORAGE_DELIMITER, " \\| ");
         return TYPE_CODE + STORAGE_DELIMITER
                 + (isCompleted() ? "1" : "0") + STORAGE_DELIMITER
-                + safeDescription
-                + STORAGE_DELIMITER + this.deadline.format(INPUT_FORMAT);
+                + escapedDescription()
+                + STORAGE_DELIMITER + this.deadline.format(INPUT_FORMAT)
+                + idField();
     }
 
     public LocalDate getDate() {
@@ -0,0 +1,30 @@
+package friday;
+
+/**
+ * Controls when journal writes are forced to stable storage.
+ */
+public enum DurabilityPolicy {
+    /** Every record is written and forced to disk on its own. */
+    EVERY_COMMIT,
+    /** Records are coalesced into batches and each batch is forced to disk once. */
+    PER_BATCH,
+    /** Batches are handed to the operating system and only forced on flush or close. */
+    OS_BUFFERED;
+
+    /**
+     * Returns the policy with the given name, ignoring case and accepting
+     * dashes in place of underscores (e.g. {@code per-batch}).
+     *
+     * @param name The policy name.
+     * @return The matching {@code DurabilityPolicy}.
+     * @throws FridayException If no policy has the given name.
+     */
+    public static DurabilityPolicy fromString(String name) throws FridayException {
+        for (DurabilityPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name.trim().replace('-', '_'))) {
+                return policy;
+            }
+        }
+        throw new FridayException("Unknown durability policy: " + name);
+    }
+}
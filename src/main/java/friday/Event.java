@@ -1,10 +1,10 @@
 package friday;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Locale;
 
 /**
  * Represents an event task that occurs on a specific date
@@ -18,8 +18,6 @@ public class Event extends Task {
 
     private static final DateTimeFormatter DATE_INPUT = DateTimeFormatter.ISO_LOCAL_DATE;
     private static final DateTimeFormatter TIME_INPUT = DateTimeFormatter.ofPattern("HHmm");
-    private static final DateTimeFormatter DATE_OUTPUT = DateTimeFormatter.ofPattern("MMM dd yyyy", Locale.ENGLISH);
-    private static final DateTimeFormatter TIME_OUTPUT = DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH);
 
     private final LocalDate date;
     private final LocalTime start;
@@ -84,19 +82,19 @@ public class Event extends Task {
     }
 
     /**
-     * Returns the string representation of this event for display to the user.
+     * Builds the string representation of this event for display to the user.
      * Shows the date and time range of the event.
      *
      * @return A formatted string representing the event.
      */
     @Override
-    public String toString() {
-        return "[" + TYPE_CODE + "] " + super.toString()
+    protected String render() {
+        return "[" + TYPE_CODE + "] " + super.render()
                 + " (from: "
-                + this.date.format(DATE_OUTPUT) + " "
-                + this.start.format(TIME_OUTPUT)
+                + DateLabels.of(this.date) + " "
+                + DateLabels.of(this.start)
                 + " to: "
-                + this.end.format(TIME_OUTPUT)
+                + DateLabels.of(this.end)
                 + ")";
     }
 
@@ -108,16 +106,44 @@ public class Event extends Task {
      */
     @Override
     public String toSaveString() {
-        String safeDescription = getDescription().replace(STORAGE_DELIMITER, " \\| ");
         return TYPE_CODE + STORAGE_DELIMITER
                 + (isCompleted() ? "1" : "0") + STORAGE_DELIMITER
-                + safeDescription
+                + escapedDescription()
                 + STORAGE_DELIMITER + this.date.format(DATE_INPUT)
                 + STORAGE_DELIMITER + this.start.format(TIME_INPUT)
-                + STORAGE_DELIMITER + this.end.format(TIME_INPUT);
+                + STORAGE_DELIMITER + this.end.format(TIME_INPUT)
+                + idField();
     }
 
     public LocalDate getDate() {
         return this.date;
     }
+
+    public LocalTime getStart() {
+        return this.start;
+    }
+
+    public LocalTime getEnd() {
+        return this.end;
+    }
+
+    /**
+     * Returns when this event starts.
+     *
+     * @return The start date and time.
+     */
+    public LocalDateTime getStartDateTime() {
+        return this.date.atTime(this.start);
+    }
+
+    /**
+     * Returns when this event ends. An end time before the start time is taken to
+     * be on the following day.
+     *
+     * @return The end date and time.
+     */
+    public LocalDateTime getEndDateTime() {
+        LocalDate endDate = this.end.isBefore(this.start) ? this.date.plusDays(1) : this.date;
+        return endDate.atTime(this.end);
+    }
 }
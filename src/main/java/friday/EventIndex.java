@@ -0,0 +1,202 @@
+package friday;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * An index of {@link Event} time ranges for overlap and free-slot queries.
+ * <p>
+ * Events are kept in a sorted map by start time, each as its id and time range in
+ * seconds rather than as the {@link Event} itself, together with the length of the
+ * longest event ever indexed. An event overlapping a query range must start before
+ * the range ends and no earlier than that length before the range starts, so a query
+ * only walks that part of the map: O(log n + k), where k counts the events starting
+ * in that stretch. Events last at most a day (see {@link Event#getEndDateTime()}),
+ * which bounds the extra stretch.
+ * <p>
+ * Free and busy time over a window is computed by a sweep over the overlapping
+ * events in start order, merging the ones that overlap each other.
+ */
+public class EventIndex {
+    private final NavigableMap<Long, List<Slot>> slotsByStart = new TreeMap<>();
+    /** Upper bound on the length in seconds of every indexed event; never shrinks on removal. */
+    private long longest;
+
+    /**
+     * Returns an index of the events among the given tasks.
+     *
+     * @param tasks The tasks, in list order, which must have ids.
+     * @return The index.
+     */
+    public static EventIndex build(List<Task> tasks) {
+        EventIndex index = new EventIndex();
+        for (Task task : tasks) {
+            index.add(task);
+        }
+        return index;
+    }
+
+    /**
+     * Indexes a task appended to the list. Tasks other than events are ignored.
+     *
+     * @param task The task.
+     */
+    public void add(Task task) {
+        if (!(task instanceof Event event)) {
+            return;
+        }
+        long start = secondsOf(event.getStartDateTime());
+        long end = secondsOf(event.getEndDateTime());
+        longest = Math.max(longest, end - start);
+        slotsByStart.computeIfAbsent(start, unused -> new ArrayList<>()).add(new Slot(event.getId(), start, end));
+    }
+
+    /**
+     * Removes a task deleted from the list.
+     *
+     * @param task The task.
+     */
+    public void remove(Task task) {
+        if (!(task instanceof Event event)) {
+            return;
+        }
+        long start = secondsOf(event.getStartDateTime());
+        List<Slot> sameStart = slotsByStart.get(start);
+        if (sameStart == null) {
+            return;
+        }
+        for (int i = 0; i < sameStart.size(); i++) {
+            if (sameStart.get(i).id == event.getId()) {
+                sameStart.remove(i);
+                break;
+            }
+        }
+        if (sameStart.isEmpty()) {
+            slotsByStart.remove(start);
+        }
+    }
+
+    /**
+     * Returns the ids of the events that overlap the given range, ordered by start time.
+     *
+     * @param start The start of the range.
+     * @param end   The end of the range, exclusive.
+     * @return The ids of the overlapping events.
+     */
+    public List<Long> overlapping(LocalDateTime start, LocalDateTime end) {
+        List<Long> ids = new ArrayList<>();
+        for (Slot slot : overlappingSlots(secondsOf(start), secondsOf(end))) {
+            ids.add(slot.id);
+        }
+        return ids;
+    }
+
+    private List<Slot> overlappingSlots(long start, long end) {
+        List<Slot> overlaps = new ArrayList<>();
+        if (start >= end) {
+            return overlaps;
+        }
+        for (List<Slot> sameStart : slotsByStart.subMap(start - longest, true, end, false).values()) {
+            for (Slot slot : sameStart) {
+                if (slot.end > start) {
+                    overlaps.add(slot);
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Returns the busy periods within the given window: the union of the time taken
+     * by events, clipped to the window.
+     *
+     * @param from The start of the window.
+     * @param to   The end of the window, exclusive.
+     * @return The disjoint busy periods, in order.
+     */
+    public List<TimeSlot> busy(LocalDateTime from, LocalDateTime to) {
+        List<TimeSlot> periods = new ArrayList<>();
+        LocalDateTime periodStart = null;
+        LocalDateTime periodEnd = null;
+        for (Slot slot : overlappingSlots(secondsOf(from), secondsOf(to))) {
+            LocalDateTime start = max(dateTimeOf(slot.start), from);
+            LocalDateTime end = min(dateTimeOf(slot.end), to);
+            if (periodEnd != null && !start.isAfter(periodEnd)) {
+                periodEnd = max(periodEnd, end);
+                continue;
+            }
+            if (periodEnd != null) {
+                periods.add(new TimeSlot(periodStart, periodEnd));
+            }
+            periodStart = start;
+            periodEnd = end;
+        }
+        if (periodEnd != null) {
+            periods.add(new TimeSlot(periodStart, periodEnd));
+        }
+        return periods;
+    }
+
+    /**
+     * Returns the gaps between busy periods within the given window that are at
+     * least the given length.
+     *
+     * @param from      The start of the window.
+     * @param to        The end of the window, exclusive.
+     * @param minLength The shortest gap to report.
+     * @return The free slots, in order.
+     */
+    public List<TimeSlot> free(LocalDateTime from, LocalDateTime to, Duration minLength) {
+        List<TimeSlot> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (TimeSlot period : busy(from, to)) {
+            addIfLongEnough(slots, cursor, period.getStart(), minLength);
+            cursor = period.getEnd();
+        }
+        addIfLongEnough(slots, cursor, to, minLength);
+        return slots;
+    }
+
+    private static void addIfLongEnough(List<TimeSlot> slots, LocalDateTime start, LocalDateTime end,
+                                        Duration minLength) {
+        if (start.isBefore(end) && Duration.between(start, end).compareTo(minLength) >= 0) {
+            slots.add(new TimeSlot(start, end));
+        }
+    }
+
+    private static long secondsOf(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime dateTimeOf(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * The id and time range of an indexed event.
+     */
+    private static final class Slot {
+        private final long id;
+        private final long start;
+        private final long end;
+
+        private Slot(long id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
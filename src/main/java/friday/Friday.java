@@ -1,34 +1,69 @@
 package friday;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * The main entry point of the Friday task management application.
  * <p>
  * This class coordinates user interaction, command handling, task management,
  * and persistent storage by delegating responsibilities to {@link UI},
- * {@link Parser}, {@link TaskList}, and {@link Storage}.
+ * {@link Parser}, {@link TaskList}, and {@link TaskStore}.
  */
 public class Friday {
     // Command keywords as constants
-    private static final String CMD_BYE = "bye";
-    private static final String CMD_LIST = "list";
+    private static final CommandLexer LEXER = new CommandLexer();
     private static final String CMD_MARK = "mark";
     private static final String CMD_UNMARK = "unmark";
-    private static final String CMD_TODO = "todo";
-    private static final String CMD_DEADLINE = "deadline";
-    private static final String CMD_EVENT = "event";
     private static final String CMD_DELETE = "delete";
-    private static final String CMD_FIND = "find";
-    private static final String CMD_REMIND = "remind";
+    private static final String CMD_IMPORT = "import";
+    private static final String FLAG_BY = "/by";
+    private static final String FLAG_FROM = "/from";
+    private static final String FLAG_TO = "/to";
+    private static final String OPT_IMPORT = "--import";
+    /** File name that makes {@code import} read standard input instead. */
+    private static final String STDIN_FILE = "-";
+    private static final String IMPORT_COMMENT_PREFIX = "#";
+    /** Number of imported tasks added and persisted together. */
+    private static final int IMPORT_BATCH_SIZE = 100_000;
+    private static final int MAX_REPORTED_IMPORT_ERRORS = 20;
+    private static final String FILTER_USAGE = "Usage: filter [todo|deadline|event]... [done|undone]"
+            + " [yyyy-mm|this-month]...";
+    private static final String OPT_RANKED = "--ranked";
+    private static final String OPT_LIMIT = "--limit";
+    private static final int DEFAULT_FREE_SLOT_MINUTES = 30;
+    private static final int DEFAULT_FIND_LIMIT = 10;
+    private static final DateTimeFormatter TIME_INPUT = DateTimeFormatter.ofPattern("HHmm");
 
     // Shared components
     private final UI ui;
-    private final Storage storage;
+    private final TaskStore storage;
     private final Parser parser;
     private TaskList list;
+    /** Reused for every command, so lexing one allocates nothing. */
+    private final ParsedCommand command = new ParsedCommand();
+    /** Problem found while loading the saved tasks, shown after the greeting; {@code null} if none. */
+    private String loadWarning;
 
     private boolean isExit = false;
 
@@ -38,14 +73,19 @@ public class Friday {
      */
     public Friday() {
         ui = new UI();
-        storage = new Storage();
+        storage = TaskStore.open();
         parser = new Parser();
 
         try {
             list = storage.loadTaskList(parser);
+            LoadReport report = storage.getLoadReport();
+            if (!report.isClean()) {
+                loadWarning = report.toString();
+            }
         } catch (FridayException e) {
-            // For GUI, we don't want to crash; start fresh.
+            // For GUI, we don't want to crash; start fresh, but say why the tasks are gone.
             list = new TaskList();
+            loadWarning = "Could not load your saved tasks: " + e.getMessage();
         }
     }
 
@@ -53,9 +93,26 @@ public class Friday {
         return this.isExit;
     }
 
+    /**
+     * Flushes pending writes to disk and releases storage resources.
+     * Called when the user says {@code bye} or the application window is closed.
+     *
+     * @throws FridayException If a pending write failed.
+     */
+    public void shutdown() throws FridayException {
+        storage.close();
+    }
+
     /** Optional: show greeting in GUI at startup. */
     public String getWelcomeMessage() {
-        return captureOutput(() -> ui.greet()).trim();
+        return captureOutput(this::greet).trim();
+    }
+
+    private void greet() {
+        ui.greet();
+        if (loadWarning != null) {
+            ui.printLoadWarning(loadWarning);
+        }
     }
 
     /**
@@ -71,17 +128,23 @@ public class Friday {
             return "";
         }
         return captureOutput(() -> {
-            if (trimmed.equals(CMD_BYE)) {
+            LEXER.lex(trimmed, command);
+            if (command.getKeyword() == ParsedCommand.Keyword.BYE) {
                 isExit = true;
+                try {
+                    shutdown();
+                } catch (FridayException e) {
+                    ui.printException(e);
+                }
                 ui.bye();
                 return;
             }
-            if (trimmed.equals(CMD_LIST)) {
+            if (command.getKeyword() == ParsedCommand.Keyword.LIST) {
                 ui.printList(list);
                 return;
             }
             try {
-                handleCommand(trimmed, list, storage, ui, parser);
+                handleCommand(command, list, storage, ui, parser);
             } catch (FridayException e) {
                 ui.printException(e);
             } catch (RuntimeException e) {
@@ -97,28 +160,63 @@ public class Friday {
      * Initializes required components, loads saved tasks, and processes user commands
      * until the user exits the application.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments: none, or {@code --import <file>} to import the
+     *             tasks in the file (or standard input, for {@code -}) and exit.
      */
     public static void main(String[] args) {
+        if (args.length == 2 && args[0].equals(OPT_IMPORT)) {
+            runImport(args[1]);
+            return;
+        }
         Friday friday = new Friday();
-        friday.ui.greet();
+        friday.greet();
         while (true) {
-            String input = friday.ui.readCommand();
-            if (input.trim().equals(CMD_BYE)) {
+            ParsedCommand command = LEXER.lex(friday.ui.readCommand().trim(), friday.command);
+            if (command.getKeyword() == ParsedCommand.Keyword.BYE) {
                 break;
-            } else if (input.trim().equals(CMD_LIST)) {
+            } else if (command.getKeyword() == ParsedCommand.Keyword.LIST) {
                 friday.ui.printList(friday.list);
             } else {
                 try {
-                    handleCommand(input.trim(), friday.list, friday.storage, friday.ui, friday.parser);
+                    handleCommand(command, friday.list, friday.storage, friday.ui, friday.parser);
                 } catch (FridayException e) {
                     friday.ui.printException(e);
+                } catch (RuntimeException e) {
+                    friday.ui.printException(new FridayException("Something went wrong: " + e.getMessage()));
                 }
             }
         }
+        try {
+            friday.shutdown();
+        } catch (FridayException e) {
+            friday.ui.printException(e);
+        }
         friday.ui.bye();
     }
 
+    /**
+     * Imports the tasks in the given file without reading any commands, then exits.
+     *
+     * @param file The file to import, or {@code -} for standard input.
+     */
+    private static void runImport(String file) {
+        Friday friday = new Friday();
+        if (friday.loadWarning != null) {
+            friday.ui.printLoadWarning(friday.loadWarning);
+        }
+        try {
+            handleImport(LEXER.lex(CMD_IMPORT + " " + file, friday.command), friday.list, friday.storage,
+                    friday.ui, friday.parser);
+        } catch (FridayException e) {
+            friday.ui.printException(e);
+        }
+        try {
+            friday.shutdown();
+        } catch (FridayException e) {
+            friday.ui.printException(e);
+        }
+    }
+
     /** Captures anything printed to System.out during action.run() and returns it. */
     private String captureOutput(Runnable action) {
         PrintStream originalOut = System.out;
@@ -136,194 +234,400 @@ public class Friday {
     }
 
     /**
-     * Dispatches the given user command to the appropriate handler method.
+     * Dispatches the given user command to the appropriate handler method,
+     * then lets the {@link TaskStore} compact its files if they have grown.
      *
      * @param input   The full user command.
      * @param list    The {@link TaskList} containing current tasks.
-     * @param storage The {@link Storage} used for saving tasks.
+     * @param storage The {@link TaskStore} used for saving tasks.
      * @param ui      The {@link UI} used to display messages.
      * @param parser  The {@link Parser} used to parse command details.
      * @throws FridayException If the command is invalid or cannot be processed.
      */
-    public static void handleCommand(String input, TaskList list, Storage storage,
+    public static void handleCommand(String input, TaskList list, TaskStore storage,
                                      UI ui, Parser parser) throws FridayException {
-        if (input.startsWith(CMD_MARK)) {
-            handleMark(input, list, storage, ui, parser);
-        } else if (input.startsWith(CMD_UNMARK)) {
-            handleUnmark(input, list, storage, ui, parser);
-        } else if (input.startsWith(CMD_TODO)) {
-            handleTodo(input, list, storage, ui);
-        } else if (input.startsWith(CMD_DEADLINE)) {
-            handleDeadline(input, list, storage, ui);
-        } else if (input.startsWith(CMD_EVENT)) {
-            handleEvent(input, list, storage, ui);
-        } else if (input.startsWith(CMD_DELETE)) {
-            handleDelete(input, list, storage, ui, parser);
-        } else if (input.startsWith(CMD_FIND)) {
-            handleFind(input, list, ui);
-        } else if (input.startsWith(CMD_REMIND)) {
-            handleRemind(input, list, ui);
-        } else {
+        handleCommand(LEXER.lex(input, new ParsedCommand()), list, storage, ui, parser);
+    }
+
+    /**
+     * Dispatches a lexed command to the appropriate handler method, then lets the
+     * {@link TaskStore} compact its files if they have grown. A {@code mark},
+     * {@code unmark} or {@code delete} of a single task number or id is carried out
+     * from the lexed number, without parsing the input again.
+     *
+     * @param command The lexed command.
+     * @param list    The current {@link TaskList}.
+     * @param storage The {@link TaskStore} used for saving tasks.
+     * @param ui      The {@link UI} used to display messages.
+     * @param parser  The {@link Parser} used to parse command details.
+     * @throws FridayException If the command is invalid or cannot be processed.
+     */
+    public static void handleCommand(ParsedCommand command, TaskList list, TaskStore storage,
+                                     UI ui, Parser parser) throws FridayException {
+        switch (command.getKeyword()) {
+        case MARK:
+            if (command.hasTaskNumber()) {
+                markTask(resolveTaskNumber(command, list), list, storage, ui);
+            } else {
+                handleMark(command, list, storage, ui, parser);
+            }
+            break;
+        case UNMARK:
+            if (command.hasTaskNumber()) {
+                unmarkTask(resolveTaskNumber(command, list), list, storage, ui);
+            } else {
+                handleUnmark(command, list, storage, ui, parser);
+            }
+            break;
+        case DELETE:
+            if (command.hasTaskNumber()) {
+                deleteTask(resolveTaskNumber(command, list), list, storage, ui);
+            } else {
+                handleDelete(command, list, storage, ui, parser);
+            }
+            break;
+        case TODO:
+            handleTodo(command, list, storage, ui);
+            break;
+        case DEADLINE:
+            handleDeadline(command, list, storage, ui);
+            break;
+        case EVENT:
+            handleEvent(command, list, storage, ui);
+            break;
+        case FIND:
+            handleFind(command, list, ui);
+            break;
+        case REMIND:
+            handleRemind(command, list, ui);
+            break;
+        case BETWEEN:
+            handleBetween(command, list, ui);
+            break;
+        case OVERLAPS:
+            handleOverlaps(command, list, ui);
+            break;
+        case FREE:
+            handleFree(command, list, ui);
+            break;
+        case IMPORT:
+            handleImport(command, list, storage, ui, parser);
+            break;
+        case FILTER:
+            handleFilter(command, list, ui);
+            break;
+        case STATS:
+            ui.printIndexStats(list.describeStorage());
+            ui.printIndexStats(list.describeFindIndex());
+            break;
+        default:
             throw new FridayException("I don't understand that command");
         }
+        storage.compactIfNeeded(list);
     }
 
     /**
      * Handles the {@code find} command.
      * Searches for tasks whose descriptions contain the given keyword
      * and displays the matching tasks without modifying the task list.
+     * <p>
+     * With {@code --ranked} or {@code --limit <n>}, displays instead the most relevant
+     * tasks for the keyword's words, best first and tolerating typos, at most
+     * {@code n} of them (10 by default).
      *
-     * @param input The full user input string.
+     * @param command The lexed command.
      * @param list The current {@link TaskList}.
      * @param ui The {@link UI} responsible for displaying output.
-     * @throws FridayException If the keyword is missing.
+     * @throws FridayException If the keyword is missing or the limit is malformed.
      */
-    public static void handleFind(String input, TaskList list, UI ui) throws FridayException {
-        String keyword = input.substring(5).trim();
+    public static void handleFind(ParsedCommand command, TaskList list, UI ui) throws FridayException {
+        boolean isRanked = false;
+        int limit = DEFAULT_FIND_LIMIT;
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < command.getWordCount(); i++) {
+            if (command.isWord(i, OPT_RANKED)) {
+                isRanked = true;
+            } else if (command.isWord(i, OPT_LIMIT)) {
+                isRanked = true;
+                limit = parseLimit(command, i + 1);
+                i++;
+            } else {
+                words.append(words.length() == 0 ? "" : " ").append(command.getWord(i));
+            }
+        }
+        String keyword = isRanked ? words.toString() : command.getArgument();
         if (keyword.isEmpty()) {
             throw new FridayException("Please provide a keyword to search for.");
         }
-        ui.printFindResults(list, keyword);
+        if (isRanked) {
+            ui.printRankedResults(list.rankTasks(keyword, limit));
+        } else {
+            ui.printFindResults(list, keyword);
+        }
+    }
+
+    private static int parseLimit(ParsedCommand command, int position) throws FridayException {
+        String usage = "Usage: find <keyword> " + OPT_LIMIT + " <positive number>";
+        if (position >= command.getWordCount()) {
+            throw new FridayException(usage);
+        }
+        try {
+            int limit = Integer.parseInt(command.getWord(position));
+            if (limit <= 0) {
+                throw new FridayException(usage);
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new FridayException(usage);
+        }
     }
 
     /**
      * Handles deletion of a task specified by the user command.
      *
-     * @param input   The delete command entered by the user.
+     * @param command The lexed delete command.
      * @param list    The {@link TaskList} containing current tasks.
-     * @param storage The {@link Storage} used to save changes.
+     * @param storage The {@link TaskStore} used to save changes.
      * @param ui      The {@link UI} used to display output.
      * @param parser  The {@link Parser} used to parse the task index.
      * @throws FridayException If the command format or index is invalid.
      */
-    public static void handleDelete(String input, TaskList list, Storage storage,
+    public static void handleDelete(ParsedCommand command, TaskList list, TaskStore storage,
                                     UI ui, Parser parser) throws FridayException {
-        int index = parser.parseIndex(input);
+        TaskTargets targets = parser.parseTargets(command);
+        if (targets != null) {
+            handleTargets(CMD_DELETE, targets, list, storage, ui);
+            return;
+        }
+        deleteTask(resolveTaskNumber(command.getInput(), list, parser), list, storage, ui);
+    }
+
+    private static void deleteTask(int index, TaskList list, TaskStore storage, UI ui) throws FridayException {
         if (index < 1 || index > list.size()) {
             throw new FridayException("Task number is out of range");
         }
         Task task = list.get(index - 1);
         list.deleteTask(index - 1); // Now TaskList expects 0-based index
-        storage.saveTaskList(list);
+        storage.saveChanges(list);
         ui.printDelete(task, list);
     }
 
     /**
      * Handles creation of an event task from the user command.
      *
-     * @param input   The event command entered by the user.
+     * @param command The lexed event command.
      * @param list    The {@link TaskList} to add the event to.
-     * @param storage The {@link Storage} used to save changes.
+     * @param storage The {@link TaskStore} used to save changes.
      * @param ui      The {@link UI} used to display output.
      * @throws FridayException If the command format is invalid.
      */
-    public static void handleEvent(String input, TaskList list, Storage storage, UI ui) throws FridayException {
-        String noCommand = input.substring(CMD_EVENT.length()).trim();
-        if (noCommand.isEmpty()) {
+    public static void handleEvent(ParsedCommand command, TaskList list, TaskStore storage,
+                                   UI ui) throws FridayException {
+        Event item = parseEvent(command);
+        List<Event> conflicts = list.getOverlappingEvents(item.getStartDateTime(), item.getEndDateTime());
+        list.addTask(item);
+        ui.printAddTask(item, list);
+        if (!conflicts.isEmpty()) {
+            ui.printConflicts(conflicts);
+        }
+        storage.saveChanges(list);
+    }
+
+    private static Event parseEvent(ParsedCommand command) throws FridayException {
+        if (command.getWordCount() == 0) {
             throw new FridayException("Please include an task name for the event.");
         }
-        if (!noCommand.contains(" /from ") || !noCommand.contains(" /to ")) {
+        // The description, then /from and a date and time, then /to and the end time.
+        int from = command.indexOfWord(FLAG_FROM, 1);
+        int to = command.indexOfWord(FLAG_TO, from + 1);
+        if (from < 0 || to != from + 3 || to == command.getWordCount() - 1) {
             throw new FridayException(
                 "Invalid event format.\n"
                 + "Usage: event <description> /from <yyyy-mm-dd HHmm> /to <HHmm>");
         }
-        String[] parts = noCommand.split(" /from ");
-        String description = parts[0];
-        String[] parts2 = parts[1].split(" /to ");
-        String[] dateAndStart = parts2[0].split(" ");
-        String date = dateAndStart[0];
-        String start = dateAndStart[1];
-        String end = parts2[1];
-        Event item = new Event(description, date, start, end);
-        list.addTask(item);
-        ui.printAddTask(item, list);
-        storage.saveTaskList(list);
+        return new Event(command.getWords(0, from), command.getWord(from + 1), command.getWord(from + 2),
+                command.getWords(to + 1, command.getWordCount()));
     }
 
     /**
      * Handles creation of a deadline task from the user command.
      *
-     * @param input   The deadline command entered by the user.
+     * @param command The lexed deadline command.
      * @param list    The {@link TaskList} to add the deadline to.
-     * @param storage The {@link Storage} used to save changes.
+     * @param storage The {@link TaskStore} used to save changes.
      * @param ui      The {@link UI} used to display output.
      * @throws FridayException If the command format is invalid.
      */
-    public static void handleDeadline(String input, TaskList list, Storage storage, UI ui) throws FridayException {
-        String noCommand = input.substring(CMD_DEADLINE.length()).trim();
-        if (noCommand.isEmpty()) {
+    public static void handleDeadline(ParsedCommand command, TaskList list, TaskStore storage,
+                                      UI ui) throws FridayException {
+        Deadline item = parseDeadline(command);
+        list.addTask(item);
+        ui.printAddTask(item, list);
+        storage.saveChanges(list);
+    }
+
+    private static Deadline parseDeadline(ParsedCommand command) throws FridayException {
+        if (command.getWordCount() == 0) {
             throw new FridayException("Please include a task name for the deadline.");
         }
-        if (!noCommand.contains(" /by ")) {
+        int by = command.indexOfWord(FLAG_BY, 1);
+        if (by < 0 || by == command.getWordCount() - 1) {
             throw new FridayException(
                 "Invalid deadline format.\n"
                 + "Usage: deadline <description> /by <yyyy-mm-dd>");
         }
-        String[] parts = noCommand.split(" /by ");
-        String description = parts[0];
-        String deadline = parts[1];
-        Deadline item = new Deadline(description, deadline);
-        list.addTask(item);
-        ui.printAddTask(item, list);
-        storage.saveTaskList(list);
+        return new Deadline(command.getWords(0, by), command.getWords(by + 1, command.getWordCount()));
     }
 
     /**
      * Handles creation of a to-do task from the user command.
      *
-     * @param input   The to-do command entered by the user.
+     * @param command The lexed to-do command.
      * @param list    The {@link TaskList} to add the task to.
-     * @param storage The {@link Storage} used to save changes.
+     * @param storage The {@link TaskStore} used to save changes.
      * @param ui      The {@link UI} used to display output.
      * @throws FridayException If the command format is invalid.
      */
-    public static void handleTodo(String input, TaskList list, Storage storage, UI ui) throws FridayException {
-        String todoItem = input.substring(CMD_TODO.length()).trim();
-        if (todoItem.trim().isEmpty()) {
-            throw new FridayException("Please include a task name for todo.");
-        }
-        ToDo item = new ToDo(todoItem);
+    public static void handleTodo(ParsedCommand command, TaskList list, TaskStore storage,
+                                  UI ui) throws FridayException {
+        ToDo item = parseTodo(command);
         list.addTask(item);
         ui.printAddTask(item, list);
-        storage.saveTaskList(list);
+        storage.saveChanges(list);
+    }
+
+    private static ToDo parseTodo(ParsedCommand command) throws FridayException {
+        String todoItem = command.getArgument();
+        if (todoItem.isEmpty()) {
+            throw new FridayException("Please include a task name for todo.");
+        }
+        return new ToDo(todoItem);
     }
 
     /**
      * Handles marking a task as completed.
      *
-     * @param input   The mark command entered by the user.
+     * @param command The lexed mark command.
      * @param list    The {@link TaskList} containing current tasks.
-     * @param storage The {@link Storage} used to save changes.
+     * @param storage The {@link TaskStore} used to save changes.
      * @param ui      The {@link UI} used to display output.
      * @param parser  The {@link Parser} used to parse the task index.
      * @throws FridayException If the command format or index is invalid.
      */
-    public static void handleMark(String input, TaskList list, Storage storage,
+    public static void handleMark(ParsedCommand command, TaskList list, TaskStore storage,
                                   UI ui, Parser parser) throws FridayException {
-        int index = parser.parseIndex(input);
-        Task task = list.get(index - 1);
-        task.mark();
-        ui.printMarkTask(task);
-        storage.saveTaskList(list);
+        TaskTargets targets = parser.parseTargets(command);
+        if (targets != null) {
+            handleTargets(CMD_MARK, targets, list, storage, ui);
+            return;
+        }
+        markTask(resolveTaskNumber(command.getInput(), list, parser), list, storage, ui);
+    }
+
+    private static void markTask(int index, TaskList list, TaskStore storage, UI ui) throws FridayException {
+        list.markTask(index - 1);
+        // Marking replaces the task, so it is fetched again to be shown as it is now.
+        ui.printMarkTask(list.get(index - 1));
+        storage.saveChanges(list);
     }
 
     /**
      * Handles unmarking a completed task.
      *
-     * @param input   The unmark command entered by the user.
+     * @param command The lexed unmark command.
      * @param list    The {@link TaskList} containing current tasks.
-     * @param storage The {@link Storage} used to save changes.
+     * @param storage The {@link TaskStore} used to save changes.
      * @param ui      The {@link UI} used to display output.
      * @param parser  The {@link Parser} used to parse the task index.
      * @throws FridayException If the command format or index is invalid.
      */
-    public static void handleUnmark(String input, TaskList list, Storage storage,
+    public static void handleUnmark(ParsedCommand command, TaskList list, TaskStore storage,
                                     UI ui, Parser parser) throws FridayException {
-        int index = parser.parseIndex(input);
-        Task task = list.get(index - 1);
-        task.unmark();
-        ui.printUnmarkTask(task);
-        storage.saveTaskList(list);
+        TaskTargets targets = parser.parseTargets(command);
+        if (targets != null) {
+            handleTargets(CMD_UNMARK, targets, list, storage, ui);
+            return;
+        }
+        unmarkTask(resolveTaskNumber(command.getInput(), list, parser), list, storage, ui);
+    }
+
+    private static void unmarkTask(int index, TaskList list, TaskStore storage, UI ui) throws FridayException {
+        list.unmarkTask(index - 1);
+        ui.printUnmarkTask(list.get(index - 1));
+        storage.saveChanges(list);
+    }
+
+    /**
+     * Applies a {@code mark}, {@code unmark} or {@code delete} command to several tasks
+     * as one change: every target is resolved before any task changes, the tasks are
+     * deleted in a single pass, and the changes are saved together at the end.
+     *
+     * @param command The command word.
+     * @param targets The tasks the command names.
+     * @param list    The {@link TaskList} containing current tasks.
+     * @param storage The {@link TaskStore} used to save changes.
+     * @param ui      The {@link UI} used to display output.
+     * @throws FridayException If a target is out of range or nothing matches.
+     */
+    private static void handleTargets(String command, TaskTargets targets, TaskList list,
+                                      TaskStore storage, UI ui) throws FridayException {
+        BitSet positions = targets.resolve(list);
+        List<Task> tasks = new ArrayList<>(positions.cardinality());
+        switch (command) {
+        case CMD_MARK:
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                list.markTask(i);
+                tasks.add(list.get(i));
+            }
+            ui.printMarkTasks(tasks);
+            break;
+        case CMD_UNMARK:
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                list.unmarkTask(i);
+                tasks.add(list.get(i));
+            }
+            ui.printUnmarkTasks(tasks);
+            break;
+        default:
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                tasks.add(list.get(i));
+            }
+            list.deleteTasks(positions);
+            ui.printDeleteTasks(tasks, list);
+            break;
+        }
+        storage.saveChanges(list);
+    }
+
+    /**
+     * Returns the 1-based number of the task a command refers to, either by its number,
+     * as in {@code mark 2}, or by its id, as in {@code mark #1234}.
+     *
+     * @param input  The full user command.
+     * @param list   The current {@link TaskList}.
+     * @param parser The {@link Parser} used to parse the number or id.
+     * @return The 1-based task number.
+     * @throws FridayException If the command names no task or an unknown id.
+     */
+    private static int resolveTaskNumber(String input, TaskList list, Parser parser) throws FridayException {
+        long id = parser.parseId(input);
+        if (id == 0) {
+            return parser.parseIndex(input);
+        }
+        return resolveId(id, list);
+    }
+
+    /** Returns the 1-based number of the task a lexed command names by its number or id. */
+    private static int resolveTaskNumber(ParsedCommand command, TaskList list) throws FridayException {
+        return command.isId() ? resolveId(command.getTaskNumber(), list) : (int) command.getTaskNumber();
+    }
+
+    private static int resolveId(long id, TaskList list) throws FridayException {
+        int index = list.indexOfId(id);
+        if (index < 0) {
+            throw new FridayException("There is no task with id #" + id + ".");
+        }
+        return index + 1;
     }
 
     /**
@@ -333,13 +637,13 @@ public class Friday {
      * starting from the current date. If no number is provided,
      * a default reminder window of 7 days is used.
      *
-     * @param input The full user input string.
-     * @param list  The {@link TaskList} containing current tasks.
-     * @param ui    The {@link UI} used to display output.
+     * @param command The lexed command.
+     * @param list    The {@link TaskList} containing current tasks.
+     * @param ui      The {@link UI} used to display output.
      * @throws FridayException If the input format is invalid.
      */
-    public static void handleRemind(String input, TaskList list, UI ui) throws FridayException {
-        String rest = input.length() > 6 ? input.substring(6).trim() : "";
+    public static void handleRemind(ParsedCommand command, TaskList list, UI ui) throws FridayException {
+        String rest = command.getArgument();
         int days = 7;
 
         if (!rest.isEmpty()) {
@@ -356,4 +660,265 @@ public class Friday {
         var upcoming = list.getUpcomingTasks(LocalDate.now(), days);
         ui.printReminders(upcoming, days);
     }
+
+    /**
+     * Handles the {@code between} command.
+     * <p>
+     * Displays the deadlines and events dated between two dates (both inclusive),
+     * ordered by date.
+     *
+     * @param command The lexed command.
+     * @param list    The current {@link TaskList}.
+     * @param ui      The {@link UI} responsible for displaying output.
+     * @throws FridayException If the dates are missing, malformed, or out of order.
+     */
+    public static void handleBetween(ParsedCommand command, TaskList list, UI ui) throws FridayException {
+        if (command.getWordCount() != 2) {
+            throw new FridayException("Usage: between <yyyy-mm-dd> <yyyy-mm-dd>");
+        }
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(command.getWord(0));
+            to = LocalDate.parse(command.getWord(1));
+        } catch (DateTimeParseException e) {
+            throw new FridayException("Usage: between <yyyy-mm-dd> <yyyy-mm-dd>");
+        }
+        if (from.isAfter(to)) {
+            throw new FridayException("The first date must not be after the second.");
+        }
+        ui.printTasksBetween(list.getTasksBetween(from, to), from, to);
+    }
+
+    /**
+     * Handles the {@code import} command.
+     * <p>
+     * Reads a file of {@code todo}, {@code deadline} and {@code event} commands, or of
+     * lines in the save format, and adds the task on each line. Blank lines and lines
+     * starting with {@code #} are skipped; a line that is not a valid task is reported
+     * with its line number and skipped too. The file is read as a stream, and the tasks
+     * are added and journalled in batches of {@value #IMPORT_BATCH_SIZE}; the store
+     * compacts its journal once, after the last batch, if it has grown enough.
+     *
+     * @param command The lexed command, naming the file.
+     * @param list    The {@link TaskList} to add the tasks to.
+     * @param storage The {@link TaskStore} used to save the tasks.
+     * @param ui      The {@link UI} responsible for displaying output.
+     * @param parser  The {@link Parser} used to parse lines in the save format.
+     * @throws FridayException If the file cannot be read or the tasks cannot be saved.
+     */
+    public static void handleImport(ParsedCommand command, TaskList list, TaskStore storage,
+                                    UI ui, Parser parser) throws FridayException {
+        String file = command.getArgument();
+        if (file.isEmpty()) {
+            throw new FridayException("Usage: import <file>");
+        }
+        try (BufferedReader reader = file.equals(STDIN_FILE)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            List<Task> batch = new ArrayList<>();
+            ParsedCommand recordCommand = new ParsedCommand();
+            List<String> errors = new ArrayList<>();
+            int errorCount = 0;
+            int imported = 0;
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                String record = line.trim();
+                if (record.isEmpty() || record.startsWith(IMPORT_COMMENT_PREFIX)) {
+                    continue;
+                }
+                try {
+                    batch.add(parseTaskRecord(record, recordCommand, parser));
+                } catch (FridayException | RuntimeException e) {
+                    errorCount++;
+                    if (errors.size() < MAX_REPORTED_IMPORT_ERRORS) {
+                        String reason = e instanceof FridayException
+                                ? e.getMessage().lines().findFirst().orElse("")
+                                : "Not a valid task.";
+                        errors.add("line " + lineNumber + ": " + reason);
+                    }
+                }
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    imported += persistBatch(batch, list, storage);
+                }
+            }
+            imported += persistBatch(batch, list, storage);
+            storage.compactIfNeeded(list);
+            ui.printImportReport(imported, errorCount, errors);
+        } catch (NoSuchFileException e) {
+            throw new FridayException("No such file: " + file);
+        } catch (IOException e) {
+            throw new FridayException("Could not read " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the task described by one line of an imported file: an add command, or
+     * a line in the save format. The line is lexed like a typed command, except that
+     * the keyword must be followed by a space. A saved task's id is dropped, so it is
+     * numbered by this list rather than clashing with one of its tasks. A line that is
+     * neither is reported as an unknown command rather than as a corrupted save line.
+     */
+    private static Task parseTaskRecord(String record, ParsedCommand command, Parser parser)
+            throws FridayException {
+        LEXER.lex(record, command);
+        if (!command.isKeywordSeparate()) {
+            throw new FridayException("Expected a space after '" + command.getKeyword().getWord() + "'.");
+        }
+        switch (command.getKeyword()) {
+        case TODO:
+            return parseTodo(command);
+        case DEADLINE:
+            return parseDeadline(command);
+        case EVENT:
+            return parseEvent(command);
+        case UNKNOWN:
+            if (!isSaveRecord(record)) {
+                throw new FridayException("Unknown command; expected todo, deadline, event or a saved task.");
+            }
+            Task task = parser.parseLineToTask(record);
+            task.assignId(0);
+            return task;
+        default:
+            throw new FridayException("Only todo, deadline and event commands can be imported.");
+        }
+    }
+
+    /** Returns whether a trimmed line starts like a saved task, as {@code T |}, {@code D |} or {@code E |}. */
+    private static boolean isSaveRecord(String record) {
+        char type = record.charAt(0);
+        return (type == 'T' || type == 'D' || type == 'E') && record.startsWith(" |", 1);
+    }
+
+    /** Adds the batch of tasks to the list, journals them and empties the batch. */
+    private static int persistBatch(List<Task> batch, TaskList list, TaskStore storage) throws FridayException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        list.addTasks(batch);
+        storage.saveChanges(list);
+        int count = batch.size();
+        batch.clear();
+        return count;
+    }
+
+    /**
+     * Handles the {@code filter} command.
+     * <p>
+     * Displays the tasks matching every kind of condition given, such as
+     * {@code filter deadline event undone 2026-10 2026-11}: several types or months
+     * match a task having any of them.
+     *
+     * @param command The lexed command.
+     * @param list    The current {@link TaskList}.
+     * @param ui      The {@link UI} responsible for displaying output.
+     * @throws FridayException If a condition is not recognised.
+     */
+    public static void handleFilter(ParsedCommand command, TaskList list, UI ui) throws FridayException {
+        Set<TaskFilter.Kind> kinds = EnumSet.noneOf(TaskFilter.Kind.class);
+        Boolean isDone = null;
+        Set<YearMonth> months = new HashSet<>();
+        for (int i = 0; i < command.getWordCount(); i++) {
+            String condition = command.getWord(i);
+            switch (condition) {
+            case "todo":
+                kinds.add(TaskFilter.Kind.TODO);
+                break;
+            case "deadline":
+                kinds.add(TaskFilter.Kind.DEADLINE);
+                break;
+            case "event":
+                kinds.add(TaskFilter.Kind.EVENT);
+                break;
+            case "done":
+            case "undone":
+                boolean wantsDone = condition.equals("done");
+                if (isDone != null && isDone != wantsDone) {
+                    throw new FridayException("A filter cannot ask for both done and undone tasks.");
+                }
+                isDone = wantsDone;
+                break;
+            case "this-month":
+                months.add(YearMonth.now());
+                break;
+            default:
+                try {
+                    months.add(YearMonth.parse(condition));
+                } catch (DateTimeParseException e) {
+                    throw new FridayException(FILTER_USAGE);
+                }
+                break;
+            }
+        }
+        ui.printFilterResults(list.filterTasks(new TaskFilter(kinds, isDone, months)));
+    }
+
+    /**
+     * Handles the {@code overlaps} command.
+     * <p>
+     * Displays the events that overlap a time range on one day, such as
+     * {@code overlaps 2026-10-20 1400 1600}.
+     *
+     * @param command The lexed command.
+     * @param list    The current {@link TaskList}.
+     * @param ui      The {@link UI} responsible for displaying output.
+     * @throws FridayException If the date or times are missing or malformed.
+     */
+    public static void handleOverlaps(ParsedCommand command, TaskList list, UI ui) throws FridayException {
+        String usage = "Usage: overlaps <yyyy-mm-dd> <HHmm> <HHmm>";
+        if (command.getWordCount() != 3) {
+            throw new FridayException(usage);
+        }
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            LocalDate date = LocalDate.parse(command.getWord(0));
+            start = date.atTime(LocalTime.parse(command.getWord(1), TIME_INPUT));
+            end = date.atTime(LocalTime.parse(command.getWord(2), TIME_INPUT));
+        } catch (DateTimeParseException e) {
+            throw new FridayException(usage);
+        }
+        if (!end.isAfter(start)) {
+            throw new FridayException("The end time must be after the start time.");
+        }
+        TimeSlot range = new TimeSlot(start, end);
+        ui.printOverlaps(list.getOverlappingEvents(start, end), range);
+    }
+
+    /**
+     * Handles the {@code free} command.
+     * <p>
+     * Displays the free slots between the start of the first date and the end of the
+     * second that are at least the given number of minutes long (30 by default), such
+     * as {@code free 2026-10-20 2026-10-21 120}.
+     *
+     * @param command The lexed command.
+     * @param list    The current {@link TaskList}.
+     * @param ui      The {@link UI} responsible for displaying output.
+     * @throws FridayException If the dates or length are missing or malformed.
+     */
+    public static void handleFree(ParsedCommand command, TaskList list, UI ui) throws FridayException {
+        String usage = "Usage: free <yyyy-mm-dd> <yyyy-mm-dd> [minutes]";
+        if (command.getWordCount() != 2 && command.getWordCount() != 3) {
+            throw new FridayException(usage);
+        }
+        LocalDate from;
+        LocalDate to;
+        int minutes = DEFAULT_FREE_SLOT_MINUTES;
+        try {
+            from = LocalDate.parse(command.getWord(0));
+            to = LocalDate.parse(command.getWord(1));
+            if (command.getWordCount() == 3) {
+                minutes = Integer.parseInt(command.getWord(2));
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new FridayException(usage);
+        }
+        if (from.isAfter(to) || minutes <= 0) {
+            throw new FridayException(usage);
+        }
+        ui.printFreeSlots(list.getFreeSlots(from.atStartOfDay(), to.plusDays(1).atStartOfDay(),
+                Duration.ofMinutes(minutes)), minutes);
+    }
 }
@@ -0,0 +1,132 @@
+package friday;
+
+/**
+ * Maps task ids to their positions in a {@link TaskList}, in a hash table of
+ * primitive arrays with linear probing, so that it holds no {@link Task} objects.
+ * <p>
+ * Deleting a task moves every later task up by one. Rather than renumbering them
+ * all at once, the index only remembers the first position that may have moved,
+ * and the owner re-records the positions from there on before the next lookup that
+ * needs one of them (see {@link #getStaleFrom()}).
+ */
+final class IdIndex {
+    private static final long EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    /** Ids, or {@link #EMPTY}; ids are always positive. */
+    private long[] keys;
+    private int[] positions;
+    private int size;
+    /** First position whose recorded value may be out of date. */
+    private int staleFrom = Integer.MAX_VALUE;
+
+    IdIndex(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity *= 2;
+        }
+        keys = new long[capacity];
+        positions = new int[capacity];
+    }
+
+    /**
+     * Returns the recorded position of the id.
+     *
+     * @param id The id.
+     * @return The position, or -1 if the id is not recorded.
+     */
+    int get(long id) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(id, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return positions[slot];
+            }
+        }
+        return -1;
+    }
+
+    /** Records the position of an id, replacing the one recorded before. */
+    void put(long id, int position) {
+        if (id == EMPTY) {
+            return;
+        }
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = slotOf(id, mask);
+        while (keys[slot] != EMPTY && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = id;
+            size++;
+        }
+        positions[slot] = position;
+    }
+
+    /**
+     * Forgets the id of a deleted task, and notes that the tasks after its position
+     * have moved.
+     *
+     * @param id       The id of the deleted task.
+     * @param position The position it was deleted from.
+     */
+    void remove(long id, int position) {
+        staleFrom = Math.min(staleFrom, position);
+        int mask = keys.length - 1;
+        int slot = slotOf(id, mask);
+        while (keys[slot] != id) {
+            if (keys[slot] == EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Shift later entries of the run back so that no probe stops early at the gap.
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slotOf(keys[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                positions[gap] = positions[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+    }
+
+    /**
+     * Returns the first position whose recorded value may be out of date, because a
+     * task before it was deleted.
+     *
+     * @return The position, or {@link Integer#MAX_VALUE} if every position is current.
+     */
+    int getStaleFrom() {
+        return staleFrom;
+    }
+
+    /** Notes that the positions from the stale one onwards have been recorded again. */
+    void markCurrent() {
+        staleFrom = Integer.MAX_VALUE;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldPositions = positions;
+        keys = new long[oldKeys.length * 2];
+        positions = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldPositions[i]);
+            }
+        }
+    }
+
+    private static int slotOf(long id, int mask) {
+        // Ids are mostly consecutive, so they are mixed before masking.
+        long mixed = id * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
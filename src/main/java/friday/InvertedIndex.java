@@ -0,0 +1,507 @@
+package friday;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongFunction;
+
+/**
+ * An inverted index from the words of task descriptions to the tasks containing them.
+ * <p>
+ * A word is a maximal run of letters and digits, compared without regard to case.
+ * Every task gets an ordinal when it is indexed; tasks are only ever appended to or
+ * removed from a {@link TaskList}, so ordinals increase in list order and each word's
+ * postings are a sorted array of ordinals. Adding or removing a task only touches the
+ * postings of its own words, and a task is removed by its id, so deleting a task
+ * does not renumber the tasks after it. The index holds ids rather than tasks, and
+ * looks the matching tasks up by id, so it keeps no task of a compact list alive.
+ * <p>
+ * {@link #find(String)} has substring semantics, so a longer keyword never matches
+ * a task a shorter one missed. The postings only narrow the candidates: they come from
+ * a {@link TrigramIndex} over the descriptions, or, for queries it cannot answer, from
+ * the postings of the dictionary words containing the query words, found by scanning
+ * the dictionary of distinct words rather than every description. Either way the
+ * candidates are verified against their descriptions.
+ * <p>
+ * {@link #rank(String, int)} instead scores tasks by relevance with BM25, and lets
+ * each query word match dictionary words within a small edit distance to tolerate
+ * typos. Those words are looked for only among the few sharing enough trigrams with
+ * the query word (see {@link TypoIndex}), not the whole dictionary. Ranking walks the
+ * postings of the matched words in ordinal order, scoring one task at a time, and
+ * keeps only the best tasks in a bounded heap.
+ */
+public class InvertedIndex {
+    /** BM25 term frequency saturation. */
+    private static final double K1 = 1.2;
+    /** BM25 length normalization. */
+    private static final double B = 0.75;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    /** The indexed tasks in list order, which is also the order of their ordinals. */
+    private final Map<Long, Entry> entriesByOrdinal = new LinkedHashMap<>();
+    private final Map<Long, Long> ordinalsById = new HashMap<>();
+    private final TrigramIndex trigrams;
+    private final LongFunction<Task> tasksById;
+    /** Trigrams of the dictionary words, for finding the words a query word may be a typo of. */
+    private final TypoIndex typos = new TypoIndex();
+    private long nextOrdinal;
+    /** Total number of words in the indexed descriptions. */
+    private long totalLength;
+
+    /**
+     * Creates an empty index whose trigram index holds at most the given number of postings.
+     *
+     * @param maxTrigramPostings The limit on trigram postings.
+     * @param tasksById          Looks up an indexed task by its id.
+     */
+    public InvertedIndex(long maxTrigramPostings, LongFunction<Task> tasksById) {
+        this.trigrams = new TrigramIndex(maxTrigramPostings);
+        this.tasksById = tasksById;
+    }
+
+    /**
+     * Returns an index of the given tasks, in list order.
+     *
+     * @param tasks     The tasks, which must have ids.
+     * @param tasksById Looks up an indexed task by its id.
+     * @return The index.
+     */
+    public static InvertedIndex build(List<Task> tasks, LongFunction<Task> tasksById) {
+        return build(tasks, TrigramIndex.DEFAULT_MAX_POSTINGS, tasksById);
+    }
+
+    /**
+     * Returns an index of the given tasks, in list order, with a bounded trigram index.
+     *
+     * @param tasks              The tasks, which must have ids.
+     * @param maxTrigramPostings The limit on trigram postings.
+     * @param tasksById          Looks up an indexed task by its id.
+     * @return The index.
+     */
+    public static InvertedIndex build(List<Task> tasks, long maxTrigramPostings, LongFunction<Task> tasksById) {
+        InvertedIndex index = new InvertedIndex(maxTrigramPostings, tasksById);
+        for (Task task : tasks) {
+            index.add(task);
+        }
+        return index;
+    }
+
+    /**
+     * Indexes a task appended to the end of the list.
+     *
+     * @param task The task, which must have an id.
+     */
+    public void add(Task task) {
+        long ordinal = nextOrdinal++;
+        ordinalsById.put(task.getId(), ordinal);
+        List<String> words = words(task.getDescription());
+        entriesByOrdinal.put(ordinal, new Entry(task.getId(), words));
+        totalLength += words.size();
+        for (String word : distinct(words)) {
+            // Ordinals only grow, so appending keeps the postings sorted.
+            postings.computeIfAbsent(word, this::newWord).append(ordinal);
+        }
+        trigrams.add(ordinal, task.getDescription());
+    }
+
+    /**
+     * Removes a task deleted from the list.
+     *
+     * @param task The task.
+     */
+    public void remove(Task task) {
+        Long ordinal = ordinalsById.remove(task.getId());
+        if (ordinal != null) {
+            removeEntry(ordinal, task.getDescription());
+        }
+    }
+
+    private Postings newWord(String word) {
+        typos.add(word);
+        return new Postings();
+    }
+
+    private void removeEntry(long ordinal, String description) {
+        totalLength -= entriesByOrdinal.remove(ordinal).length;
+        for (String word : tokenize(description)) {
+            Postings wordPostings = postings.get(word);
+            if (wordPostings != null && wordPostings.remove(ordinal) && wordPostings.size == 0) {
+                postings.remove(word);
+                typos.remove(word);
+            }
+        }
+        trigrams.remove(ordinal, description);
+        if (trigrams.isRebuildable()) {
+            // Enough was deleted for the trigram index to fit again; ordinals are in list order.
+            // A task already gone from the list is about to be removed here too, so it is skipped.
+            trigrams.clear();
+            for (Map.Entry<Long, Entry> entry : entriesByOrdinal.entrySet()) {
+                Task task = tasksById.apply(entry.getValue().id);
+                if (task != null) {
+                    trigrams.add(entry.getKey(), task.getDescription());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain the keyword, in list order.
+     *
+     * @param keyword The keyword.
+     * @return The matching tasks.
+     */
+    public List<Task> find(String keyword) {
+        String query = keyword.toLowerCase(Locale.ROOT);
+        List<String> words = tokenize(query);
+        long[] candidates = trigrams.candidates(query);
+        if (candidates == null) {
+            if (words.isEmpty()) {
+                return scan(query);
+            }
+            candidates = wordCandidates(words);
+        }
+        List<Task> matches = new ArrayList<>();
+        for (Task task : tasksOf(candidates, candidates.length)) {
+            if (task.getDescription().toLowerCase(Locale.ROOT).contains(query)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    /** Returns the sorted ordinals of tasks that have every query word as part of a word. */
+    private long[] wordCandidates(List<String> words) {
+        // The first and last query words may be the end and the start of longer words.
+        long[] candidates = null;
+        for (int i = 0; i < words.size(); i++) {
+            boolean isInner = i > 0 && i < words.size() - 1;
+            long[] wordCandidates = isInner ? exactOrdinals(words.get(i)) : ordinalsContaining(words.get(i));
+            candidates = candidates == null
+                    ? wordCandidates
+                    : Postings.intersect(candidates, wordCandidates, wordCandidates.length);
+            if (candidates.length == 0) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns a message for the user describing the size of the index.
+     *
+     * @return The message.
+     */
+    public String describeMemory() {
+        return "Word index: " + postings.size() + " words over " + entriesByOrdinal.size() + " tasks. "
+                + trigrams;
+    }
+
+    private List<Task> scan(String query) {
+        List<Task> matches = new ArrayList<>();
+        for (Entry entry : entriesByOrdinal.values()) {
+            Task task = tasksById.apply(entry.id);
+            if (task.getDescription().toLowerCase(Locale.ROOT).contains(query)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    private long[] exactOrdinals(String word) {
+        Postings exact = postings.get(word);
+        return exact == null ? new long[0] : exact.toArray();
+    }
+
+    /** Returns the sorted ordinals of tasks with a word containing the given fragment. */
+    private long[] ordinalsContaining(String fragment) {
+        Postings union = new Postings();
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            if (entry.getKey().contains(fragment)) {
+                Postings wordPostings = entry.getValue();
+                for (int i = 0; i < wordPostings.size; i++) {
+                    union.append(wordPostings.values[i]);
+                }
+            }
+        }
+        long[] sorted = Arrays.copyOf(union.values, union.size);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private List<Task> tasksOf(long[] sortedOrdinals, int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(tasksById.apply(entriesByOrdinal.get(sortedOrdinals[i]).id));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the tasks most relevant to the query, best first.
+     * <p>
+     * Each query word matches the dictionary words within {@link #maxTypos(String)}
+     * edits of it, an exact match counting fully and a word {@code d} edits away
+     * counting {@code 1 / (1 + d)} as much. A task scores the BM25 weight of its best
+     * match for each query word, summed over the query words. Ties go to the task
+     * earlier in the list.
+     *
+     * @param query The query.
+     * @param limit The most tasks to return.
+     * @return The best matching tasks, at most {@code limit} of them.
+     */
+    public List<Task> rank(String query, int limit) {
+        List<String> terms = tokenize(query);
+        int size = entriesByOrdinal.size();
+        if (terms.isEmpty() || limit <= 0 || size == 0) {
+            return List.of();
+        }
+        List<Cursor> cursors = new ArrayList<>();
+        for (int term = 0; term < terms.size(); term++) {
+            for (Map.Entry<String, Integer> match : similarWords(terms.get(term)).entrySet()) {
+                Postings wordPostings = postings.get(match.getKey());
+                double idf = Math.log(1 + (size - wordPostings.size + 0.5) / (wordPostings.size + 0.5));
+                cursors.add(new Cursor(term, match.getKey(), wordPostings, idf / (1 + match.getValue())));
+            }
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / size);
+        // The worst of the best tasks found so far is at the head.
+        PriorityQueue<ScoredTask> best = new PriorityQueue<>(Math.min(limit, size) + 1);
+        double[] termScores = new double[terms.size()];
+        while (true) {
+            long ordinal = Long.MAX_VALUE;
+            for (Cursor cursor : cursors) {
+                if (cursor.hasCurrent()) {
+                    ordinal = Math.min(ordinal, cursor.current());
+                }
+            }
+            if (ordinal == Long.MAX_VALUE) {
+                break;
+            }
+            Entry entry = entriesByOrdinal.get(ordinal);
+            double lengthNorm = K1 * (1 - B + B * entry.length / averageLength);
+            Arrays.fill(termScores, 0);
+            for (Cursor cursor : cursors) {
+                if (cursor.hasCurrent() && cursor.current() == ordinal) {
+                    int frequency = entry.frequencyOf(cursor.word);
+                    double score = cursor.weight * frequency * (K1 + 1) / (frequency + lengthNorm);
+                    termScores[cursor.term] = Math.max(termScores[cursor.term], score);
+                    cursor.position++;
+                }
+            }
+            double score = 0;
+            for (double termScore : termScores) {
+                score += termScore;
+            }
+            ScoredTask scored = new ScoredTask(ordinal, score, entry.id);
+            if (best.size() < limit) {
+                best.add(scored);
+            } else if (scored.compareTo(best.peek()) > 0) {
+                best.poll();
+                best.add(scored);
+            }
+        }
+        Task[] ranked = new Task[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = tasksById.apply(best.poll().id);
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /** Returns the dictionary words close enough to the term, with their edit distances. */
+    private Map<String, Integer> similarWords(String term) {
+        Map<String, Integer> matches = new HashMap<>();
+        int maxTypos = maxTypos(term);
+        if (maxTypos == 0) {
+            if (postings.containsKey(term)) {
+                matches.put(term, 0);
+            }
+            return matches;
+        }
+        for (String word : typos.candidates(term, maxTypos)) {
+            int distance = editDistance(term, word, maxTypos);
+            if (distance <= maxTypos) {
+                matches.put(word, distance);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns how many typos a query word may contain: none up to three characters,
+     * one up to six, and two beyond.
+     *
+     * @param term The query word.
+     * @return The maximum edit distance.
+     */
+    static int maxTypos(String term) {
+        if (term.length() <= 3) {
+            return 0;
+        }
+        return term.length() <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Returns the edit distance between two words, counting an insertion, a deletion,
+     * a substitution or a swap of adjacent characters as one edit, and giving up once
+     * it must exceed the given bound.
+     *
+     * @param a   The first word.
+     * @param b   The second word.
+     * @param max The bound.
+     * @return The distance, or {@code max + 1} if it exceeds the bound.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Splits text into its distinct lower-case words.
+     *
+     * @param text The text.
+     * @return The words in order of first appearance.
+     */
+    static List<String> tokenize(String text) {
+        return distinct(words(text));
+    }
+
+    private static List<String> distinct(List<String> words) {
+        List<String> distinct = new ArrayList<>();
+        for (String word : words) {
+            if (!distinct.contains(word)) {
+                distinct.add(word);
+            }
+        }
+        return distinct;
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The id of an indexed task with the statistics needed to score it.
+     */
+    private static final class Entry {
+        private final long id;
+        private final int length;
+        /** Frequencies of words occurring more than once, or {@code null} if none does. */
+        private final Map<String, Integer> repeatedWords;
+
+        private Entry(long id, List<String> words) {
+            this.id = id;
+            this.length = words.size();
+            Map<String, Integer> repeated = null;
+            for (int i = 0; i < words.size(); i++) {
+                if (words.subList(0, i).contains(words.get(i))) {
+                    if (repeated == null) {
+                        repeated = new HashMap<>();
+                    }
+                    repeated.merge(words.get(i), 2, (count, unused) -> count + 1);
+                }
+            }
+            this.repeatedWords = repeated;
+        }
+
+        private int frequencyOf(String word) {
+            return repeatedWords == null ? 1 : repeatedWords.getOrDefault(word, 1);
+        }
+    }
+
+    /**
+     * A position in the postings of one dictionary word matched by a query word.
+     */
+    private static final class Cursor {
+        private final int term;
+        private final String word;
+        private final Postings postings;
+        private final double weight;
+        private int position;
+
+        private Cursor(int term, String word, Postings postings, double weight) {
+            this.term = term;
+            this.word = word;
+            this.postings = postings;
+            this.weight = weight;
+        }
+
+        private boolean hasCurrent() {
+            return position < postings.size;
+        }
+
+        private long current() {
+            return postings.values[position];
+        }
+    }
+
+    /**
+     * A task with its score, ordered from worse to better.
+     */
+    private static final class ScoredTask implements Comparable<ScoredTask> {
+        private final long ordinal;
+        private final double score;
+        private final long id;
+
+        private ScoredTask(long ordinal, double score, long id) {
+            this.ordinal = ordinal;
+            this.score = score;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(ScoredTask other) {
+            int byScore = Double.compare(score, other.score);
+            // Of two equal scores, the later task is the worse one.
+            return byScore != 0 ? byScore : Long.compare(other.ordinal, ordinal);
+        }
+    }
+}
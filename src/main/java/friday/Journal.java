@@ -0,0 +1,402 @@
+package friday;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of task list mutations.
+ * <p>
+ * Each mutation is written as a single line, so the cost of persisting a change
+ * does not depend on the size of the task list. The journal is replayed on top of
+ * the last snapshot written by {@link Storage} to reconstruct the current state.
+ * <pre>
+ * SEQ | A | TASK_SAVE_STRING   (add)
+ * SEQ | M | INDEX              (mark)
+ * SEQ | U | INDEX              (unmark)
+ * SEQ | D | INDEX              (delete)
+ * </pre>
+ * Indices are 0-based, matching {@link TaskList}. {@code SEQ} increases by one per
+ * record, so a snapshot can state exactly which records it already contains.
+ * Records written before sequence numbers were introduced have no {@code SEQ} field
+ * and are only replayed onto a snapshot whose header has {@code seq=0}.
+ * <p>
+ * Records are written in batches through a {@link FileChannel} that stays open
+ * between writes; {@link WriteBehindQueue} decides when batches are forced to disk.
+ * When a snapshot is taken, the journal is rotated aside so that new records go to a
+ * fresh file while the snapshot is written, and the rotated file is deleted once the
+ * snapshot is safely in place.
+ */
+public class Journal {
+    private static final String OP_ADD = "A";
+    private static final String OP_MARK = "M";
+    private static final String OP_UNMARK = "U";
+    private static final String OP_DELETE = "D";
+    private static final String DELIMITER = " | ";
+    private static final String ROTATED_SUFFIX = ".old";
+    private static final long UNSEQUENCED = -1;
+
+    private final Path journalPath;
+    private final Path rotatedPath;
+    private FileChannel channel;
+
+    /**
+     * Holds the outcome of {@link #replay(TaskList, Parser, long)}.
+     */
+    public static class ReplayResult {
+        private final int applied;
+        private final long lastSeq;
+
+        private ReplayResult(int applied, long lastSeq) {
+            this.applied = applied;
+            this.lastSeq = lastSeq;
+        }
+
+        public int getApplied() {
+            return applied;
+        }
+
+        public long getLastSeq() {
+            return lastSeq;
+        }
+    }
+
+    /**
+     * Constructs a {@code Journal} backed by the given file.
+     *
+     * @param journalPath Path of the journal file. It is created on the first append.
+     */
+    public Journal(Path journalPath) {
+        this.journalPath = journalPath;
+        this.rotatedPath = journalPath.resolveSibling(journalPath.getFileName() + ROTATED_SUFFIX);
+    }
+
+    /**
+     * Returns the record for a newly added task.
+     *
+     * @param seq  The sequence number of the record.
+     * @param task The task that was added to the end of the list.
+     * @return The journal record.
+     */
+    public static String addRecord(long seq, Task task) {
+        return seq + DELIMITER + OP_ADD + DELIMITER + task.getSaveString();
+    }
+
+    /**
+     * Returns the record for a task being marked as completed.
+     *
+     * @param seq   The sequence number of the record.
+     * @param index The 0-based index of the marked task.
+     * @return The journal record.
+     */
+    public static String markRecord(long seq, int index) {
+        return seq + DELIMITER + OP_MARK + DELIMITER + index;
+    }
+
+    /**
+     * Returns the record for a task being marked as not completed.
+     *
+     * @param seq   The sequence number of the record.
+     * @param index The 0-based index of the unmarked task.
+     * @return The journal record.
+     */
+    public static String unmarkRecord(long seq, int index) {
+        return seq + DELIMITER + OP_UNMARK + DELIMITER + index;
+    }
+
+    /**
+     * Returns the record for a deleted task.
+     *
+     * @param seq   The sequence number of the record.
+     * @param index The 0-based index of the deleted task.
+     * @return The journal record.
+     */
+    public static String deleteRecord(long seq, int index) {
+        return seq + DELIMITER + OP_DELETE + DELIMITER + index;
+    }
+
+    /**
+     * Appends a batch of records to the journal.
+     * With {@link DurabilityPolicy#EVERY_COMMIT} each record is forced to disk on its own;
+     * with {@link DurabilityPolicy#PER_BATCH} the whole batch is forced once;
+     * otherwise the batch is left to the operating system.
+     *
+     * @param records The records to append, in order.
+     * @param policy  The durability policy to apply.
+     * @throws FridayException If the records cannot be written.
+     */
+    public void write(List<String> records, DurabilityPolicy policy) throws FridayException {
+        try {
+            FileChannel out = openChannel();
+            if (policy == DurabilityPolicy.EVERY_COMMIT) {
+                for (String record : records) {
+                    writeFully(out, encode(List.of(record)));
+                    out.force(false);
+                }
+                return;
+            }
+            writeFully(out, encode(records));
+            if (policy == DurabilityPolicy.PER_BATCH) {
+                out.force(false);
+            }
+        } catch (IOException e) {
+            throw new FridayException("Error writing to journal '" + journalPath + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forces every record written so far to disk.
+     *
+     * @throws FridayException If the journal cannot be synced.
+     */
+    public void force() throws FridayException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new FridayException("Error syncing journal '" + journalPath + "': " + e.getMessage());
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(journalPath.getParent());
+            channel = FileChannel.open(journalPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private static ByteBuffer encode(List<String> records) {
+        StringBuilder sb = new StringBuilder();
+        for (String record : records) {
+            sb.append(record).append(System.lineSeparator());
+        }
+        return ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Replays the records that come after the given snapshot on top of the list,
+     * reading the rotated journal (if a snapshot was interrupted) before the current one.
+     * <p>
+     * A final record that was torn by a crash, i.e. lacks its line terminator or does
+     * not parse, is discarded and cut off the file, so later appends start cleanly.
+     * Corrupted records anywhere else fail the replay.
+     *
+     * @param list     The {@code TaskList} loaded from the snapshot.
+     * @param parser   The {@code Parser} used to reconstruct added tasks.
+     * @param afterSeq The sequence number stored in the snapshot header.
+     * @return The number of records applied and the last sequence number seen.
+     * @throws FridayException If the journal cannot be read or contains a corrupted record.
+     */
+    public ReplayResult replay(TaskList list, Parser parser, long afterSeq) throws FridayException {
+        int applied = 0;
+        long lastSeq = afterSeq;
+        for (Path path : List.of(rotatedPath, journalPath)) {
+            if (Files.notExists(path)) {
+                continue;
+            }
+            List<String> records = readCompleteRecords(path);
+            for (int i = 0; i < records.size(); i++) {
+                String record = records.get(i);
+                boolean isFinal = i == records.size() - 1;
+                long seq;
+                try {
+                    seq = parseSeq(record);
+                    if (seq == UNSEQUENCED ? afterSeq > 0 : seq <= afterSeq) {
+                        continue;
+                    }
+                    apply(record, list, parser);
+                } catch (FridayException e) {
+                    if (!isFinal) {
+                        throw e;
+                    }
+                    truncateLastRecord(path);
+                    break;
+                }
+                applied++;
+                // Once folded into a snapshot, unsequenced records must be skipped, so they count as seq 1.
+                lastSeq = Math.max(lastSeq, seq == UNSEQUENCED ? 1 : seq);
+            }
+        }
+        return new ReplayResult(applied, lastSeq);
+    }
+
+    /**
+     * Reads the newline-terminated records of a journal file. An unterminated tail
+     * left by an interrupted write is cut off the file.
+     */
+    private static List<String> readCompleteRecords(Path path) throws FridayException {
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            int end = bytes.length;
+            while (end > 0 && bytes[end - 1] != '\n') {
+                end--;
+            }
+            if (end < bytes.length) {
+                truncate(path, end);
+            }
+            String content = new String(bytes, 0, end, StandardCharsets.UTF_8);
+            List<String> records = new ArrayList<>();
+            for (String line : content.split("\r?\n")) {
+                if (!line.isBlank()) {
+                    records.add(line);
+                }
+            }
+            return records;
+        } catch (IOException e) {
+            throw new FridayException("Error reading journal '" + path + "': " + e.getMessage());
+        }
+    }
+
+    /** Cuts the last non-blank line off a journal file whose content ends with a newline. */
+    private static void truncateLastRecord(Path path) throws FridayException {
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            int end = bytes.length;
+            while (end > 0 && Character.isWhitespace(bytes[end - 1])) {
+                end--;
+            }
+            int start = end;
+            while (start > 0 && bytes[start - 1] != '\n') {
+                start--;
+            }
+            truncate(path, start);
+        } catch (IOException e) {
+            throw new FridayException("Error repairing journal '" + path + "': " + e.getMessage());
+        }
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            out.truncate(size);
+        }
+    }
+
+    private static long parseSeq(String record) throws FridayException {
+        int split = record.indexOf(DELIMITER);
+        if (split < 0) {
+            throw new FridayException("Corrupted journal record: " + record);
+        }
+        String first = record.substring(0, split);
+        if (first.isEmpty() || !Character.isDigit(first.charAt(0))) {
+            return UNSEQUENCED;
+        }
+        try {
+            return Long.parseLong(first);
+        } catch (NumberFormatException e) {
+            throw new FridayException("Corrupted journal record: " + record);
+        }
+    }
+
+    private void apply(String record, TaskList list, Parser parser) throws FridayException {
+        String body = record;
+        if (parseSeq(record) != UNSEQUENCED) {
+            body = record.substring(record.indexOf(DELIMITER) + DELIMITER.length());
+        }
+        int split = body.indexOf(DELIMITER);
+        if (split < 0) {
+            throw new FridayException("Corrupted journal record: " + record);
+        }
+        String op = body.substring(0, split);
+        String payload = body.substring(split + DELIMITER.length());
+        switch (op) {
+        case OP_ADD:
+            list.addTask(parser.parseLineToTask(payload));
+            break;
+        case OP_MARK:
+            list.markTask(parseIndex(payload));
+            break;
+        case OP_UNMARK:
+            list.unmarkTask(parseIndex(payload));
+            break;
+        case OP_DELETE:
+            list.deleteTask(parseIndex(payload));
+            break;
+        default:
+            throw new FridayException("Unknown journal operation: " + op);
+        }
+    }
+
+    private static int parseIndex(String payload) throws FridayException {
+        try {
+            return Integer.parseInt(payload.trim());
+        } catch (NumberFormatException e) {
+            throw new FridayException("Corrupted journal index: " + payload);
+        }
+    }
+
+    /**
+     * Moves the current journal aside so that later records start a fresh file.
+     * If an earlier rotated journal is still present because its snapshot never
+     * completed, the current records are appended to it instead, keeping both.
+     *
+     * @throws FridayException If the journal cannot be rotated.
+     */
+    public void rotate() throws FridayException {
+        close();
+        try {
+            if (Files.notExists(journalPath)) {
+                return;
+            }
+            if (Files.notExists(rotatedPath)) {
+                Files.move(journalPath, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            }
+            try (FileChannel out = FileChannel.open(rotatedPath, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                writeFully(out, ByteBuffer.wrap(Files.readAllBytes(journalPath)));
+                out.force(false);
+            }
+            Files.delete(journalPath);
+        } catch (IOException e) {
+            throw new FridayException("Error rotating journal '" + journalPath + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the rotated journal once a snapshot containing its records is in place.
+     *
+     * @throws FridayException If the file cannot be removed.
+     */
+    public void deleteRotated() throws FridayException {
+        try {
+            Files.deleteIfExists(rotatedPath);
+        } catch (IOException e) {
+            throw new FridayException("Error clearing journal '" + rotatedPath + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the underlying file channel. A later write reopens it.
+     *
+     * @throws FridayException If the channel cannot be closed.
+     */
+    public void close() throws FridayException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new FridayException("Error closing journal '" + journalPath + "': " + e.getMessage());
+        } finally {
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package friday;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * A list of tasks backed by a memory-mapped text save file.
+ * <p>
+ * Opening the list only records where each line starts; no {@link Task} objects or
+ * line strings are created up front. A task is parsed and cached the first time it
+ * is requested through {@link #get(int)}. Iteration streams over the mapped lines
+ * and parses tasks that have not been cached without keeping them, so read-only
+ * commands such as {@code list}, {@code find} and {@code remind} do not grow the heap.
+ * <p>
+ * Tasks added after loading are held in memory like in an ordinary list. A
+ * {@link SnapshotHeader} on the first line of the file is not part of the list.
+ * Files saved before tasks had ids are loaded eagerly instead, so every mapped line
+ * carries its id.
+ * A line that turns out to be corrupted, or fails its {@link RecordChecksum}, when it is
+ * first read is reported as an {@link IllegalStateException} whose cause is the
+ * {@link FridayException}.
+ */
+public class LazyTaskList extends AbstractList<Task> implements RandomAccess {
+    /** Largest region mapped at once, kept below the 2 GB limit of a single mapping. */
+    private static final long MAX_REGION_SIZE = 1L << 30;
+    private static final long NOT_MAPPED = -1;
+    private static final int REGION_SHIFT = 32;
+    private static final long OFFSET_MASK = 0xFFFFFFFFL;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<MappedByteBuffer> regions;
+    /** Position in the file of the first byte of each region. */
+    private final long[] regionStarts;
+    private final Parser parser;
+
+    /** Region index in the high 32 bits and offset in the low 32 bits, or {@link #NOT_MAPPED}. */
+    private long[] slots;
+    private Task[] tasks;
+    private int size;
+
+    private LazyTaskList(List<MappedByteBuffer> regions, long[] regionStarts, long[] slots, Task[] tasks, int size,
+            Parser parser) {
+        this.regions = regions;
+        this.regionStarts = regionStarts;
+        this.slots = slots;
+        this.tasks = tasks;
+        this.size = size;
+        this.parser = parser;
+    }
+
+    /**
+     * Maps the given save file and indexes the start of every non-empty line.
+     *
+     * @param path   The text save file.
+     * @param parser The {@code Parser} used to materialize tasks on demand.
+     * @return A list containing one lazily parsed task per line.
+     * @throws FridayException If the file cannot be mapped.
+     */
+    public static LazyTaskList map(Path path, Parser parser) throws FridayException {
+        List<MappedByteBuffer> regions = new ArrayList<>();
+        long[] regionStarts = new long[0];
+        long[] slots = new long[INITIAL_CAPACITY];
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long start = 0;
+            while (start < fileSize) {
+                long length = Math.min(MAX_REGION_SIZE, fileSize - start);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                int usable = (start + length == fileSize) ? (int) length : lastLineEnd(region, (int) length);
+                if (usable == 0) {
+                    throw new FridayException("Save file '" + path + "' has a line longer than 1 GB.");
+                }
+                int regionIndex = regions.size();
+                regions.add(region);
+                regionStarts = Arrays.copyOf(regionStarts, regionIndex + 1);
+                regionStarts[regionIndex] = start;
+                int lineStart = 0;
+                for (int i = 0; i <= usable; i++) {
+                    if (i == usable || region.get(i) == '\n') {
+                        boolean isFirstLine = start == 0 && lineStart == 0;
+                        boolean isHeader = isFirstLine && startsWithHeader(region, i);
+                        if (!isHeader && !isBlank(region, lineStart, i)) {
+                            if (count == slots.length) {
+                                slots = Arrays.copyOf(slots, count * 2);
+                            }
+                            slots[count++] = ((long) regionIndex << REGION_SHIFT) | lineStart;
+                        }
+                        lineStart = i + 1;
+                    }
+                }
+                start += usable;
+            }
+        } catch (IOException e) {
+            throw new FridayException("Error mapping tasks from '" + path + "': " + e.getMessage());
+        }
+        return new LazyTaskList(regions, regionStarts, slots, new Task[slots.length], count, parser);
+    }
+
+    private static int lastLineEnd(MappedByteBuffer region, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (region.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean startsWithHeader(MappedByteBuffer region, int lineEnd) {
+        String prefix = SnapshotHeader.TEXT_PREFIX;
+        if (lineEnd < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (region.get(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(MappedByteBuffer region, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = region.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of this list that shares the mapped file and the tasks
+     * materialized so far, but is unaffected by later additions and removals.
+     *
+     * @return The copy.
+     */
+    public LazyTaskList copy() {
+        return new LazyTaskList(regions, regionStarts, Arrays.copyOf(slots, size),
+                Arrays.copyOf(tasks, size), size, parser);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the task at the given index, parsing and caching it on first access.
+     *
+     * @param index The 0-based index of the task.
+     * @return The materialized task.
+     */
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        if (tasks[index] == null) {
+            tasks[index] = parse(index);
+        }
+        return tasks[index];
+    }
+
+    /**
+     * Returns the id of the task at the given index, parsing its line without caching
+     * the task if it has not been materialized.
+     *
+     * @param index The 0-based index of the task.
+     * @return The id.
+     */
+    long idAt(int index) {
+        checkIndex(index);
+        Task cached = tasks[index];
+        return cached != null ? cached.getId() : parse(index).getId();
+    }
+
+    /**
+     * Returns a list reading the tasks like {@link #iterator()}: tasks that are not
+     * cached are parsed for the caller but not retained, so an index or snapshot can
+     * be built from it without materializing the whole file.
+     *
+     * @return The list, which follows later changes to this list.
+     */
+    List<Task> views() {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                checkIndex(index);
+                Task cached = tasks[index];
+                return cached != null ? cached : parse(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns the save string of the task at the given index. Tasks that have not
+     * been materialized are returned as their original line without being parsed.
+     *
+     * @param index The 0-based index of the task.
+     * @return The save string of the task.
+     */
+    public String getSaveString(int index) {
+        checkIndex(index);
+        if (tasks[index] != null) {
+            return tasks[index].getSaveString();
+        }
+        try {
+            return readSaveString(slots[index]);
+        } catch (FridayException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replaces the task at the given index. The line it was loaded from is kept, but
+     * the task is saved from the new object from then on.
+     *
+     * @param index The 0-based index of the task.
+     * @param task  The new task.
+     * @return The task that was there, parsed if it had not been.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = get(index);
+        tasks[index] = task;
+        return previous;
+    }
+
+    @Override
+    public boolean add(Task task) {
+        if (size == slots.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            slots = Arrays.copyOf(slots, capacity);
+            tasks = Arrays.copyOf(tasks, capacity);
+        }
+        slots[size] = NOT_MAPPED;
+        tasks[size] = task;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        int moved = size - index - 1;
+        System.arraycopy(slots, index + 1, slots, index, moved);
+        System.arraycopy(tasks, index + 1, tasks, index, moved);
+        size--;
+        tasks[size] = null;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Returns an iterator that streams over the mapped lines. Tasks that are not
+     * cached are parsed for the caller but not retained.
+     *
+     * @return An iterator over all tasks in order.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Task next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                Task cached = tasks[next];
+                Task task = cached != null ? cached : parse(next);
+                next++;
+                return task;
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    private Task parse(int index) {
+        try {
+            return parser.parseLineToTask(readSaveString(slots[index]));
+        } catch (FridayException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private String readSaveString(long slot) throws FridayException {
+        MappedByteBuffer region = regions.get((int) (slot >>> REGION_SHIFT));
+        int start = (int) (slot & OFFSET_MASK);
+        int end = start;
+        while (end < region.limit() && region.get(end) != '\n') {
+            end++;
+        }
+        if (end > start && region.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[end - start];
+        region.get(start, bytes);
+        return RecordChecksum.unseal(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,109 @@
+package friday;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes what was salvaged from a damaged text snapshot.
+ * <p>
+ * Lines that fail their checksum or cannot be parsed are not loaded but quarantined:
+ * each one is appended to a side file after a comment naming its line number and the
+ * problem, so it can be repaired by hand. Tasks that a snapshot header promised but
+ * that are not in the file at all, as after a torn write, are counted as missing.
+ */
+public class LoadReport {
+    private final List<String> quarantinedLines = new ArrayList<>();
+    private int loadedCount;
+    private int quarantinedCount;
+    private long missingCount;
+    private Path quarantineFile;
+
+    /**
+     * Records a line that could not be loaded.
+     *
+     * @param lineNumber The 1-based line number in the snapshot.
+     * @param line       The line as read.
+     * @param reason     Why it could not be loaded.
+     */
+    public void quarantine(long lineNumber, String line, String reason) {
+        quarantinedLines.add("# line " + lineNumber + ": " + reason);
+        quarantinedLines.add(line);
+        quarantinedCount++;
+    }
+
+    public void setLoadedCount(int loadedCount) {
+        this.loadedCount = loadedCount;
+    }
+
+    /**
+     * Records how many tasks the snapshot header promised but the file did not contain.
+     *
+     * @param missingCount The number of missing tasks.
+     */
+    public void setMissingCount(long missingCount) {
+        this.missingCount = missingCount;
+    }
+
+    public int getLoadedCount() {
+        return loadedCount;
+    }
+
+    public int getQuarantinedCount() {
+        return quarantinedCount;
+    }
+
+    public long getMissingCount() {
+        return missingCount;
+    }
+
+    /**
+     * Returns whether the snapshot was loaded without losing anything.
+     *
+     * @return {@code true} if no line was quarantined and no task is missing.
+     */
+    public boolean isClean() {
+        return quarantinedCount == 0 && missingCount == 0;
+    }
+
+    /**
+     * Appends the quarantined lines, if any, to the given side file.
+     *
+     * @param file The quarantine file.
+     * @throws FridayException If the file cannot be written.
+     */
+    public void writeQuarantine(Path file) throws FridayException {
+        if (quarantinedLines.isEmpty()) {
+            return;
+        }
+        try {
+            Files.write(file, quarantinedLines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new FridayException("Error quarantining corrupted lines to '" + file + "': " + e.getMessage());
+        }
+        quarantineFile = file;
+    }
+
+    /**
+     * Returns a message for the user describing what was recovered and what was lost.
+     *
+     * @return The message.
+     */
+    @Override
+    public String toString() {
+        StringBuilder message = new StringBuilder("Your save file was damaged. Recovered " + loadedCount + " tasks.");
+        if (quarantinedCount > 0) {
+            message.append(" ").append(quarantinedCount).append(" corrupted lines were moved to '")
+                    .append(quarantineFile).append("'.");
+        }
+        if (missingCount > 0) {
+            message.append(" ").append(missingCount).append(" tasks at the end of the file were lost.");
+        }
+        return message.toString();
+    }
+}
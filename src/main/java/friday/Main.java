@@ -36,4 +36,16 @@ public class Main extends Application {
         stage.setMaximized(true);
         stage.show();
     }
+
+    /**
+     * Flushes pending writes when the window is closed without {@code bye}.
+     */
+    @Override
+    public void stop() {
+        try {
+            friday.shutdown();
+        } catch (FridayException e) {
+            System.err.println(e.getMessage());
+        }
+    }
 }
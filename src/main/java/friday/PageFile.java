@@ -0,0 +1,345 @@
+package friday;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * A single file of fixed-size pages, updated copy-on-write in transactions.
+ * <p>
+ * Pages 0 and 1 are meta pages; transactions alternate between them. A meta page
+ * holds the transaction number, the page count, a few root page ids and counters
+ * for the structures stored in the file, and the list of free pages, followed by a
+ * CRC32 of its contents. Data pages are never overwritten while the last committed
+ * meta page refers to them: writers allocate fresh pages and {@link #free(int)} the
+ * old ones, which only become reusable after the next {@link #commit(boolean)}. On
+ * open, the valid meta page with the highest transaction number wins, so a crash in
+ * the middle of a transaction falls back to the previous one.
+ * <p>
+ * Recently used pages are kept in a small cache, since committed pages never change.
+ */
+public class PageFile {
+    /** Size of every page in bytes. */
+    public static final int PAGE_SIZE = 4096;
+    /** Page id that never refers to a data page, used for empty roots. */
+    public static final int NO_PAGE = 0;
+    /** Number of root page ids kept in the meta page. */
+    public static final int ROOT_SLOTS = 2;
+    /** Number of counters kept in the meta page. */
+    public static final int VALUE_SLOTS = 2;
+
+    private static final int MAGIC = 0x46425054; // "FBPT"
+    private static final int VERSION = 1;
+    private static final int META_PAGES = 2;
+    private static final int TXN_OFFSET = 8;
+    private static final int PAGE_COUNT_OFFSET = 16;
+    private static final int ROOTS_OFFSET = 20;
+    private static final int VALUES_OFFSET = ROOTS_OFFSET + ROOT_SLOTS * 4;
+    private static final int FREE_LIST_OFFSET = VALUES_OFFSET + VALUE_SLOTS * 8;
+    private static final int CHECKSUM_OFFSET = PAGE_SIZE - 4;
+    private static final int MAX_FREE_PAGES = (CHECKSUM_OFFSET - FREE_LIST_OFFSET - 4) / 4;
+    private static final int CACHE_PAGES = 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<Integer, ByteBuffer> cache = new LinkedHashMap<>(CACHE_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ByteBuffer> eldest) {
+            return size() > CACHE_PAGES;
+        }
+    };
+
+    private long txn;
+    private int pageCount;
+    private final int[] roots = new int[ROOT_SLOTS];
+    private final long[] values = new long[VALUE_SLOTS];
+    private List<Integer> freePages = new ArrayList<>();
+    /** Pages freed by the running transaction; reusable once it has committed. */
+    private final List<Integer> pendingFree = new ArrayList<>();
+    /** Pages allocated by the running transaction. */
+    private final Set<Integer> allocatedInTxn = new HashSet<>();
+
+    private int committedPageCount;
+    private final int[] committedRoots = new int[ROOT_SLOTS];
+    private final long[] committedValues = new long[VALUE_SLOTS];
+    private List<Integer> committedFreePages = new ArrayList<>();
+
+    private PageFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the given page file, creating it if it does not exist.
+     *
+     * @param path The file.
+     * @return The opened file, positioned at its last committed transaction.
+     * @throws FridayException If the file cannot be opened or has no valid meta page.
+     */
+    public static PageFile open(Path path) throws FridayException {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            PageFile file = new PageFile(path, channel);
+            if (channel.size() == 0) {
+                file.pageCount = META_PAGES;
+            } else {
+                file.readMeta();
+            }
+            file.snapshotCommitted();
+            return file;
+        } catch (IOException e) {
+            throw new FridayException("Error opening '" + path + "': " + e.getMessage());
+        }
+    }
+
+    private void readMeta() throws IOException, FridayException {
+        ByteBuffer best = null;
+        for (int page = 0; page < META_PAGES; page++) {
+            ByteBuffer meta = readFromDisk(page);
+            if (isValidMeta(meta) && (best == null || meta.getLong(TXN_OFFSET) > best.getLong(TXN_OFFSET))) {
+                best = meta;
+            }
+        }
+        if (best == null) {
+            throw new FridayException("'" + path + "' is not a valid Friday page file.");
+        }
+        txn = best.getLong(TXN_OFFSET);
+        pageCount = best.getInt(PAGE_COUNT_OFFSET);
+        for (int i = 0; i < ROOT_SLOTS; i++) {
+            roots[i] = best.getInt(ROOTS_OFFSET + i * 4);
+        }
+        for (int i = 0; i < VALUE_SLOTS; i++) {
+            values[i] = best.getLong(VALUES_OFFSET + i * 8);
+        }
+        int freeCount = best.getInt(FREE_LIST_OFFSET);
+        freePages = new ArrayList<>(freeCount);
+        for (int i = 0; i < freeCount; i++) {
+            freePages.add(best.getInt(FREE_LIST_OFFSET + 4 + i * 4));
+        }
+    }
+
+    private static boolean isValidMeta(ByteBuffer meta) {
+        if (meta.getInt(0) != MAGIC || meta.getInt(4) != VERSION) {
+            return false;
+        }
+        int freeCount = meta.getInt(FREE_LIST_OFFSET);
+        if (freeCount < 0 || freeCount > MAX_FREE_PAGES) {
+            return false;
+        }
+        return meta.getInt(CHECKSUM_OFFSET) == checksum(meta);
+    }
+
+    private static int checksum(ByteBuffer meta) {
+        CRC32 crc = new CRC32();
+        crc.update(meta.array(), meta.arrayOffset(), CHECKSUM_OFFSET);
+        return (int) crc.getValue();
+    }
+
+    public int getRoot(int slot) {
+        return roots[slot];
+    }
+
+    public void setRoot(int slot, int pageId) {
+        roots[slot] = pageId;
+    }
+
+    public long getValue(int slot) {
+        return values[slot];
+    }
+
+    public void setValue(int slot, long value) {
+        values[slot] = value;
+    }
+
+    /**
+     * Returns a read-only view of the given page.
+     *
+     * @param pageId The page to read.
+     * @return The page contents.
+     * @throws FridayException If the page cannot be read.
+     */
+    public ByteBuffer read(int pageId) throws FridayException {
+        ByteBuffer page = cache.get(pageId);
+        if (page == null) {
+            try {
+                page = readFromDisk(pageId);
+            } catch (IOException e) {
+                throw new FridayException("Error reading page " + pageId + " of '" + path + "': " + e.getMessage());
+            }
+            cache.put(pageId, page);
+        }
+        return page.asReadOnlyBuffer();
+    }
+
+    private ByteBuffer readFromDisk(int pageId) throws IOException {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        long position = (long) pageId * PAGE_SIZE;
+        while (page.hasRemaining()) {
+            if (channel.read(page, position + page.position()) < 0) {
+                break;
+            }
+        }
+        page.clear();
+        return page;
+    }
+
+    /**
+     * Allocates a page for the running transaction, reusing a free page if possible.
+     *
+     * @return The id of the allocated page.
+     */
+    public int allocate() {
+        int pageId = freePages.isEmpty() ? pageCount++ : freePages.remove(freePages.size() - 1);
+        allocatedInTxn.add(pageId);
+        return pageId;
+    }
+
+    /**
+     * Writes a page allocated by the running transaction.
+     *
+     * @param pageId   The page to write.
+     * @param contents Its contents, at most {@link #PAGE_SIZE} bytes; the rest is zeroed.
+     * @throws FridayException If the page cannot be written.
+     */
+    public void write(int pageId, byte[] contents) throws FridayException {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        page.put(contents);
+        page.clear();
+        try {
+            writeToDisk(pageId, page.duplicate());
+        } catch (IOException e) {
+            throw new FridayException("Error writing page " + pageId + " of '" + path + "': " + e.getMessage());
+        }
+        cache.put(pageId, page);
+    }
+
+    private void writeToDisk(int pageId, ByteBuffer page) throws IOException {
+        long position = (long) pageId * PAGE_SIZE;
+        while (page.hasRemaining()) {
+            channel.write(page, position + page.position());
+        }
+    }
+
+    /**
+     * Releases a page. A page written by the running transaction is reusable at once;
+     * any other page becomes reusable after the running transaction commits.
+     *
+     * @param pageId The page to release.
+     */
+    public void free(int pageId) {
+        if (allocatedInTxn.remove(pageId)) {
+            // Never committed, so nothing on disk refers to it.
+            freePages.add(pageId);
+            return;
+        }
+        pendingFree.add(pageId);
+    }
+
+    /**
+     * Makes the running transaction durable by writing the next meta page.
+     *
+     * @param isForced Whether data pages and the meta page are forced to disk.
+     * @throws FridayException If the meta page cannot be written.
+     */
+    public void commit(boolean isForced) throws FridayException {
+        List<Integer> persistedFree = new ArrayList<>(freePages);
+        persistedFree.addAll(pendingFree);
+        // Pages beyond the meta page's capacity are leaked rather than lost track of mid-transaction.
+        if (persistedFree.size() > MAX_FREE_PAGES) {
+            persistedFree = new ArrayList<>(persistedFree.subList(0, MAX_FREE_PAGES));
+        }
+        ByteBuffer meta = ByteBuffer.allocate(PAGE_SIZE);
+        meta.putInt(0, MAGIC);
+        meta.putInt(4, VERSION);
+        meta.putLong(TXN_OFFSET, txn + 1);
+        meta.putInt(PAGE_COUNT_OFFSET, pageCount);
+        for (int i = 0; i < ROOT_SLOTS; i++) {
+            meta.putInt(ROOTS_OFFSET + i * 4, roots[i]);
+        }
+        for (int i = 0; i < VALUE_SLOTS; i++) {
+            meta.putLong(VALUES_OFFSET + i * 8, values[i]);
+        }
+        meta.putInt(FREE_LIST_OFFSET, persistedFree.size());
+        for (int i = 0; i < persistedFree.size(); i++) {
+            meta.putInt(FREE_LIST_OFFSET + 4 + i * 4, persistedFree.get(i));
+        }
+        meta.putInt(CHECKSUM_OFFSET, checksum(meta));
+        try {
+            if (isForced) {
+                channel.force(false);
+            }
+            writeToDisk((int) ((txn + 1) % META_PAGES), meta);
+            if (isForced) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new FridayException("Error committing '" + path + "': " + e.getMessage());
+        }
+        txn++;
+        freePages = persistedFree;
+        pendingFree.clear();
+        allocatedInTxn.clear();
+        snapshotCommitted();
+    }
+
+    /**
+     * Discards the changes of the running transaction. Pages it wrote are not
+     * referenced by the committed state and are simply overwritten later.
+     */
+    public void abort() {
+        pageCount = committedPageCount;
+        System.arraycopy(committedRoots, 0, roots, 0, ROOT_SLOTS);
+        System.arraycopy(committedValues, 0, values, 0, VALUE_SLOTS);
+        freePages = new ArrayList<>(committedFreePages);
+        pendingFree.clear();
+        allocatedInTxn.clear();
+        cache.clear();
+    }
+
+    private void snapshotCommitted() {
+        committedPageCount = pageCount;
+        System.arraycopy(roots, 0, committedRoots, 0, ROOT_SLOTS);
+        System.arraycopy(values, 0, committedValues, 0, VALUE_SLOTS);
+        committedFreePages = new ArrayList<>(freePages);
+    }
+
+    /**
+     * Forces every committed page to disk.
+     *
+     * @throws FridayException If the file cannot be synced.
+     */
+    public void force() throws FridayException {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new FridayException("Error syncing '" + path + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the file. Uncommitted changes are discarded.
+     *
+     * @throws FridayException If the file cannot be closed.
+     */
+    public void close() throws FridayException {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new FridayException("Error closing '" + path + "': " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package friday;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A copy-on-write B+-tree stored in a {@link PageFile}.
+ * <p>
+ * Keys are pairs of longs compared in order, values are byte arrays. Every node
+ * fills one page. Leaves hold the entries; values larger than {@link #MAX_INLINE_VALUE}
+ * bytes are moved to a chain of overflow pages. Internal nodes hold, for every child,
+ * its page id and the number of entries below it, so an entry can also be found by
+ * its rank in key order.
+ * <p>
+ * An update writes new pages for the nodes on the path from the root to the changed
+ * leaf and frees the old ones, so it costs O(log n) page writes; the caller commits
+ * the {@code PageFile} to make it durable. Nodes that become empty are removed, but
+ * underfull nodes are not merged with their siblings.
+ */
+public class PagedBTree {
+    /** Values up to this many bytes are stored in the leaf itself. */
+    public static final int MAX_INLINE_VALUE = 1024;
+
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+    private static final byte OVERFLOW = 3;
+    private static final int NODE_HEADER_SIZE = 3;
+    private static final int KEY_SIZE = 16;
+    private static final int CHILD_SIZE = 8;
+    private static final int OVERFLOW_HEADER_SIZE = 9;
+    private static final int OVERFLOW_CAPACITY = PageFile.PAGE_SIZE - OVERFLOW_HEADER_SIZE;
+
+    private final PageFile file;
+    private final int rootSlot;
+
+    /**
+     * Receives entries from {@link #scan(long, long, long, long, EntryVisitor)}.
+     */
+    public interface EntryVisitor {
+        /**
+         * Handles one entry.
+         *
+         * @param high  The first half of the key.
+         * @param low   The second half of the key.
+         * @param value The value.
+         * @throws FridayException If the entry cannot be handled.
+         */
+        void visit(long high, long low, byte[] value) throws FridayException;
+    }
+
+    /**
+     * Constructs a {@code PagedBTree} whose root page id is kept in the given slot
+     * of the file's meta page.
+     *
+     * @param file     The page file holding the tree.
+     * @param rootSlot The root slot, below {@link PageFile#ROOT_SLOTS}.
+     */
+    public PagedBTree(PageFile file, int rootSlot) {
+        this.file = file;
+        this.rootSlot = rootSlot;
+    }
+
+    /**
+     * Returns the number of entries in the tree.
+     *
+     * @return The entry count.
+     * @throws FridayException If the root cannot be read.
+     */
+    public int size() throws FridayException {
+        int root = file.getRoot(rootSlot);
+        return root == PageFile.NO_PAGE ? 0 : readNode(root).count();
+    }
+
+    /**
+     * Returns the value stored under the given key.
+     *
+     * @param high The first half of the key.
+     * @param low  The second half of the key.
+     * @return The value, or {@code null} if the key is absent.
+     * @throws FridayException If a page cannot be read.
+     */
+    public byte[] get(long high, long low) throws FridayException {
+        int pageId = file.getRoot(rootSlot);
+        while (pageId != PageFile.NO_PAGE) {
+            Node node = readNode(pageId);
+            if (node.isLeaf) {
+                int position = node.find(high, low);
+                return position >= 0 ? readValue(node.values.get(position)) : null;
+            }
+            pageId = node.children.get(node.childFor(high, low));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the key of the entry with the given rank in key order.
+     *
+     * @param rank The 0-based rank.
+     * @return The key as {@code {high, low}}.
+     * @throws FridayException If the rank is out of range or a page cannot be read.
+     */
+    public long[] keyAt(int rank) throws FridayException {
+        if (rank < 0 || rank >= size()) {
+            throw new FridayException("Invalid rank: " + rank);
+        }
+        int remaining = rank;
+        Node node = readNode(file.getRoot(rootSlot));
+        while (!node.isLeaf) {
+            int child = 0;
+            while (remaining >= node.counts.get(child)) {
+                remaining -= node.counts.get(child);
+                child++;
+            }
+            node = readNode(node.children.get(child));
+        }
+        return new long[] {node.highs.get(remaining), node.lows.get(remaining)};
+    }
+
+    /**
+     * Inserts an entry or replaces the value of an existing one.
+     *
+     * @param high  The first half of the key.
+     * @param low   The second half of the key.
+     * @param value The value.
+     * @throws FridayException If a page cannot be read or written.
+     */
+    public void put(long high, long low, byte[] value) throws FridayException {
+        int root = file.getRoot(rootSlot);
+        Object stored = storeValue(value);
+        if (root == PageFile.NO_PAGE) {
+            Node leaf = Node.leaf();
+            leaf.insertEntry(0, high, low, stored);
+            file.setRoot(rootSlot, writeNode(leaf));
+            return;
+        }
+        List<Node> replacement = insert(root, high, low, stored);
+        if (replacement.size() == 1) {
+            file.setRoot(rootSlot, writeNode(replacement.get(0)));
+            return;
+        }
+        Node newRoot = Node.internal();
+        for (Node node : replacement) {
+            newRoot.appendChild(writeNode(node), node.count(), node.firstHigh(), node.firstLow());
+        }
+        file.setRoot(rootSlot, writeNode(newRoot));
+    }
+
+    private List<Node> insert(int pageId, long high, long low, Object stored) throws FridayException {
+        Node node = readNode(pageId);
+        file.free(pageId);
+        if (node.isLeaf) {
+            int position = node.find(high, low);
+            if (position >= 0) {
+                freeValue(node.values.get(position));
+                node.values.set(position, stored);
+            } else {
+                node.insertEntry(-position - 1, high, low, stored);
+            }
+            return node.splitIfNeeded();
+        }
+        int child = node.childFor(high, low);
+        List<Node> children = insert(node.children.get(child), high, low, stored);
+        node.removeChild(child);
+        for (int i = 0; i < children.size(); i++) {
+            Node replacement = children.get(i);
+            node.insertChild(child + i, writeNode(replacement), replacement.count(),
+                    replacement.firstHigh(), replacement.firstLow());
+        }
+        return node.splitIfNeeded();
+    }
+
+    /**
+     * Fills an empty tree bottom-up from entries sorted by key, writing every page once.
+     *
+     * @param highs  The first halves of the keys, in ascending key order.
+     * @param lows   The second halves of the keys.
+     * @param values The values.
+     * @throws FridayException If the tree is not empty or a page cannot be written.
+     */
+    public void build(long[] highs, long[] lows, byte[][] values) throws FridayException {
+        if (file.getRoot(rootSlot) != PageFile.NO_PAGE) {
+            throw new FridayException("Only an empty tree can be built from sorted entries.");
+        }
+        if (highs.length == 0) {
+            return;
+        }
+        List<Node> level = new ArrayList<>();
+        Node leaf = Node.leaf();
+        for (int i = 0; i < highs.length; i++) {
+            leaf.insertEntry(leaf.highs.size(), highs[i], lows[i], storeValue(values[i]));
+            if (leaf.encodedSize() > PageFile.PAGE_SIZE) {
+                int last = leaf.highs.size() - 1;
+                Object overflowing = leaf.values.get(last);
+                leaf.removeEntry(last);
+                level.add(leaf);
+                leaf = Node.leaf();
+                leaf.insertEntry(0, highs[i], lows[i], overflowing);
+            }
+        }
+        level.add(leaf);
+        while (level.size() > 1) {
+            List<Node> parents = new ArrayList<>();
+            Node parent = Node.internal();
+            for (Node node : level) {
+                if (parent.encodedSize() + KEY_SIZE + CHILD_SIZE > PageFile.PAGE_SIZE) {
+                    parents.add(parent);
+                    parent = Node.internal();
+                }
+                parent.appendChild(writeNode(node), node.count(), node.firstHigh(), node.firstLow());
+            }
+            parents.add(parent);
+            level = parents;
+        }
+        file.setRoot(rootSlot, writeNode(level.get(0)));
+    }
+
+    /**
+     * Removes the entry with the given key.
+     *
+     * @param high The first half of the key.
+     * @param low  The second half of the key.
+     * @return {@code true} if the entry existed.
+     * @throws FridayException If a page cannot be read or written.
+     */
+    public boolean delete(long high, long low) throws FridayException {
+        int root = file.getRoot(rootSlot);
+        if (root == PageFile.NO_PAGE || get(high, low) == null) {
+            return false;
+        }
+        Node replacement = remove(root, high, low);
+        int newRoot = PageFile.NO_PAGE;
+        if (replacement != null) {
+            // A root left with a single child is dropped, so the tree shrinks as it empties.
+            boolean isSingleChild = !replacement.isLeaf && replacement.children.size() == 1;
+            newRoot = isSingleChild ? replacement.children.get(0) : writeNode(replacement);
+        }
+        file.setRoot(rootSlot, newRoot);
+        return true;
+    }
+
+    /** Removes a key known to be present; returns the new node, or {@code null} if it became empty. */
+    private Node remove(int pageId, long high, long low) throws FridayException {
+        Node node = readNode(pageId);
+        file.free(pageId);
+        if (node.isLeaf) {
+            int position = node.find(high, low);
+            freeValue(node.values.get(position));
+            node.removeEntry(position);
+            return node.highs.isEmpty() ? null : node;
+        }
+        int child = node.childFor(high, low);
+        Node replacement = remove(node.children.get(child), high, low);
+        node.removeChild(child);
+        if (replacement != null) {
+            node.insertChild(child, writeNode(replacement), replacement.count(),
+                    replacement.firstHigh(), replacement.firstLow());
+        }
+        return node.children.isEmpty() ? null : node;
+    }
+
+    /**
+     * Visits every entry whose key lies in the given inclusive range, in key order.
+     *
+     * @param fromHigh The first half of the smallest key.
+     * @param fromLow  The second half of the smallest key.
+     * @param toHigh   The first half of the largest key.
+     * @param toLow    The second half of the largest key.
+     * @param visitor  Receives the entries.
+     * @throws FridayException If a page cannot be read or the visitor fails.
+     */
+    public void scan(long fromHigh, long fromLow, long toHigh, long toLow, EntryVisitor visitor)
+            throws FridayException {
+        int root = file.getRoot(rootSlot);
+        if (root != PageFile.NO_PAGE) {
+            scan(root, fromHigh, fromLow, toHigh, toLow, visitor);
+        }
+    }
+
+    private void scan(int pageId, long fromHigh, long fromLow, long toHigh, long toLow, EntryVisitor visitor)
+            throws FridayException {
+        Node node = readNode(pageId);
+        if (node.isLeaf) {
+            for (int i = 0; i < node.highs.size(); i++) {
+                long high = node.highs.get(i);
+                long low = node.lows.get(i);
+                if (compare(high, low, fromHigh, fromLow) >= 0 && compare(high, low, toHigh, toLow) <= 0) {
+                    visitor.visit(high, low, readValue(node.values.get(i)));
+                }
+            }
+            return;
+        }
+        int first = node.childFor(fromHigh, fromLow);
+        int last = node.childFor(toHigh, toLow);
+        for (int i = first; i <= last; i++) {
+            scan(node.children.get(i), fromHigh, fromLow, toHigh, toLow, visitor);
+        }
+    }
+
+    private static int compare(long high, long low, long otherHigh, long otherLow) {
+        int result = Long.compare(high, otherHigh);
+        return result != 0 ? result : Long.compare(low, otherLow);
+    }
+
+    private Node readNode(int pageId) throws FridayException {
+        return Node.decode(file.read(pageId));
+    }
+
+    private int writeNode(Node node) throws FridayException {
+        int pageId = file.allocate();
+        file.write(pageId, node.encode());
+        return pageId;
+    }
+
+    /** Returns the value itself if it fits in a leaf, otherwise its first overflow page id. */
+    private Object storeValue(byte[] value) throws FridayException {
+        if (value.length <= MAX_INLINE_VALUE) {
+            return value;
+        }
+        int next = PageFile.NO_PAGE;
+        int chunks = (value.length + OVERFLOW_CAPACITY - 1) / OVERFLOW_CAPACITY;
+        for (int chunk = chunks - 1; chunk >= 0; chunk--) {
+            int from = chunk * OVERFLOW_CAPACITY;
+            int length = Math.min(OVERFLOW_CAPACITY, value.length - from);
+            ByteBuffer page = ByteBuffer.allocate(OVERFLOW_HEADER_SIZE + length);
+            page.put(OVERFLOW).putInt(next).putInt(chunk == 0 ? value.length : length);
+            page.put(value, from, length);
+            next = file.allocate();
+            file.write(next, page.array());
+        }
+        return new Overflow(next);
+    }
+
+    private byte[] readValue(Object stored) throws FridayException {
+        if (stored instanceof byte[] inline) {
+            return inline;
+        }
+        int pageId = ((Overflow) stored).firstPage;
+        ByteBuffer first = file.read(pageId);
+        byte[] value = new byte[first.getInt(5)];
+        int copied = 0;
+        while (copied < value.length) {
+            ByteBuffer page = file.read(pageId);
+            int length = Math.min(OVERFLOW_CAPACITY, value.length - copied);
+            page.position(OVERFLOW_HEADER_SIZE);
+            page.get(value, copied, length);
+            copied += length;
+            pageId = page.getInt(1);
+        }
+        return value;
+    }
+
+    private void freeValue(Object stored) throws FridayException {
+        if (stored instanceof Overflow overflow) {
+            int pageId = overflow.firstPage;
+            while (pageId != PageFile.NO_PAGE) {
+                int next = file.read(pageId).getInt(1);
+                file.free(pageId);
+                pageId = next;
+            }
+        }
+    }
+
+    /**
+     * Reference to a value stored in overflow pages.
+     */
+    private static final class Overflow {
+        private final int firstPage;
+
+        private Overflow(int firstPage) {
+            this.firstPage = firstPage;
+        }
+    }
+
+    /**
+     * A decoded node. Leaves use the key and value lists; internal nodes use the
+     * child lists, with the keys holding the first key below each child.
+     */
+    private static final class Node {
+        private final boolean isLeaf;
+        private final List<Long> highs = new ArrayList<>();
+        private final List<Long> lows = new ArrayList<>();
+        /** Leaf values: {@code byte[]} or {@link Overflow}. */
+        private final List<Object> values = new ArrayList<>();
+        private final List<Integer> children = new ArrayList<>();
+        private final List<Integer> counts = new ArrayList<>();
+
+        private Node(boolean isLeaf) {
+            this.isLeaf = isLeaf;
+        }
+
+        private static Node leaf() {
+            return new Node(true);
+        }
+
+        private static Node internal() {
+            return new Node(false);
+        }
+
+        private static Node decode(ByteBuffer page) throws FridayException {
+            byte type = page.get(0);
+            if (type != LEAF && type != INTERNAL) {
+                throw new FridayException("Corrupted tree page: unknown node type " + type + ".");
+            }
+            Node node = new Node(type == LEAF);
+            int entries = page.getShort(1) & 0xFFFF;
+            page.position(NODE_HEADER_SIZE);
+            for (int i = 0; i < entries; i++) {
+                node.highs.add(page.getLong());
+                node.lows.add(page.getLong());
+                if (node.isLeaf) {
+                    int length = page.getInt();
+                    if (length < 0) {
+                        node.values.add(new Overflow(page.getInt()));
+                    } else {
+                        byte[] value = new byte[length];
+                        page.get(value);
+                        node.values.add(value);
+                    }
+                } else {
+                    node.children.add(page.getInt());
+                    node.counts.add(page.getInt());
+                }
+            }
+            return node;
+        }
+
+        private byte[] encode() {
+            ByteBuffer page = ByteBuffer.allocate(encodedSize());
+            page.put(isLeaf ? LEAF : INTERNAL);
+            page.putShort((short) highs.size());
+            for (int i = 0; i < highs.size(); i++) {
+                page.putLong(highs.get(i));
+                page.putLong(lows.get(i));
+                if (isLeaf) {
+                    Object value = values.get(i);
+                    if (value instanceof byte[] inline) {
+                        page.putInt(inline.length);
+                        page.put(inline);
+                    } else {
+                        page.putInt(-1);
+                        page.putInt(((Overflow) value).firstPage);
+                    }
+                } else {
+                    page.putInt(children.get(i));
+                    page.putInt(counts.get(i));
+                }
+            }
+            return page.array();
+        }
+
+        private int encodedSize() {
+            int size = NODE_HEADER_SIZE;
+            for (int i = 0; i < highs.size(); i++) {
+                size += entrySize(i);
+            }
+            return size;
+        }
+
+        private int entrySize(int i) {
+            if (!isLeaf) {
+                return KEY_SIZE + CHILD_SIZE;
+            }
+            Object value = values.get(i);
+            return KEY_SIZE + 4 + (value instanceof byte[] inline ? inline.length : 4);
+        }
+
+        private int count() {
+            if (isLeaf) {
+                return highs.size();
+            }
+            int total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            return total;
+        }
+
+        private long firstHigh() {
+            return highs.get(0);
+        }
+
+        private long firstLow() {
+            return lows.get(0);
+        }
+
+        /** Returns the position of the key, or {@code -(insertion point) - 1} if absent. */
+        private int find(long high, long low) {
+            int from = 0;
+            int to = highs.size() - 1;
+            while (from <= to) {
+                int middle = (from + to) >>> 1;
+                int result = compare(highs.get(middle), lows.get(middle), high, low);
+                if (result < 0) {
+                    from = middle + 1;
+                } else if (result > 0) {
+                    to = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -from - 1;
+        }
+
+        /** Returns the child whose range contains the key. */
+        private int childFor(long high, long low) {
+            int position = find(high, low);
+            int child = position >= 0 ? position : -position - 2;
+            return Math.max(0, child);
+        }
+
+        private void insertEntry(int position, long high, long low, Object value) {
+            highs.add(position, high);
+            lows.add(position, low);
+            values.add(position, value);
+        }
+
+        private void removeEntry(int position) {
+            highs.remove(position);
+            lows.remove(position);
+            values.remove(position);
+        }
+
+        private void appendChild(int pageId, int count, long high, long low) {
+            insertChild(children.size(), pageId, count, high, low);
+        }
+
+        private void insertChild(int position, int pageId, int count, long high, long low) {
+            highs.add(position, high);
+            lows.add(position, low);
+            children.add(position, pageId);
+            counts.add(position, count);
+        }
+
+        private void removeChild(int position) {
+            highs.remove(position);
+            lows.remove(position);
+            children.remove(position);
+            counts.remove(position);
+        }
+
+        /** Returns this node, or two halves of it if it does not fit in a page. */
+        private List<Node> splitIfNeeded() {
+            List<Node> result = new ArrayList<>();
+            if (encodedSize() <= PageFile.PAGE_SIZE) {
+                result.add(this);
+                return result;
+            }
+            int half = encodedSize() / 2;
+            int size = NODE_HEADER_SIZE;
+            int split = 0;
+            while (split < highs.size() - 1 && size + entrySize(split) <= half) {
+                size += entrySize(split);
+                split++;
+            }
+            split = Math.max(1, split);
+            Node left = new Node(isLeaf);
+            Node right = new Node(isLeaf);
+            for (int i = 0; i < highs.size(); i++) {
+                Node target = i < split ? left : right;
+                target.highs.add(highs.get(i));
+                target.lows.add(lows.get(i));
+                if (isLeaf) {
+                    target.values.add(values.get(i));
+                } else {
+                    target.children.add(children.get(i));
+                    target.counts.add(counts.get(i));
+                }
+            }
+            result.add(left);
+            result.add(right);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package friday;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses a text save file on a fork-join pool.
+ * <p>
+ * The file is memory-mapped and split into chunks that end on line boundaries.
+ * Each chunk verifies the checksum of every line (see {@link RecordChecksum}) and
+ * parses it with {@link Parser#parseLineToTask(String)}, and the results are appended
+ * to the {@link TaskList} in their original order. Corrupted lines are quarantined in
+ * a {@link LoadReport} under their exact 1-based line numbers, in file order. A
+ * {@link SnapshotHeader} on the first line is skipped but still counts as line 1.
+ */
+public class ParallelTaskLoader {
+    /** Files smaller than this are parsed on the caller's thread. */
+    public static final long MIN_PARALLEL_SIZE = 1L << 20;
+
+    private static final long MAX_REGION_SIZE = 1L << 30;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Parses every line of the given file and appends the tasks to the list.
+     *
+     * @param path   The text save file.
+     * @param parser The {@code Parser} used for each line.
+     * @param list   The list to append the tasks to.
+     * @param report Receives the corrupted lines.
+     * @throws FridayException If the file cannot be read.
+     */
+    public static void load(Path path, Parser parser, TaskList list, LoadReport report) throws FridayException {
+        List<Chunk> chunks = split(path, parser);
+        ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks)));
+
+        long linesBefore = 0;
+        for (Chunk chunk : chunks) {
+            for (Task task : chunk.tasks) {
+                list.addTask(task);
+            }
+            for (BadLine bad : chunk.badLines) {
+                report.quarantine(linesBefore + bad.lineIndex + 1, bad.line, bad.reason);
+            }
+            linesBefore += chunk.lineCount;
+        }
+    }
+
+    private static List<Chunk> split(Path path, Parser parser) throws FridayException {
+        List<Chunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            int chunkCount = Math.max(1, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD);
+            long targetSize = Math.max(MIN_PARALLEL_SIZE / CHUNKS_PER_THREAD, fileSize / chunkCount + 1);
+            long start = 0;
+            while (start < fileSize) {
+                long length = Math.min(MAX_REGION_SIZE, fileSize - start);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                boolean isLastRegion = start + length == fileSize;
+                int regionEnd = isLastRegion ? (int) length : lineEndBefore(region, (int) length);
+                if (regionEnd == 0) {
+                    throw new FridayException("Save file '" + path + "' has a line longer than 1 GB.");
+                }
+                int chunkStart = 0;
+                while (chunkStart < regionEnd) {
+                    int chunkEnd = (int) Math.min(regionEnd, chunkStart + targetSize);
+                    if (chunkEnd < regionEnd) {
+                        chunkEnd = nextLineEnd(region, chunkEnd, regionEnd);
+                    }
+                    boolean isLastChunk = isLastRegion && chunkEnd == regionEnd;
+                    chunks.add(new Chunk(chunks.size(), region, chunkStart, chunkEnd, isLastChunk, parser));
+                    chunkStart = chunkEnd;
+                }
+                start += regionEnd;
+            }
+        } catch (IOException e) {
+            throw new FridayException("Error loading tasks from '" + path + "': " + e.getMessage());
+        }
+        return chunks;
+    }
+
+    /** Returns the position just after the last newline before {@code end}, or 0 if there is none. */
+    private static int lineEndBefore(MappedByteBuffer region, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (region.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /** Returns the position just after the first newline at or after {@code from}, or {@code limit}. */
+    private static int nextLineEnd(MappedByteBuffer region, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (region.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * A line that could not be loaded, numbered from the start of its chunk.
+     */
+    private static final class BadLine {
+        private final int lineIndex;
+        private final String line;
+        private final String reason;
+
+        private BadLine(int lineIndex, String line, String reason) {
+            this.lineIndex = lineIndex;
+            this.line = line;
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * A newline-aligned slice of the file, parsed as one fork-join task.
+     */
+    private static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+        private final MappedByteBuffer region;
+        private final int start;
+        private final int end;
+        private final boolean isLastChunk;
+        private final Parser parser;
+        private final List<Task> tasks = new ArrayList<>();
+        private final List<BadLine> badLines = new ArrayList<>();
+
+        private int lineCount;
+
+        private Chunk(int index, MappedByteBuffer region, int start, int end, boolean isLastChunk,
+                      Parser parser) {
+            this.index = index;
+            this.region = region;
+            this.start = start;
+            this.end = end;
+            this.isLastChunk = isLastChunk;
+            this.parser = parser;
+        }
+
+        @Override
+        protected void compute() {
+            int lineStart = start;
+            for (int i = start; i <= end; i++) {
+                boolean isLineEnd = i < end && region.get(i) == '\n';
+                // Like Files.readAllLines, a final newline does not start another line.
+                boolean isFinalLine = i == end && isLastChunk && lineStart < end;
+                if (!isLineEnd && !isFinalLine) {
+                    continue;
+                }
+                byte[] bytes = read(lineStart, i);
+                try {
+                    String line = RecordChecksum.unseal(bytes, 0, bytes.length);
+                    if (index != 0 || lineCount != 0 || !SnapshotHeader.isHeader(line)) {
+                        tasks.add(parser.parseLineToTask(line));
+                    }
+                } catch (FridayException e) {
+                    badLines.add(new BadLine(lineCount, new String(bytes, StandardCharsets.UTF_8), e.getMessage()));
+                }
+                lineCount++;
+                lineStart = i + 1;
+            }
+        }
+
+        private byte[] read(int from, int to) {
+            int lineEnd = (to > from && region.get(to - 1) == '\r') ? to - 1 : to;
+            byte[] bytes = new byte[lineEnd - from];
+            region.get(from, bytes);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package friday;
+
+import java.util.Arrays;
+
+/**
+ * A user command split into its keyword and argument by a {@link CommandLexer}.
+ * <p>
+ * The argument is kept as a range of the input rather than copied, and so are its
+ * words, the runs of characters between whitespace, among them flags such as
+ * {@code /by} and options such as {@code --ranked}. A single task number or
+ * {@code #id}, as taken by {@code mark}, {@code unmark} and {@code delete}, is parsed
+ * while lexing. One instance is meant to be reused for every command.
+ */
+public class ParsedCommand {
+    /**
+     * The commands Friday understands, with the word that starts each of them.
+     */
+    public enum Keyword {
+        BYE("bye", true),
+        LIST("list", true),
+        STATS("stats", true),
+        MARK("mark", false),
+        UNMARK("unmark", false),
+        TODO("todo", false),
+        DEADLINE("deadline", false),
+        EVENT("event", false),
+        DELETE("delete", false),
+        FIND("find", false),
+        REMIND("remind", false),
+        BETWEEN("between", false),
+        OVERLAPS("overlaps", false),
+        FREE("free", false),
+        IMPORT("import", false),
+        FILTER("filter", false),
+        UNKNOWN("", false);
+
+        private final String word;
+        private final boolean isWholeCommand;
+
+        Keyword(String word, boolean isWholeCommand) {
+            this.word = word;
+            this.isWholeCommand = isWholeCommand;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        /**
+         * Returns whether the command is only recognised on its own, without arguments.
+         *
+         * @return {@code true} for commands such as {@code bye} and {@code list}.
+         */
+        public boolean isWholeCommand() {
+            return isWholeCommand;
+        }
+    }
+
+    private String input = "";
+    private Keyword keyword = Keyword.UNKNOWN;
+    private int argumentStart;
+    private int argumentEnd;
+    private boolean hasTaskNumber;
+    private boolean isId;
+    private long taskNumber;
+    /** Start and end of each word of the argument, one pair after another. */
+    private int[] wordBounds = new int[16];
+    private int wordCount;
+
+    /** Resets this command to the given input, before the lexer fills it in. */
+    void reset(String input) {
+        this.input = input;
+        this.keyword = Keyword.UNKNOWN;
+        this.argumentStart = 0;
+        this.argumentEnd = 0;
+        this.hasTaskNumber = false;
+        this.isId = false;
+        this.taskNumber = 0;
+        this.wordCount = 0;
+    }
+
+    void setKeyword(Keyword keyword, int argumentStart, int argumentEnd) {
+        this.keyword = keyword;
+        this.argumentStart = argumentStart;
+        this.argumentEnd = argumentEnd;
+    }
+
+    void addWord(int start, int end) {
+        if (2 * wordCount == wordBounds.length) {
+            wordBounds = Arrays.copyOf(wordBounds, wordBounds.length * 2);
+        }
+        wordBounds[2 * wordCount] = start;
+        wordBounds[2 * wordCount + 1] = end;
+        wordCount++;
+    }
+
+    void setTaskNumber(long taskNumber, boolean isId) {
+        this.hasTaskNumber = true;
+        this.taskNumber = taskNumber;
+        this.isId = isId;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public Keyword getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns the argument of the command, without surrounding whitespace. Unlike the
+     * other accessors this copies part of the input.
+     *
+     * @return The argument, or an empty string if there is none.
+     */
+    public String getArgument() {
+        return input.substring(argumentStart, argumentEnd);
+    }
+
+    /**
+     * Returns whether the keyword is a word of its own, followed by whitespace or by
+     * nothing, rather than the start of a longer word, as {@code todo} is of {@code todos}.
+     *
+     * @return {@code true} if the keyword stands alone, or no keyword was recognised.
+     */
+    public boolean isKeywordSeparate() {
+        return argumentStart == argumentEnd || Character.isWhitespace(input.charAt(argumentStart - 1));
+    }
+
+    /**
+     * Returns whether the argument is a single positive task number or {@code #id}.
+     *
+     * @return {@code true} if {@link #getTaskNumber()} holds it.
+     */
+    public boolean hasTaskNumber() {
+        return hasTaskNumber;
+    }
+
+    /**
+     * Returns whether the task number is an id, written as {@code #id}.
+     *
+     * @return {@code true} for an id, {@code false} for a 1-based position.
+     */
+    public boolean isId() {
+        return isId;
+    }
+
+    public long getTaskNumber() {
+        return taskNumber;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Returns a word of the argument. Like {@link #getArgument()} this copies it.
+     *
+     * @param index The 0-based index of the word.
+     * @return The word.
+     */
+    public String getWord(int index) {
+        checkWordIndex(index);
+        return input.substring(wordBounds[2 * index], wordBounds[2 * index + 1]);
+    }
+
+    /**
+     * Returns whether a word of the argument is the given text, without copying it.
+     *
+     * @param index The 0-based index of the word.
+     * @param text  The text to compare with.
+     * @return {@code true} if the word is exactly the text.
+     */
+    public boolean isWord(int index, String text) {
+        checkWordIndex(index);
+        int start = wordBounds[2 * index];
+        return wordBounds[2 * index + 1] - start == text.length() && input.startsWith(text, start);
+    }
+
+    /**
+     * Returns the index of the first word at or after the given one that is the given
+     * text, such as the flag {@code /by}.
+     *
+     * @param text The text of the word.
+     * @param from The 0-based index of the first word to look at.
+     * @return The index of the word, or -1 if no such word follows.
+     */
+    public int indexOfWord(String text, int from) {
+        for (int i = Math.max(0, from); i < wordCount; i++) {
+            if (isWord(i, text)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the part of the input from the start of one word to the end of another,
+     * with the whitespace between them as typed.
+     *
+     * @param from The 0-based index of the first word.
+     * @param to   The index after the last word.
+     * @return The words, or an empty string if there are none in the range.
+     */
+    public String getWords(int from, int to) {
+        if (from >= to) {
+            return "";
+        }
+        checkWordIndex(from);
+        checkWordIndex(to - 1);
+        return input.substring(wordBounds[2 * from], wordBounds[2 * (to - 1) + 1]);
+    }
+
+    /** Returns the position in the input of the first character of a word. */
+    int getWordStart(int index) {
+        checkWordIndex(index);
+        return wordBounds[2 * index];
+    }
+
+    /** Returns the position in the input just past the last character of the argument. */
+    int getArgumentEnd() {
+        return argumentEnd;
+    }
+
+    private void checkWordIndex(int index) {
+        if (index < 0 || index >= wordCount) {
+            throw new IndexOutOfBoundsException("Word " + index + " out of bounds for " + wordCount + " words");
+        }
+    }
+}
@@ -1,15 +1,38 @@
 package friday;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Parses user commands and saved task data into usable program objects.
  * Responsible for interpreting task indices from commands and reconstructing
  * {@link Task} objects from stored text.
  */
 public class Parser {
+    private static final String ID_PREFIX = "#";
+    private static final String SEARCH_PREFIX = "find:";
+    private static final char LIST_SEPARATOR = ',';
+    private static final char RANGE_SEPARATOR = '-';
+    private static final int TODO_FIELDS = 3;
+    private static final int DEADLINE_FIELDS = 4;
+    private static final int EVENT_FIELDS = 6;
+    /** Fields read from a save line: those of an event and its id. */
+    private static final int MAX_FIELDS = EVENT_FIELDS + 1;
+    private static final String SAVE_DELIMITER = " | ";
+    private static final String ESCAPED_DELIMITER = " \\| ";
+    private static final int DATE_LENGTH = "yyyy-MM-dd".length();
+    private static final int TIME_LENGTH = "HHmm".length();
 
     /**
      * Parses the task index from a user command such as {@code "mark 2"}.
      * The index is expected to be 1-based. Supports extra spaces and multi-word commands.
+     * <p>
+     * The command is scanned word by word, without a regular expression, and words
+     * that are not integers are skipped without throwing.
      *
      * @param input The full user command.
      * @return The parsed task index.
@@ -19,32 +42,227 @@ public class Parser {
         if (input == null) {
             throw new FridayException("Input cannot be null.");
         }
-        String trimmedInput = input.trim();
-        String[] parts = trimmedInput.split("\\s+");
         // Find the first integer in the command after the first word
-        for (int i = 1; i < parts.length; i++) {
-            try {
-                int index = Integer.parseInt(parts[i]);
-                if (index <= 0) {
+        int wordStart = nextWord(input, wordEnd(input, nextWord(input, 0)));
+        while (wordStart < input.length()) {
+            int wordEnd = wordEnd(input, wordStart);
+            char sign = input.charAt(wordStart);
+            boolean isSigned = sign == '-' || sign == '+';
+            long magnitude = scanPositiveNumber(input, isSigned ? wordStart + 1 : wordStart, wordEnd,
+                    (long) Integer.MAX_VALUE + 1);
+            // A word that is not an integer is skipped.
+            if (magnitude >= 0 && (magnitude <= Integer.MAX_VALUE || sign == '-')) {
+                if (sign == '-' || magnitude == 0) {
                     throw new FridayException("Task number must be a positive integer (1-based).");
                 }
-                return index;
-            } catch (NumberFormatException ignored) {
-                // Not an integer, continue searching
+                return (int) magnitude;
             }
+            wordStart = nextWord(input, wordEnd);
         }
         throw new FridayException("Please specify a valid task number after the command.");
     }
 
+    /**
+     * Parses a task id from a user command such as {@code "mark #1234"}.
+     *
+     * @param input The full user command.
+     * @return The id, or 0 if the command does not name a task by its id.
+     * @throws FridayException If the text after {@code #} is not a positive integer.
+     */
+    public long parseId(String input) throws FridayException {
+        if (input == null) {
+            throw new FridayException("Input cannot be null.");
+        }
+        int start = nextWord(input, wordEnd(input, nextWord(input, 0)));
+        if (start >= input.length() || !input.startsWith(ID_PREFIX, start)) {
+            return 0;
+        }
+        int numberStart = start + ID_PREFIX.length();
+        int end = wordEnd(input, start);
+        char sign = numberStart < end ? input.charAt(numberStart) : ' ';
+        boolean isSigned = sign == '-' || sign == '+';
+        long id = scanPositiveNumber(input, isSigned ? numberStart + 1 : numberStart, end, Long.MAX_VALUE);
+        if (id < 0) {
+            throw new FridayException("Please specify a valid task id after '#'.");
+        }
+        if (id == 0 || sign == '-') {
+            throw new FridayException("Task id must be a positive integer.");
+        }
+        return id;
+    }
+
+    /**
+     * Returns the value of the decimal digits between the given positions.
+     *
+     * @param text  The text.
+     * @param start The position of the first digit.
+     * @param end   The position after the last digit.
+     * @param max   The largest value accepted.
+     * @return The value, or -1 if the range is empty, holds anything but digits, or
+     *         the value exceeds {@code max}.
+     */
+    static long scanPositiveNumber(CharSequence text, int start, int end, long max) {
+        if (start >= end) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            int digit = c - '0';
+            if (value > (max - digit) / 10) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Returns whether the character separates words, as {@code \s} does in a regular
+     * expression.
+     *
+     * @param c The character.
+     * @return {@code true} for a space, tab, line break, vertical tab or form feed.
+     */
+    static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static int nextWord(String text, int from) {
+        int i = from;
+        while (i < text.length() && isSpace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int wordEnd(String text, int from) {
+        int i = from;
+        while (i < text.length() && !isSpace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Parses the targets of a command that names several tasks, such as
+     * {@code "delete 3,7,9-12"}, {@code "mark 1-500"} or {@code "mark find:assignment"}.
+     * <p>
+     * The argument is scanned in place from the words of the lexed command, without a
+     * regular expression, and numbers are read digit by digit. The argument is the
+     * text after the first word of the command, so {@code "markx 1,2"} names tasks 1
+     * and 2 as it always has. Empty items at the end of a list are ignored, as
+     * {@code String.split} ignores them.
+     *
+     * @param command The lexed user command.
+     * @return The targets, or {@code null} if the command names a single task.
+     * @throws FridayException If a number or range is malformed.
+     */
+    public TaskTargets parseTargets(ParsedCommand command) throws FridayException {
+        if (command == null) {
+            throw new FridayException("Input cannot be null.");
+        }
+        int firstWord = command.isKeywordSeparate() ? 0 : 1;
+        if (firstWord >= command.getWordCount()) {
+            return null;
+        }
+        String input = command.getInput();
+        int start = command.getWordStart(firstWord);
+        int end = command.getArgumentEnd();
+        if (input.startsWith(SEARCH_PREFIX, start)) {
+            int keywordStart = trimStart(input, start + SEARCH_PREFIX.length(), end);
+            if (keywordStart == end) {
+                throw new FridayException("Please provide a keyword after '" + SEARCH_PREFIX + "'.");
+            }
+            return TaskTargets.ofSearch(input.substring(keywordStart, end));
+        }
+        if (indexOf(input, LIST_SEPARATOR, start, end) == end && indexOf(input, RANGE_SEPARATOR, start, end) == end) {
+            return null;
+        }
+        while (end > start && input.charAt(end - 1) == LIST_SEPARATOR) {
+            end--;
+        }
+        List<int[]> ranges = new ArrayList<>();
+        int itemStart = start;
+        while (itemStart < end) {
+            int itemEnd = indexOf(input, LIST_SEPARATOR, itemStart, end);
+            ranges.add(scanRange(input, itemStart, itemEnd));
+            itemStart = itemEnd + 1;
+        }
+        return TaskTargets.ofRanges(ranges);
+    }
+
+    /** Reads an item of a target list, either a task number or a range such as {@code 9-12}. */
+    private static int[] scanRange(String input, int itemStart, int itemEnd) throws FridayException {
+        int start = trimStart(input, itemStart, itemEnd);
+        int end = trimEnd(input, start, itemEnd);
+        int separator = indexOf(input, RANGE_SEPARATOR, start, end);
+        if (separator < end && indexOf(input, RANGE_SEPARATOR, separator + 1, end) < end) {
+            throw new FridayException("Invalid range: " + input.substring(start, end));
+        }
+        int first = scanTaskNumber(input, start, separator);
+        int last = separator < end ? scanTaskNumber(input, separator + 1, end) : first;
+        if (first > last) {
+            throw new FridayException("Invalid range: " + input.substring(start, end) + " ends before it starts.");
+        }
+        return new int[] {first, last};
+    }
+
+    /** Reads a task number, with optional surrounding whitespace and a {@code +} sign. */
+    private static int scanTaskNumber(String input, int from, int to) throws FridayException {
+        int start = trimStart(input, from, to);
+        int end = trimEnd(input, start, to);
+        boolean isSigned = start < end && input.charAt(start) == '+';
+        long number = scanPositiveNumber(input, isSigned ? start + 1 : start, end, Integer.MAX_VALUE);
+        if (number < 0) {
+            throw new FridayException("Please specify task numbers like 3,7,9-12.");
+        }
+        if (number == 0) {
+            throw new FridayException("Task number must be a positive integer (1-based).");
+        }
+        return (int) number;
+    }
+
+    /** Returns the first position in the range past any whitespace, as {@code String.trim()} skips it. */
+    private static int trimStart(String text, int start, int end) {
+        int i = start;
+        while (i < end && text.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /** Returns the position just past the last character in the range that is not whitespace. */
+    private static int trimEnd(String text, int start, int end) {
+        int i = end;
+        while (i > start && text.charAt(i - 1) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    private static int indexOf(String text, char target, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == target) {
+                return i;
+            }
+        }
+        return end;
+    }
+
     /**
      * Parses a saved task line into a {@link Task}.
      * <p>
      * Expected format:
      * <pre>
-     * TYPE | DONE | DESCRIPTION [| EXTRA_FIELDS]
+     * TYPE | DONE | DESCRIPTION [| EXTRA_FIELDS] [| #ID]
      * </pre>
      * where TYPE can be {@code T}, {@code D}, or {@code E}.
-     * Unescapes delimiters in the description.
+     * Unescapes delimiters in the description. Lines saved before tasks had ids
+     * have no {@code #ID} field, and give tasks without an id.
      *
      * @param line A single line read from the save file.
      * @return The reconstructed {@code Task}.
@@ -54,43 +272,237 @@ public class Parser {
         if (line == null) {
             throw new FridayException("Input line cannot be null.");
         }
-        String trimmedLine = line.trim();
-        if (trimmedLine.isBlank()) {
+        return parseLineToTask(line, 0, line.length());
+    }
+
+    /**
+     * Parses a saved task line held in part of a longer text, such as a journal record,
+     * without copying the line first.
+     * <p>
+     * The line is scanned by hand rather than split with a regular expression, and
+     * dates and times in the usual {@code yyyy-MM-dd} and {@code HHmm} forms are read
+     * digit by digit. The result, including every error, is the same as trimming the
+     * line, splitting it at each {@code " | "} and unescaping {@code " \| "} in the
+     * description, after dropping the backslash {@link Task} adds before a final
+     * {@code |}.
+     *
+     * @param text The text holding the line.
+     * @param from Index of the first character of the line.
+     * @param to   Index just past the last character of the line.
+     * @return The reconstructed {@code Task}.
+     * @throws FridayException If the line is empty, corrupted, or contains an unknown task type.
+     */
+    public Task parseLineToTask(CharSequence text, int from, int to) throws FridayException {
+        int start = from;
+        int end = to;
+        // Trimmed as String.trim() does.
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (isBlank(text, start, end)) {
             throw new FridayException("Save file contains an empty line.");
         }
-        String[] parts = trimmedLine.split(" \\| ");
-        if (parts.length < 3) {
+        int[] fieldStarts = new int[MAX_FIELDS];
+        int[] fieldEnds = new int[MAX_FIELDS];
+        int fieldCount = splitFields(text, start, end, fieldStarts, fieldEnds);
+        if (fieldCount < 3) {
             throw new FridayException("Corrupted save line: not enough fields.");
         }
-        String type = parts[0];
-        if (!(type.equals("T") || type.equals("D") || type.equals("E"))) {
-            throw new FridayException("Unknown task type: " + type);
+        char type = fieldEnds[0] - fieldStarts[0] == 1 ? text.charAt(fieldStarts[0]) : '?';
+        if (type != 'T' && type != 'D' && type != 'E') {
+            throw new FridayException("Unknown task type: " + field(text, fieldStarts, fieldEnds, 0));
         }
-        boolean isDone = parts[1].equals("1");
-        String description = parts[2].replace(" \\| ", " | ");
+        boolean isDone = fieldEnds[1] - fieldStarts[1] == 1 && text.charAt(fieldStarts[1]) == '1';
+        String description = unescape(text, fieldStarts[2], fieldEnds[2]);
         if (description.isBlank()) {
             throw new FridayException("Task description must not be blank.");
         }
         Task task;
-        if (type.equals("T")) {
+        if (type == 'T') {
             task = new ToDo(description);
-        } else if (type.equals("D")) {
-            if (parts.length < 4) {
+        } else if (type == 'D') {
+            if (fieldCount < DEADLINE_FIELDS) {
                 throw new FridayException("Corrupted deadline line: missing date.");
             }
-            task = new Deadline(description, parts[3]);
+            LocalDate date = scanDate(text, fieldStarts[3], fieldEnds[3]);
+            task = date != null
+                    ? new Deadline(description, date)
+                    : new Deadline(description, field(text, fieldStarts, fieldEnds, 3));
         } else {
-            if (parts.length < 6) {
+            if (fieldCount < EVENT_FIELDS) {
                 throw new FridayException("Corrupted event line: missing fields.");
             }
-            String date = parts[3];
-            String start = parts[4];
-            String end = parts[5];
-            task = new Event(description, date, start, end);
+            LocalDate date = scanDate(text, fieldStarts[3], fieldEnds[3]);
+            LocalTime startTime = scanTime(text, fieldStarts[4], fieldEnds[4]);
+            LocalTime endTime = scanTime(text, fieldStarts[5], fieldEnds[5]);
+            task = date != null && startTime != null && endTime != null
+                    ? new Event(description, date, startTime, endTime)
+                    : new Event(description, field(text, fieldStarts, fieldEnds, 3),
+                            field(text, fieldStarts, fieldEnds, 4), field(text, fieldStarts, fieldEnds, 5));
         }
         if (isDone) {
             task.mark();
         }
+        int idField = type == 'T' ? TODO_FIELDS : type == 'D' ? DEADLINE_FIELDS : EVENT_FIELDS;
+        if (fieldCount > idField && fieldEnds[idField] > fieldStarts[idField]
+                && text.charAt(fieldStarts[idField]) == ID_PREFIX.charAt(0)) {
+            task.assignId(parseSavedId(text, fieldStarts[idField], fieldEnds[idField]));
+        }
         return task;
     }
+
+    private static boolean isBlank(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the fields of a trimmed line, splitting it at each delimiter from left to
+     * right as {@code String.split(" \\| ")} does. Only the first {@code MAX_FIELDS}
+     * fields are found; the last of them ends at the next delimiter.
+     *
+     * @return The number of fields found.
+     */
+    private static int splitFields(CharSequence text, int start, int end, int[] fieldStarts, int[] fieldEnds) {
+        int count = 0;
+        int fieldStart = start;
+        while (count < MAX_FIELDS) {
+            int fieldEnd = indexOf(text, SAVE_DELIMITER, fieldStart, end);
+            fieldStarts[count] = fieldStart;
+            fieldEnds[count] = fieldEnd;
+            count++;
+            if (fieldEnd == end) {
+                break;
+            }
+            fieldStart = fieldEnd + SAVE_DELIMITER.length();
+        }
+        return count;
+    }
+
+    /** Returns the index of the first occurrence of {@code target} in the range, or {@code end}. */
+    private static int indexOf(CharSequence text, String target, int from, int end) {
+        int last = end - target.length();
+        for (int i = from; i <= last; i++) {
+            if (regionMatches(text, i, target)) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static boolean regionMatches(CharSequence text, int offset, String target) {
+        for (int i = 0; i < target.length(); i++) {
+            if (text.charAt(offset + i) != target.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String field(CharSequence text, int[] fieldStarts, int[] fieldEnds, int field) {
+        return text.subSequence(fieldStarts[field], fieldEnds[field]).toString();
+    }
+
+    /**
+     * Returns the description in the range with each escaped delimiter replaced,
+     * from left to right, as {@code String.replace(" \\| ", " | ")} does. A description
+     * ending in a space, backslashes and {@code |} first loses one of those backslashes,
+     * which was added so the {@code |} could not end a field early.
+     */
+    private static String unescape(CharSequence text, int start, int end) {
+        int last = end - 1;
+        int beforeEscapes = last - 1;
+        while (beforeEscapes > start && text.charAt(beforeEscapes) == '\\') {
+            beforeEscapes--;
+        }
+        if (beforeEscapes < last - 1 && text.charAt(last) == '|' && text.charAt(beforeEscapes) == ' ') {
+            CharSequence trimmed = new StringBuilder(end - start - 1).append(text, start, last - 1).append('|');
+            return replaceEscapedDelimiters(trimmed, 0, trimmed.length());
+        }
+        return replaceEscapedDelimiters(text, start, end);
+    }
+
+    private static String replaceEscapedDelimiters(CharSequence text, int start, int end) {
+        int escape = indexOf(text, ESCAPED_DELIMITER, start, end);
+        if (escape == end) {
+            return text.subSequence(start, end).toString();
+        }
+        StringBuilder description = new StringBuilder(end - start);
+        int copied = start;
+        while (escape < end) {
+            description.append(text, copied, escape).append(SAVE_DELIMITER);
+            copied = escape + ESCAPED_DELIMITER.length();
+            escape = indexOf(text, ESCAPED_DELIMITER, copied, end);
+        }
+        return description.append(text, copied, end).toString();
+    }
+
+    /**
+     * Reads a date in the {@code yyyy-MM-dd} form from its digits.
+     *
+     * @return The date, or {@code null} if the field is not a valid date in that form.
+     *         The caller then leaves the field to {@code DateTimeFormatter}, which
+     *         reports the error or accepts the rarer forms, such as years after 9999.
+     */
+    private static LocalDate scanDate(CharSequence text, int start, int end) {
+        if (end - start != DATE_LENGTH || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+            return null;
+        }
+        int year = (int) scanPositiveNumber(text, start, start + 4, Integer.MAX_VALUE);
+        int month = (int) scanPositiveNumber(text, start + 5, start + 7, Integer.MAX_VALUE);
+        int day = (int) scanPositiveNumber(text, start + 8, end, Integer.MAX_VALUE);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Reads a time in the {@code HHmm} form from its digits.
+     *
+     * @return The time, or {@code null} if the field is not a valid time in that form.
+     */
+    private static LocalTime scanTime(CharSequence text, int start, int end) {
+        if (end - start != TIME_LENGTH) {
+            return null;
+        }
+        int hour = (int) scanPositiveNumber(text, start, start + 2, Integer.MAX_VALUE);
+        int minute = (int) scanPositiveNumber(text, start + 2, end, Integer.MAX_VALUE);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return null;
+        }
+        return LocalTime.of(hour, minute);
+    }
+
+    private static long parseSavedId(CharSequence text, int start, int end) throws FridayException {
+        int digitsStart = start + ID_PREFIX.length();
+        if (digitsStart < end && text.charAt(digitsStart) == '+') {
+            digitsStart++;
+        }
+        long id = scanPositiveNumber(text, digitsStart, end, Long.MAX_VALUE);
+        if (id > 0) {
+            return id;
+        }
+        // Long.parseLong also accepts digits from other scripts.
+        return parseSavedId(text.subSequence(start, end).toString());
+    }
+
+    private static long parseSavedId(String field) throws FridayException {
+        try {
+            long id = Long.parseLong(field.substring(ID_PREFIX.length()));
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new FridayException("Corrupted save line: invalid task id " + field + ".");
+    }
 }
@@ -0,0 +1,59 @@
+package friday;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of task ordinals, sorted unless used as a scratch buffer.
+ */
+final class Postings {
+    long[] values = new long[1];
+    int size;
+
+    void append(long ordinal) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = ordinal;
+    }
+
+    boolean remove(long ordinal) {
+        int position = Arrays.binarySearch(values, 0, size, ordinal);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Returns the ordinals in both sorted arrays.
+     *
+     * @param a     The first array.
+     * @param b     The second array.
+     * @param bSize The number of ordinals used in the second array.
+     * @return The sorted common ordinals.
+     */
+    static long[] intersect(long[] a, long[] b, int bSize) {
+        long[] result = new long[Math.min(a.length, bSize)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < bSize) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,120 @@
+package friday;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Seals the task lines of a text snapshot with a CRC32C checksum.
+ * <p>
+ * A sealed line is the checksum of the UTF-8 bytes of the save string, written as
+ * eight lowercase hex digits, followed by a space and the save string:
+ * <pre>
+ * 1c291ca3 T | 0 | read book
+ * </pre>
+ * Lines written before checksums were introduced start with a one-letter task type
+ * followed by {@code " | "}, so they never look sealed and are accepted unchanged.
+ * CRC32C is computed with hardware support on most platforms, so verifying every
+ * line costs little more than reading it.
+ */
+public class RecordChecksum {
+    private static final int HEX_DIGITS = 8;
+    private static final int PREFIX_LENGTH = HEX_DIGITS + 1;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Returns the sealed line for the given save string.
+     *
+     * @param saveString The save string of a task.
+     * @return The line to write.
+     */
+    public static String seal(String saveString) {
+        byte[] payload = saveString.getBytes(StandardCharsets.UTF_8);
+        int crc = checksum(payload, 0, payload.length);
+        char[] prefix = new char[PREFIX_LENGTH];
+        for (int i = 0; i < HEX_DIGITS; i++) {
+            prefix[i] = HEX[(crc >>> (28 - 4 * i)) & 0xF];
+        }
+        prefix[HEX_DIGITS] = ' ';
+        return new String(prefix) + saveString;
+    }
+
+    /**
+     * Returns the save string of a line read from a text snapshot, verifying its
+     * checksum if it has one.
+     *
+     * @param line The line without its line terminator.
+     * @return The save string.
+     * @throws FridayException If the checksum does not match.
+     */
+    public static String unseal(String line) throws FridayException {
+        if (!isSealed(line)) {
+            return line;
+        }
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return unseal(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Returns the save string of a line given as raw UTF-8 bytes, verifying its
+     * checksum if it has one. Only the save string is decoded.
+     *
+     * @param bytes The buffer holding the line.
+     * @param from  Index of the first byte of the line.
+     * @param to    Index just past the last byte of the line, excluding the terminator.
+     * @return The save string.
+     * @throws FridayException If the checksum does not match.
+     */
+    public static String unseal(byte[] bytes, int from, int to) throws FridayException {
+        if (!hasPrefix(bytes, from, to)) {
+            return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        }
+        int expected = 0;
+        for (int i = 0; i < HEX_DIGITS; i++) {
+            expected = (expected << 4) | hexValue((char) bytes[from + i]);
+        }
+        int payloadStart = from + PREFIX_LENGTH;
+        if (checksum(bytes, payloadStart, to - payloadStart) != expected) {
+            throw new FridayException("Checksum mismatch.");
+        }
+        return new String(bytes, payloadStart, to - payloadStart, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isSealed(String line) {
+        if (line.length() < PREFIX_LENGTH || line.charAt(HEX_DIGITS) != ' ') {
+            return false;
+        }
+        for (int i = 0; i < HEX_DIGITS; i++) {
+            if (hexValue(line.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasPrefix(byte[] bytes, int from, int to) {
+        if (to - from < PREFIX_LENGTH || bytes[from + HEX_DIGITS] != ' ') {
+            return false;
+        }
+        for (int i = 0; i < HEX_DIGITS; i++) {
+            if (hexValue((char) bytes[from + i]) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
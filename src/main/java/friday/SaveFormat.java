@@ -0,0 +1,29 @@
+package friday;
+
+/**
+ * The on-disk format of the task list written by {@link Storage}.
+ */
+public enum SaveFormat {
+    /** Human-readable {@code TYPE | DONE | DESCRIPTION [| EXTRA_FIELDS]} lines. */
+    TEXT,
+    /** Compact versioned binary records, see {@link BinaryTaskCodec}. */
+    BINARY,
+    /** One text file per month of task dates, see {@link SegmentedTaskList}. */
+    SEGMENTED;
+
+    /**
+     * Returns the format with the given name, ignoring case.
+     *
+     * @param name The format name, e.g. {@code binary}.
+     * @return The matching {@code SaveFormat}.
+     * @throws FridayException If no format has the given name.
+     */
+    public static SaveFormat fromString(String name) throws FridayException {
+        for (SaveFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name.trim())) {
+                return format;
+            }
+        }
+        throw new FridayException("Unknown save format: " + name);
+    }
+}
@@ -0,0 +1,450 @@
+package friday;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A list of tasks partitioned into per-month segments.
+ * <p>
+ * Each {@link Deadline} and {@link Event} belongs to the segment of the month of its
+ * {@code getDate()}, and every {@link ToDo} belongs to a single undated segment. On
+ * disk, each segment is a text file in one directory, named {@code yyyy-MM.txt} or
+ * {@code undated.txt}, holding one line per task:
+ * <pre>
+ * ORDINAL | TASK_SAVE_STRING
+ * </pre>
+ * The ordinal is assigned when a task is added and never changes, so the list order
+ * can be rebuilt from all segments while adding, marking or deleting a task only
+ * changes the file of its own segment. The list remembers which segments changed
+ * since they were last drained with {@link #drainDirtySegments()}.
+ * <p>
+ * Tasks are held in list order, which is also ordinal order, and each segment keeps
+ * the sorted ordinals of its own tasks. Draining a segment or answering a date range
+ * therefore only visits the tasks of the segments involved, each found by a binary
+ * search over the ordinals.
+ * <p>
+ * The id the next new task will get is kept in a file {@code next-id} beside the
+ * segments, so that the ids of deleted tasks are not handed out again after a
+ * restart. It is drained along with the segments whenever it grows.
+ * <p>
+ * Segments older than a chosen month are read on load but their tasks are parsed
+ * only on first access. A task that turns out to be corrupted is reported as an
+ * {@link IllegalStateException} whose cause is the {@link FridayException}.
+ */
+public class SegmentedTaskList extends AbstractList<Task> implements RandomAccess {
+    /** Segment key of the undated segment; month segments use {@link #keyOf(YearMonth)}. */
+    public static final int UNDATED = Integer.MIN_VALUE;
+    /** Passed to {@link #load(Path, Parser, int)} to parse every segment eagerly. */
+    public static final int ALL_SEGMENTS = Integer.MIN_VALUE + 1;
+
+    private static final String DELIMITER = " | ";
+    private static final String FILE_SUFFIX = ".txt";
+    private static final String UNDATED_NAME = "undated";
+    /** Holds the next task id; it lacks the segment suffix, so loading skips it. */
+    private static final String NEXT_ID_NAME = "next-id";
+    private static final int MONTHS_PER_YEAR = 12;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Parser parser;
+    private final Set<Integer> dirtySegments = new HashSet<>();
+    /** Ordinals of the tasks in each segment, ascending. */
+    private final TreeMap<Integer, Postings> segmentOrdinals = new TreeMap<>();
+
+    private long[] ordinals;
+    private int[] segmentKeys;
+    private Task[] tasks;
+    /** Save strings of tasks that have not been parsed yet; {@code null} once parsed. */
+    private String[] unparsed;
+    private int size;
+    private long nextOrdinal = 1;
+    private long nextId = 1;
+    private boolean isNextIdDirty;
+
+    private SegmentedTaskList(Parser parser, int capacity) {
+        this.parser = parser;
+        this.ordinals = new long[capacity];
+        this.segmentKeys = new int[capacity];
+        this.tasks = new Task[capacity];
+        this.unparsed = new String[capacity];
+    }
+
+    /**
+     * Returns an empty list.
+     *
+     * @param parser The {@code Parser} used to materialize tasks on demand.
+     * @return The empty list.
+     */
+    public static SegmentedTaskList empty(Parser parser) {
+        return new SegmentedTaskList(parser, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns a list holding the given tasks in order, with every segment marked as changed.
+     *
+     * @param source The tasks to partition.
+     * @param parser The {@code Parser} used to materialize tasks on demand.
+     * @return The partitioned list.
+     */
+    public static SegmentedTaskList of(Iterable<Task> source, Parser parser) {
+        SegmentedTaskList segmented = empty(parser);
+        for (Task task : source) {
+            segmented.add(task);
+        }
+        return segmented;
+    }
+
+    /**
+     * Reads every segment file in the given directory.
+     *
+     * @param directory    The segment directory.
+     * @param parser       The {@code Parser} used for each line.
+     * @param eagerFromKey Segments with a smaller key are parsed on first access;
+     *                     the undated segment is always parsed eagerly.
+     * @return The list with the tasks of all segments in their original order.
+     * @throws FridayException If a segment cannot be read or an eagerly parsed line is corrupted.
+     */
+    public static SegmentedTaskList load(Path directory, Parser parser, int eagerFromKey) throws FridayException {
+        SegmentedTaskList loaded = empty(parser);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                loaded.readSegment(file, eagerFromKey);
+            }
+        } catch (IOException e) {
+            throw new FridayException("Error loading tasks from '" + directory + "': " + e.getMessage());
+        }
+        loaded.sortByOrdinal();
+        loaded.readNextId(directory.resolve(NEXT_ID_NAME));
+        return loaded;
+    }
+
+    private void readNextId(Path file) throws FridayException {
+        if (Files.notExists(file)) {
+            return;
+        }
+        String line;
+        try {
+            line = Files.readString(file).trim();
+        } catch (IOException e) {
+            throw new FridayException("Error loading tasks from '" + file + "': " + e.getMessage());
+        }
+        long stored = Parser.scanPositiveNumber(line, 0, line.length(), Long.MAX_VALUE);
+        if (stored < 0) {
+            throw new FridayException("Corrupted segment '" + NEXT_ID_NAME + "': invalid task id.");
+        }
+        nextId = Math.max(nextId, stored);
+    }
+
+    private void readSegment(Path file, int eagerFromKey) throws FridayException, IOException {
+        int key = keyOf(file);
+        boolean isEager = key == UNDATED || key >= eagerFromKey;
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file)) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                int split = line.indexOf(DELIMITER);
+                if (split < 0) {
+                    throw new FridayException("Missing task ordinal.");
+                }
+                long ordinal = Long.parseLong(line.substring(0, split));
+                String saveString = line.substring(split + DELIMITER.length());
+                Task task = isEager ? parser.parseLineToTask(saveString) : null;
+                append(ordinal, key, task, isEager ? null : saveString);
+            } catch (NumberFormatException e) {
+                throw new FridayException("Corrupted segment '" + file.getFileName() + "' at line " + lineNumber
+                        + ": invalid task ordinal.");
+            } catch (FridayException e) {
+                throw new FridayException("Corrupted segment '" + file.getFileName() + "' at line " + lineNumber
+                        + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void sortByOrdinal() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(ordinals[a], ordinals[b]));
+        for (Postings segment : segmentOrdinals.values()) {
+            Arrays.sort(segment.values, 0, segment.size);
+        }
+        long[] sortedOrdinals = new long[ordinals.length];
+        int[] sortedKeys = new int[ordinals.length];
+        Task[] sortedTasks = new Task[ordinals.length];
+        String[] sortedUnparsed = new String[ordinals.length];
+        for (int i = 0; i < size; i++) {
+            sortedOrdinals[i] = ordinals[order[i]];
+            sortedKeys[i] = segmentKeys[order[i]];
+            sortedTasks[i] = tasks[order[i]];
+            sortedUnparsed[i] = unparsed[order[i]];
+        }
+        ordinals = sortedOrdinals;
+        segmentKeys = sortedKeys;
+        tasks = sortedTasks;
+        unparsed = sortedUnparsed;
+    }
+
+    /**
+     * Returns the segment key of the given month.
+     *
+     * @param month The month.
+     * @return A key that orders months chronologically.
+     */
+    public static int keyOf(YearMonth month) {
+        return month.getYear() * MONTHS_PER_YEAR + month.getMonthValue() - 1;
+    }
+
+    /**
+     * Returns the key of the segment the given task belongs to.
+     *
+     * @param task The task.
+     * @return The month key of its date, or {@link #UNDATED}.
+     */
+    public static int keyOf(Task task) {
+        if (task instanceof Deadline d) {
+            return keyOf(YearMonth.from(d.getDate()));
+        } else if (task instanceof Event e) {
+            return keyOf(YearMonth.from(e.getDate()));
+        }
+        return UNDATED;
+    }
+
+    private static int keyOf(Path file) throws FridayException {
+        String name = file.getFileName().toString();
+        String stem = name.substring(0, name.length() - FILE_SUFFIX.length());
+        if (stem.equals(UNDATED_NAME)) {
+            return UNDATED;
+        }
+        try {
+            return keyOf(YearMonth.parse(stem));
+        } catch (DateTimeParseException e) {
+            throw new FridayException("Unexpected segment file '" + name + "'.");
+        }
+    }
+
+    /**
+     * Returns the file name of the segment with the given key.
+     *
+     * @param key The segment key.
+     * @return The file name, such as {@code 2026-02.txt}.
+     */
+    public static String fileName(int key) {
+        if (key == UNDATED) {
+            return UNDATED_NAME + FILE_SUFFIX;
+        }
+        YearMonth month = YearMonth.of(Math.floorDiv(key, MONTHS_PER_YEAR), Math.floorMod(key, MONTHS_PER_YEAR) + 1);
+        return month + FILE_SUFFIX;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the task at the given index, parsing it on first access.
+     *
+     * @param index The 0-based index of the task.
+     * @return The task.
+     */
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        if (tasks[index] == null) {
+            try {
+                tasks[index] = parser.parseLineToTask(unparsed[index]);
+            } catch (FridayException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            unparsed[index] = null;
+        }
+        return tasks[index];
+    }
+
+    /**
+     * Replaces the task at the given index with one of the same segment, such as a
+     * copy of it marked as done. Use {@link #touch(int)} to have the segment saved.
+     *
+     * @param index The 0-based index of the task.
+     * @param task  The new task.
+     * @return The task that was there.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = get(index);
+        tasks[index] = task;
+        return previous;
+    }
+
+    @Override
+    public boolean add(Task task) {
+        int key = keyOf(task);
+        append(nextOrdinal, key, task, null);
+        dirtySegments.add(key);
+        reserveIdsBelow(task.getId() + 1);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns the id the next new task will get, as far as this list knows: one more
+     * than the largest id it ever held, or the value read from {@code next-id}.
+     *
+     * @return The next id.
+     */
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Makes sure the next id saved is at least the given value, as when the list is
+     * built from one whose last tasks were deleted.
+     *
+     * @param minNextId The smallest id the next added task may get.
+     */
+    public void reserveIdsBelow(long minNextId) {
+        if (minNextId > nextId) {
+            nextId = minNextId;
+            isNextIdDirty = true;
+        }
+    }
+
+    private void append(long ordinal, int key, Task task, String saveString) {
+        if (size == ordinals.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            segmentKeys = Arrays.copyOf(segmentKeys, capacity);
+            tasks = Arrays.copyOf(tasks, capacity);
+            unparsed = Arrays.copyOf(unparsed, capacity);
+        }
+        ordinals[size] = ordinal;
+        segmentKeys[size] = key;
+        tasks[size] = task;
+        unparsed[size] = saveString;
+        size++;
+        nextOrdinal = Math.max(nextOrdinal, ordinal + 1);
+        segmentOrdinals.computeIfAbsent(key, k -> new Postings()).append(ordinal);
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        dirtySegments.add(segmentKeys[index]);
+        segmentOrdinals.get(segmentKeys[index]).remove(ordinals[index]);
+        int moved = size - index - 1;
+        System.arraycopy(ordinals, index + 1, ordinals, index, moved);
+        System.arraycopy(segmentKeys, index + 1, segmentKeys, index, moved);
+        System.arraycopy(tasks, index + 1, tasks, index, moved);
+        System.arraycopy(unparsed, index + 1, unparsed, index, moved);
+        size--;
+        tasks[size] = null;
+        unparsed[size] = null;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Records that the task at the given index changed in place, e.g. was marked.
+     *
+     * @param index The 0-based index of the task.
+     */
+    public void touch(int index) {
+        checkIndex(index);
+        dirtySegments.add(segmentKeys[index]);
+    }
+
+    /**
+     * Records that every segment changed, so the next drain returns all of them.
+     */
+    public void touchAll() {
+        dirtySegments.addAll(segmentOrdinals.keySet());
+    }
+
+    /**
+     * Returns the current lines of every segment that changed since the last call,
+     * keyed by file name, and forgets the changes. A segment that became empty maps
+     * to an empty list. If the next id grew, the {@code next-id} file comes first, so
+     * it is written before any segment holding a task with a new id.
+     *
+     * @return The changed segments.
+     */
+    public Map<String, List<String>> drainDirtySegments() {
+        Map<String, List<String>> segments = new LinkedHashMap<>();
+        if (isNextIdDirty) {
+            segments.put(NEXT_ID_NAME, List.of(Long.toString(nextId)));
+            isNextIdDirty = false;
+        }
+        for (int key : dirtySegments) {
+            Postings segment = segmentOrdinals.get(key);
+            List<String> lines = new ArrayList<>(segment == null ? 0 : segment.size);
+            for (int j = 0; segment != null && j < segment.size; j++) {
+                int i = positionOf(segment.values[j]);
+                String saveString = tasks[i] != null ? tasks[i].getSaveString() : unparsed[i];
+                lines.add(ordinals[i] + DELIMITER + saveString);
+            }
+            if (segment != null && segment.size == 0) {
+                segmentOrdinals.remove(key);
+            }
+            segments.put(fileName(key), lines);
+        }
+        dirtySegments.clear();
+        return segments;
+    }
+
+    /**
+     * Returns the dated tasks whose segments overlap the given date range, in list order.
+     * Tasks in other segments are neither returned nor parsed.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return The tasks of the overlapping segments.
+     */
+    public List<Task> getTasksInSegments(LocalDate from, LocalDate to) {
+        int fromKey = keyOf(YearMonth.from(from));
+        int toKey = keyOf(YearMonth.from(to));
+        if (fromKey > toKey) {
+            return new ArrayList<>();
+        }
+        Postings positions = new Postings();
+        for (Postings segment : segmentOrdinals.subMap(fromKey, true, toKey, true).values()) {
+            for (int j = 0; j < segment.size; j++) {
+                positions.append(positionOf(segment.values[j]));
+            }
+        }
+        Arrays.sort(positions.values, 0, positions.size);
+        List<Task> candidates = new ArrayList<>(positions.size);
+        for (int j = 0; j < positions.size; j++) {
+            candidates.add(get((int) positions.values[j]));
+        }
+        return candidates;
+    }
+
+    /** Returns the position of the task with the given ordinal, which must be in the list. */
+    private int positionOf(long ordinal) {
+        return Arrays.binarySearch(ordinals, 0, size, ordinal);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package friday;
+
+/**
+ * Metadata written at the start of every snapshot.
+ * <p>
+ * {@code seq} is the sequence number of the last journal record folded into the
+ * snapshot, so recovery only replays records after it. {@code count} is the number
+ * of tasks that follow, used to tell a complete snapshot from a torn one.
+ * {@code next} is the id the next new task will get, so that the ids of tasks deleted
+ * from the end of the list are not handed out again.
+ * In a text snapshot the header is the first line:
+ * <pre>
+ * # snapshot seq=SEQ count=COUNT next=NEXT
+ * </pre>
+ * Snapshots written before headers were introduced have none and are treated as
+ * {@code seq=0} with an unknown count; those written before task ids have no
+ * {@code next}.
+ */
+public class SnapshotHeader {
+    /** Every text header line starts with this prefix; task lines never do. */
+    public static final String TEXT_PREFIX = "# snapshot";
+
+    /** Next id of a header that does not record one. */
+    public static final long UNKNOWN_NEXT_ID = 0;
+
+    private static final long UNKNOWN_COUNT = -1;
+
+    private final long seq;
+    private final long count;
+    private final long nextId;
+
+    /**
+     * Constructs a {@code SnapshotHeader}.
+     *
+     * @param seq   Sequence number of the last journal record in the snapshot.
+     * @param count Number of tasks in the snapshot, or -1 if unknown.
+     */
+    public SnapshotHeader(long seq, long count) {
+        this(seq, count, UNKNOWN_NEXT_ID);
+    }
+
+    /**
+     * Constructs a {@code SnapshotHeader} that records the next task id.
+     *
+     * @param seq    Sequence number of the last journal record in the snapshot.
+     * @param count  Number of tasks in the snapshot, or -1 if unknown.
+     * @param nextId The id the next new task will get, or {@link #UNKNOWN_NEXT_ID}.
+     */
+    public SnapshotHeader(long seq, long count, long nextId) {
+        this.seq = seq;
+        this.count = count;
+        this.nextId = nextId;
+    }
+
+    /**
+     * Returns the header assumed for snapshots that have none.
+     *
+     * @return A header with {@code seq=0} and an unknown count.
+     */
+    public static SnapshotHeader legacy() {
+        return new SnapshotHeader(0, UNKNOWN_COUNT);
+    }
+
+    /**
+     * Returns whether the given line of a text snapshot is a header line.
+     *
+     * @param line A line from a text snapshot.
+     * @return {@code true} if the line is a header.
+     */
+    public static boolean isHeader(String line) {
+        return line.startsWith(TEXT_PREFIX);
+    }
+
+    /**
+     * Parses a text header line.
+     *
+     * @param line The first line of a text snapshot.
+     * @return The parsed header.
+     * @throws FridayException If the line is not a well-formed header.
+     */
+    public static SnapshotHeader parse(String line) throws FridayException {
+        long seq = -1;
+        long count = -1;
+        long nextId = UNKNOWN_NEXT_ID;
+        for (String field : line.substring(TEXT_PREFIX.length()).trim().split(" ")) {
+            int equals = field.indexOf('=');
+            if (equals < 0) {
+                continue;
+            }
+            try {
+                long value = Long.parseLong(field.substring(equals + 1));
+                switch (field.substring(0, equals)) {
+                case "seq":
+                    seq = value;
+                    break;
+                case "count":
+                    count = value;
+                    break;
+                case "next":
+                    nextId = value;
+                    break;
+                default:
+                    // Unknown fields are ignored so that newer headers stay readable.
+                    break;
+                }
+            } catch (NumberFormatException e) {
+                throw new FridayException("Corrupted snapshot header: " + line);
+            }
+        }
+        if (seq < 0 || count < 0) {
+            throw new FridayException("Corrupted snapshot header: " + line);
+        }
+        return new SnapshotHeader(seq, count, nextId);
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Returns how many of the tasks promised by this header were not found, as when
+     * the end of a snapshot was lost.
+     *
+     * @param found The number of task lines that were read, including corrupted ones.
+     * @return The number of missing tasks, or 0 if the count is unknown or was met.
+     */
+    public long countMissing(long found) {
+        return count == UNKNOWN_COUNT ? 0 : Math.max(0, count - found);
+    }
+
+    /**
+     * Returns the header as the first line of a text snapshot.
+     *
+     * @return The header line.
+     */
+    @Override
+    public String toString() {
+        return TEXT_PREFIX + " seq=" + seq + " count=" + count + " next=" + nextId;
+    }
+}
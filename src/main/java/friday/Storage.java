@@ -1,47 +1,176 @@
 package friday;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handles loading tasks from and saving tasks to persistent storage.
  * Tasks are stored as plain text in a file and reconstructed using a {@link Parser}.
+ * <p>
+ * The save file holds the last full snapshot of the task list. Individual mutations
+ * are appended to a {@link Journal} next to it and replayed on load, so persisting a
+ * single change does not require rewriting the whole file.
+ * <p>
+ * Every journal record carries a sequence number, and every snapshot starts with a
+ * {@link SnapshotHeader} naming the last record it contains. Once enough records have
+ * accumulated, {@link #compactIfNeeded(TaskList)} takes a new snapshot in the
+ * background: the journal is rotated aside, a copy of the list is written to a
+ * temporary file, forced to disk and atomically renamed over the old snapshot, and
+ * only then is the rotated journal deleted. A crash at any point leaves either the
+ * old snapshot with every record after it, or the new one, so recovery never needs
+ * the temporary file and simply deletes it.
+ * <p>
+ * Every task line of a text snapshot carries a {@link RecordChecksum}, so a load can
+ * keep the intact lines of a damaged snapshot and quarantine the rest.
+ * <p>
+ * Snapshots are written in the {@link SaveFormat} chosen in {@link StorageConfig}:
+ * text goes to {@code Friday.txt} and binary to {@code Friday.bin}. If only the other
+ * format's file exists, it is loaded and migrated to the chosen format, and the old
+ * file is kept with a {@code .bak} suffix.
+ * <p>
+ * The segmented format replaces the snapshot and journal with one file per month in
+ * {@code Friday.segments} (see {@link SegmentedTaskList}). Every mutation rewrites
+ * only the segment files it changed, each atomically through a temporary file, and a
+ * {@code remind} query only looks at the segments that overlap its window. An existing
+ * snapshot and journal are migrated into segments on the first load.
+ * <p>
+ * With lazy loading enabled, a text snapshot is memory-mapped instead of read into
+ * memory, and tasks are only parsed when first accessed (see {@link LazyTaskList}).
+ * Its journal is compacted like any other; the list keeps reading the lines it has
+ * not parsed from the mapping of the snapshot it was loaded from, which stays valid
+ * after a new snapshot is renamed over it.
+ * Otherwise, large text snapshots are parsed in parallel (see {@link ParallelTaskLoader}).
+ * <p>
+ * As a {@link TaskStore}, point operations map onto journal records, while date
+ * scans and iterations read the whole stored list.
+ * <p>
+ * All writes go through a {@link WriteBehindQueue}, so callers do not block on disk.
+ * Call {@link #flush()} or {@link #close()} to make sure pending writes have completed.
  */
-public class Storage {
+public class Storage implements TaskStore {
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String BINARY_SUFFIX = ".bin";
+    private static final String BACKUP_SUFFIX = ".bak";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final boolean IS_WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+    private static final String SEGMENTS_SUFFIX = ".segments";
+    private static final String QUARANTINE_SUFFIX = ".quarantine.txt";
+
     private final Path filePath;
+    private final Path binaryPath;
+    private final Path segmentDirectory;
+    private final Path quarantinePath;
+    private final SaveFormat saveFormat;
+    private final boolean isLazyLoading;
+    private final boolean isParallelLoading;
+    private final boolean isColumnar;
+    private final long compactionThreshold;
+    private final int recentSegmentMonths;
+    private final DurabilityPolicy durabilityPolicy;
+    private final Journal journal;
+    private final WriteBehindQueue writeQueue;
+    private final ExecutorService compactor;
+    /** Guards rotating the journal against deleting a rotated journal that is still needed. */
+    private final Object rotationLock = new Object();
+
+    /** Number of rotations so far; only the snapshot of the latest one may delete the rotated journal. */
+    private long rotations = 0;
+    private long nextSeq = 1;
+    private long recordsSinceSnapshot = 0;
+    /** Number of tasks in the stored list, used to tell additions from replacements in {@link #put}. */
+    private int storedSize = 0;
+    private volatile Future<?> pendingCompaction;
+    private volatile FridayException compactionFailure;
+    /** The loaded list when using {@link SaveFormat#SEGMENTED}, otherwise {@code null}. */
+    private SegmentedTaskList segments;
+    private LoadReport loadReport = new LoadReport();
 
     /**
      * Constructs a {@code Storage} object and initialises the file path
-     * used to store task data.
+     * used to store task data. Settings are read from system properties.
      */
     public Storage() {
         // This represents ./data/Friday.txt
-        this.filePath = Paths.get("data", "Friday.txt");
+        this(Paths.get("data", "Friday.txt"), StorageConfig.fromSystemProperties());
     }
 
     /**
-     * Loads raw lines from the save file.
+     * Constructs a {@code Storage} object that stores task data at the given path
+     * using the default settings.
      *
-     * @return An unmodifiable list of raw strings read from the save file.
-     * @throws FridayException If an I/O error occurs while reading the file.
+     * @param filePath Path of the snapshot file. The journal is kept alongside it.
      */
-    public List<String> load() throws FridayException {
-        try {
-            if (Files.notExists(filePath)) {
-                return java.util.Collections.emptyList();
-            }
-            return java.util.Collections.unmodifiableList(Files.readAllLines(filePath));
-        } catch (IOException e) {
-            throw new FridayException("Error loading tasks from '" + filePath + "': " + e.getMessage());
-        }
+    public Storage(Path filePath) {
+        this(filePath, new StorageConfig());
     }
 
     /**
-     * Saves raw lines to the save file.
+     * Constructs a {@code Storage} object that stores task data at the given path.
+     *
+     * @param filePath Path of the text snapshot file. The binary snapshot and
+     *                 the journal are kept alongside it.
+     * @param config   The batching, durability, format and compaction settings.
+     */
+    public Storage(Path filePath, StorageConfig config) {
+        this.filePath = filePath;
+        this.binaryPath = siblingWithSuffix(filePath, BINARY_SUFFIX);
+        this.segmentDirectory = siblingWithSuffix(filePath, SEGMENTS_SUFFIX);
+        this.quarantinePath = siblingWithSuffix(filePath, QUARANTINE_SUFFIX);
+        this.saveFormat = config.getSaveFormat();
+        this.isLazyLoading = config.isLazyLoading();
+        this.isParallelLoading = config.isParallelLoading();
+        this.isColumnar = config.isColumnar();
+        this.compactionThreshold = config.getCompactionThreshold();
+        this.recentSegmentMonths = config.getRecentSegmentMonths();
+        this.durabilityPolicy = config.getDurabilityPolicy();
+        this.journal = new Journal(siblingWithSuffix(filePath, JOURNAL_SUFFIX));
+        this.writeQueue = new WriteBehindQueue(journal, config);
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "friday-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static Path siblingWithSuffix(Path filePath, String suffix) {
+        String fileName = filePath.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return filePath.resolveSibling(baseName + suffix);
+    }
+
+    private static Path tempPath(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + TEMP_SUFFIX);
+    }
+
+    private Path snapshotPath(SaveFormat format) {
+        return format == SaveFormat.BINARY ? binaryPath : filePath;
+    }
+
+    /**
+     * Saves raw lines to the save file. The lines are written to a temporary file
+     * that then replaces the save file atomically, so a crash never leaves it torn.
      *
      * @param lines The list of strings to be written to the save file.
      * @throws FridayException If an I/O error occurs while writing to the file.
@@ -50,8 +179,7 @@ public class Storage {
         try {
             // Create ./data folder if missing
             Files.createDirectories(filePath.getParent());
-            // Create duke.txt if missing, then write
-            Files.write(filePath, lines);
+            writeAtomically(filePath, lines);
         } catch (IOException e) {
             throw new FridayException("Error saving tasks to '" + filePath + "': " + e.getMessage());
         }
@@ -59,34 +187,647 @@ public class Storage {
 
     /**
      * Loads all tasks from storage and reconstructs them into a {@link TaskList}.
-     * Each line in the save file is parsed using the provided {@link Parser}.
+     * The snapshot is read in its save format (text lines are parsed using the
+     * provided {@link Parser}), then the journal records after its header's sequence
+     * number are replayed on top. If any records were replayed, or the snapshot was in
+     * the other format, a fresh snapshot is taken so the journal does not grow across
+     * sessions. So is one when the snapshot was saved before tasks had ids, so that the
+     * ids they were given, 1 to n in list order, are kept from then on. Temporary files left by an interrupted snapshot are deleted.
+     * <p>
+     * Lines of a text snapshot that fail their {@link RecordChecksum} or cannot be
+     * parsed are moved to {@code Friday.quarantine.txt} instead of failing the load,
+     * and a fresh snapshot is taken from the tasks that were salvaged; see
+     * {@link #getLoadReport()}.
      *
      * @param parser The {@code Parser} used to interpret saved task lines.
-     * @return A {@code TaskList} containing all loaded tasks.
+     * @return A {@code TaskList} containing all loaded tasks, with no recorded changes.
      * @throws FridayException If the save file is corrupted or cannot be read.
      */
+    @Override
     public TaskList loadTaskList(Parser parser) throws FridayException {
-        TaskList list = new TaskList();
-        for (String line : load()) {
-            // If the save file is corrupted, we fail fast (cleanest behavior for now).
-            Task task = parser.parseLineToTask(line);
-            list.addTask(task);
+        TaskList list = loadStoredTaskList(parser);
+        list.clearChanges();
+        return list;
+    }
+
+    private TaskList loadStoredTaskList(Parser parser) throws FridayException {
+        flush();
+        deleteTempSnapshots();
+        loadReport = new LoadReport();
+        if (saveFormat == SaveFormat.SEGMENTED) {
+            return loadSegmentedTaskList(parser);
+        }
+        if (isLazyLoading && saveFormat == SaveFormat.TEXT && Files.exists(filePath)) {
+            TaskList lazy = loadLazyTaskList(parser);
+            if (lazy != null) {
+                return lazy;
+            }
+        }
+        TaskList list = isColumnar ? new TaskList(new ColumnarTaskList()) : new TaskList();
+        boolean isMigrating = false;
+        SnapshotHeader header = SnapshotHeader.legacy();
+        if (Files.exists(snapshotPath(saveFormat))) {
+            header = readSnapshot(saveFormat, list, parser, loadReport);
+        } else if (Files.exists(snapshotPath(otherFormat()))) {
+            header = readSnapshot(otherFormat(), list, parser, loadReport);
+            isMigrating = true;
+        }
+        salvage(header, list);
+        // Tasks saved before ids existed were just numbered 1 to n; the snapshot keeps those ids.
+        boolean isNumbering = header.getNextId() == SnapshotHeader.UNKNOWN_NEXT_ID && list.size() > 0;
+        Journal.ReplayResult replayed = journal.replay(list, parser, header.getSeq());
+        nextSeq = replayed.getLastSeq() + 1;
+        storedSize = list.size();
+        if (replayed.getApplied() > 0 || isMigrating || isNumbering || !loadReport.isClean()) {
+            saveTaskList(list);
         }
         return list;
     }
 
     /**
-     * Saves the given {@link TaskList} to storage by converting each task
-     * into its save string representation.
+     * Completes the load report for a snapshot that was just read, and quarantines
+     * its corrupted lines.
+     */
+    private void salvage(SnapshotHeader header, TaskList list) throws FridayException {
+        loadReport.setLoadedCount(list.size());
+        loadReport.setMissingCount(header.countMissing(list.size() + loadReport.getQuarantinedCount()));
+        loadReport.writeQuarantine(quarantinePath);
+    }
+
+    /**
+     * Returns what the last {@link #loadTaskList(Parser)} salvaged from a damaged
+     * text snapshot.
+     *
+     * @return The report; clean if nothing was lost.
+     */
+    @Override
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    /**
+     * Maps the text snapshot and replays the journal on top of it. The journal is only
+     * folded into a new snapshot once it is long enough to be compacted, so a start
+     * neither rewrites the whole file nor replays more than that many records. Returns
+     * {@code null} if the snapshot is torn, so that it is salvaged by an eager load, or
+     * was saved before tasks had ids, so that the eager load numbers them and saves the
+     * ids once.
+     */
+    private TaskList loadLazyTaskList(Parser parser) throws FridayException {
+        SnapshotHeader header = readTextHeader(filePath);
+        if (header.getNextId() == SnapshotHeader.UNKNOWN_NEXT_ID) {
+            return null;
+        }
+        TaskList list = new TaskList(LazyTaskList.map(filePath, parser));
+        if (header.countMissing(list.size()) != 0) {
+            return null;
+        }
+        list.reserveIdsBelow(header.getNextId());
+        Journal.ReplayResult replayed = journal.replay(list, parser, header.getSeq());
+        nextSeq = replayed.getLastSeq() + 1;
+        recordsSinceSnapshot = replayed.getApplied();
+        storedSize = list.size();
+        compactIfNeeded(list);
+        return list;
+    }
+
+    /**
+     * Loads the segment directory, or migrates the snapshot and journal into segments
+     * if it does not exist yet. The migrated segments are written to a temporary
+     * directory that is renamed into place, so an interrupted migration is redone.
+     * Either way, ids below the saved next id stay reserved.
+     */
+    private TaskList loadSegmentedTaskList(Parser parser) throws FridayException {
+        if (Files.isDirectory(segmentDirectory)) {
+            segments = SegmentedTaskList.load(segmentDirectory, parser, eagerSegmentKey());
+            storedSize = segments.size();
+            TaskList list = new TaskList(segments);
+            list.reserveIdsBelow(segments.getNextId());
+            return list;
+        }
+        TaskList flat = new TaskList();
+        SnapshotHeader header = SnapshotHeader.legacy();
+        if (Files.exists(filePath)) {
+            header = readSnapshot(SaveFormat.TEXT, flat, parser, loadReport);
+        } else if (Files.exists(binaryPath)) {
+            header = readSnapshot(SaveFormat.BINARY, flat, parser, loadReport);
+        }
+        salvage(header, flat);
+        journal.replay(flat, parser, header.getSeq());
+        segments = SegmentedTaskList.of(flat, parser);
+        segments.reserveIdsBelow(flat.getNextId());
+        storedSize = segments.size();
+        Map<String, List<String>> contents = segments.drainDirtySegments();
+        writeQueue.submitAction(() -> {
+            Path temp = tempPath(segmentDirectory);
+            try {
+                deleteDirectory(temp);
+                Files.createDirectories(temp);
+                for (Map.Entry<String, List<String>> segment : contents.entrySet()) {
+                    writeSegment(temp.resolve(segment.getKey()), segment.getValue());
+                }
+                Files.move(temp, segmentDirectory, StandardCopyOption.ATOMIC_MOVE);
+                forceDirectory(segmentDirectory.toAbsolutePath().getParent());
+            } catch (IOException e) {
+                throw new FridayException("Error saving tasks to '" + segmentDirectory + "': " + e.getMessage());
+            }
+            retireSnapshot(filePath);
+            retireSnapshot(binaryPath);
+            journal.rotate();
+            journal.deleteRotated();
+        });
+        TaskList list = new TaskList(segments);
+        list.reserveIdsBelow(segments.getNextId());
+        return list;
+    }
+
+    private int eagerSegmentKey() {
+        if (recentSegmentMonths == 0) {
+            return SegmentedTaskList.ALL_SEGMENTS;
+        }
+        return SegmentedTaskList.keyOf(YearMonth.now().minusMonths(recentSegmentMonths));
+    }
+
+    /** Queues a rewrite of every segment that changed since the last one. */
+    private void persistSegments() throws FridayException {
+        if (segments == null) {
+            throw new FridayException("Segmented storage must be loaded before tasks are saved.");
+        }
+        Map<String, List<String>> contents = segments.drainDirtySegments();
+        if (contents.isEmpty()) {
+            return;
+        }
+        writeQueue.submitAction(() -> {
+            try {
+                Files.createDirectories(segmentDirectory);
+                for (Map.Entry<String, List<String>> segment : contents.entrySet()) {
+                    writeSegment(segmentDirectory.resolve(segment.getKey()), segment.getValue());
+                }
+            } catch (IOException e) {
+                throw new FridayException("Error saving tasks to '" + segmentDirectory + "': " + e.getMessage());
+            }
+        });
+    }
+
+    /** Replaces a segment file through a temporary file, or deletes it if the segment is empty. */
+    private void writeSegment(Path file, List<String> lines) throws IOException {
+        if (lines.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        writeAtomically(file, lines);
+    }
+
+    /** Replaces a file with the given lines through a temporary file and an atomic rename. */
+    private void writeAtomically(Path file, List<String> lines) throws IOException {
+        Path temp = tempPath(file);
+        try (FileOutputStream out = new FileOutputStream(temp.toFile());
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+            if (durabilityPolicy != DurabilityPolicy.OS_BUFFERED) {
+                out.getChannel().force(true);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (durabilityPolicy != DurabilityPolicy.OS_BUFFERED) {
+            forceDirectory(file.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * Forces the entries of a directory to disk, so that a rename into it survives a
+     * crash. Windows cannot open a directory for this, and needs no such call there.
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        if (IS_WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Reads a snapshot into the list. Corrupted lines of a text snapshot are added
+     * to the report instead of failing the load. Ids up to the next id recorded in
+     * the header stay reserved, even those of tasks deleted from the end of the list.
+     */
+    private SnapshotHeader readSnapshot(SaveFormat format, TaskList list, Parser parser, LoadReport report)
+            throws FridayException {
+        SnapshotHeader header = readSnapshotTasks(format, list, parser, report);
+        list.reserveIdsBelow(header.getNextId());
+        return header;
+    }
+
+    private SnapshotHeader readSnapshotTasks(SaveFormat format, TaskList list, Parser parser, LoadReport report)
+            throws FridayException {
+        if (format == SaveFormat.BINARY) {
+            return BinaryTaskCodec.read(binaryPath, list);
+        }
+        if (isParallelLoading && sizeOf(filePath) >= ParallelTaskLoader.MIN_PARALLEL_SIZE) {
+            SnapshotHeader header = readTextHeader(filePath);
+            ParallelTaskLoader.load(filePath, parser, list, report);
+            return header;
+        }
+        SnapshotHeader header = SnapshotHeader.legacy();
+        long lineNumber = 0;
+        // Malformed UTF-8 is decoded as replacement characters, which then fail the checksum.
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(filePath), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && SnapshotHeader.isHeader(line)) {
+                    header = SnapshotHeader.parse(line);
+                    continue;
+                }
+                try {
+                    list.addTask(parser.parseLineToTask(RecordChecksum.unseal(line)));
+                } catch (FridayException e) {
+                    report.quarantine(lineNumber, line, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new FridayException("Error loading tasks from '" + filePath + "': " + e.getMessage());
+        }
+        return header;
+    }
+
+    private static SnapshotHeader readTextHeader(Path path) throws FridayException {
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String firstLine = reader.readLine();
+            if (firstLine == null || !SnapshotHeader.isHeader(firstLine)) {
+                return SnapshotHeader.legacy();
+            }
+            return SnapshotHeader.parse(firstLine);
+        } catch (IOException e) {
+            throw new FridayException("Error loading tasks from '" + path + "': " + e.getMessage());
+        }
+    }
+
+    private static long sizeOf(Path path) throws FridayException {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new FridayException("Error loading tasks from '" + path + "': " + e.getMessage());
+        }
+    }
+
+    private void deleteTempSnapshots() throws FridayException {
+        for (Path snapshot : List.of(filePath, binaryPath)) {
+            Path temp = tempPath(snapshot);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                throw new FridayException("Error removing incomplete snapshot '" + temp + "': " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Saves the given {@link TaskList} to storage as a full snapshot in the configured
+     * format. The snapshot is written in the background from a copy of the list, and
+     * the journal records it contains are discarded once it is safely in place.
+     * With the segmented format, every segment is rewritten from the list instead.
      *
      * @param list The {@code TaskList} to be saved.
-     * @throws FridayException If an I/O error occurs while saving tasks.
+     * @throws FridayException If an earlier write failed.
      */
+    @Override
     public void saveTaskList(TaskList list) throws FridayException {
-        List<String> lines = new ArrayList<>();
-        for (int i = 0; i < list.size(); i++) {
-            lines.add(list.get(i).toSaveString());
+        checkCompactionFailure();
+        storedSize = list.size();
+        list.clearChanges();
+        if (saveFormat == SaveFormat.SEGMENTED) {
+            saveSegmentedTaskList(list);
+            return;
+        }
+        TaskList frozen = list.freeze();
+        SnapshotHeader header = new SnapshotHeader(nextSeq - 1, frozen.size(), frozen.getNextId());
+        recordsSinceSnapshot = 0;
+        writeQueue.submitAction(() -> {
+            long rotation;
+            synchronized (rotationLock) {
+                journal.rotate();
+                rotation = ++rotations;
+            }
+            pendingCompaction = compactor.submit(() -> writeSnapshot(frozen, header, rotation));
+        });
+    }
+
+    /**
+     * Rewrites every segment. A list that was not loaded from this storage replaces
+     * the segments completely and becomes the list later mutations refer to.
+     */
+    private void saveSegmentedTaskList(TaskList list) throws FridayException {
+        if (segments != null && list.isBackedBy(segments)) {
+            segments.touchAll();
+            segments.reserveIdsBelow(list.getNextId());
+            persistSegments();
+            return;
+        }
+        segments = SegmentedTaskList.of(list, new Parser());
+        segments.reserveIdsBelow(list.getNextId());
+        Map<String, List<String>> contents = segments.drainDirtySegments();
+        writeQueue.submitAction(() -> {
+            try {
+                Files.createDirectories(segmentDirectory);
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(segmentDirectory, "*.txt")) {
+                    for (Path file : files) {
+                        contents.putIfAbsent(file.getFileName().toString(), List.of());
+                    }
+                }
+                for (Map.Entry<String, List<String>> segment : contents.entrySet()) {
+                    writeSegment(segmentDirectory.resolve(segment.getKey()), segment.getValue());
+                }
+            } catch (IOException e) {
+                throw new FridayException("Error saving tasks to '" + segmentDirectory + "': " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Takes a background snapshot if enough journal records have accumulated since the
+     * last one and no snapshot is already being written. The segmented format has no
+     * journal to compact.
+     *
+     * @param list The current {@code TaskList}.
+     * @throws FridayException If an earlier write failed.
+     */
+    @Override
+    public void compactIfNeeded(TaskList list) throws FridayException {
+        checkCompactionFailure();
+        if (saveFormat == SaveFormat.SEGMENTED || recordsSinceSnapshot < compactionThreshold) {
+            return;
+        }
+        Future<?> pending = pendingCompaction;
+        if (pending != null && !pending.isDone()) {
+            return;
+        }
+        saveTaskList(list);
+    }
+
+    /**
+     * Writes a snapshot to a temporary file, renames it over the current snapshot,
+     * and deletes the rotated journal unless it has been rotated into again since.
+     * The rename is forced to disk first, so a crash cannot lose it once the journal
+     * records it contains are gone.
+     * Runs on the compaction thread; failures are reported on the caller's next call.
+     */
+    private void writeSnapshot(TaskList frozen, SnapshotHeader header, long rotation) {
+        Path target = snapshotPath(saveFormat);
+        Path temp = tempPath(target);
+        try {
+            if (saveFormat == SaveFormat.BINARY) {
+                BinaryTaskCodec.write(temp, header, frozen);
+            } else {
+                writeTextSnapshot(temp, header, frozen);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            forceDirectory(target.toAbsolutePath().getParent());
+            retireSnapshot(saveFormat == SaveFormat.BINARY ? filePath : binaryPath);
+            synchronized (rotationLock) {
+                if (rotation == rotations) {
+                    journal.deleteRotated();
+                }
+            }
+        } catch (IOException e) {
+            compactionFailure = new FridayException("Error saving tasks to '" + target + "': " + e.getMessage());
+        } catch (FridayException e) {
+            compactionFailure = e;
+        }
+    }
+
+    private static void writeTextSnapshot(Path path, SnapshotHeader header, TaskList list)
+            throws IOException, FridayException {
+        Files.createDirectories(path.getParent());
+        try (FileOutputStream out = new FileOutputStream(path.toFile());
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(header.toString());
+            writer.newLine();
+            for (int i = 0; i < list.size(); i++) {
+                writer.write(RecordChecksum.seal(list.getSaveString(i)));
+                writer.newLine();
+            }
+            writer.flush();
+            out.getChannel().force(true);
+        }
+    }
+
+    private void checkCompactionFailure() throws FridayException {
+        FridayException failed = compactionFailure;
+        if (failed != null) {
+            compactionFailure = null;
+            throw failed;
+        }
+    }
+
+    /**
+     * Moves a snapshot in the format that is no longer used out of the way,
+     * so that it is never preferred over the current one.
+     */
+    private static void retireSnapshot(Path oldSnapshot) throws FridayException {
+        try {
+            if (Files.exists(oldSnapshot)) {
+                Path backup = oldSnapshot.resolveSibling(oldSnapshot.getFileName() + BACKUP_SUFFIX);
+                Files.move(oldSnapshot, backup, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new FridayException("Error retiring old save file '" + oldSnapshot + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records a newly added task without rewriting the save file.
+     *
+     * @param task The task that was appended to the list.
+     * @throws FridayException If an earlier write failed.
+     */
+    public void appendAdd(Task task) throws FridayException {
+        storedSize++;
+        if (saveFormat == SaveFormat.SEGMENTED) {
+            persistSegments();
+            return;
+        }
+        submitRecord(Journal.addRecord(nextSeq, task));
+    }
+
+    /**
+     * Records that the task at the given index was marked as completed.
+     *
+     * @param index The 0-based index of the task.
+     * @throws FridayException If an earlier write failed.
+     */
+    public void appendMark(int index) throws FridayException {
+        if (saveFormat == SaveFormat.SEGMENTED) {
+            touchSegment(index);
+            return;
+        }
+        submitRecord(Journal.markRecord(nextSeq, index));
+    }
+
+    /**
+     * Records that the task at the given index was marked as not completed.
+     *
+     * @param index The 0-based index of the task.
+     * @throws FridayException If an earlier write failed.
+     */
+    public void appendUnmark(int index) throws FridayException {
+        if (saveFormat == SaveFormat.SEGMENTED) {
+            touchSegment(index);
+            return;
+        }
+        submitRecord(Journal.unmarkRecord(nextSeq, index));
+    }
+
+    /**
+     * Records that the task at the given index was deleted.
+     *
+     * @param index The 0-based index of the task before deletion.
+     * @throws FridayException If an earlier write failed.
+     */
+    public void appendDelete(int index) throws FridayException {
+        storedSize--;
+        if (saveFormat == SaveFormat.SEGMENTED) {
+            persistSegments();
+            return;
+        }
+        submitRecord(Journal.deleteRecord(nextSeq, index));
+    }
+
+    /**
+     * Records a task at the given position. Appending is journalled as an addition;
+     * replacing an existing task records its completion status, which is the only
+     * part of a stored task that can change.
+     *
+     * @param index The 0-based position.
+     * @param task  The task.
+     * @throws FridayException If an earlier write failed.
+     */
+    @Override
+    public void put(int index, Task task) throws FridayException {
+        if (index >= storedSize) {
+            appendAdd(task);
+        } else if (task.isCompleted()) {
+            appendMark(index);
+        } else {
+            appendUnmark(index);
+        }
+    }
+
+    @Override
+    public void delete(int index) throws FridayException {
+        appendDelete(index);
+    }
+
+    /**
+     * Returns the deadlines and events dated within the given range. The stored list
+     * is read in full, since the snapshot and journal are not indexed by date.
+     */
+    @Override
+    public List<Task> scanByDate(LocalDate from, LocalDate to, Parser parser) throws FridayException {
+        return readCurrentList(parser).getTasksBetween(from, to);
+    }
+
+    /**
+     * Visits every stored task in list order. The stored list is read in full first.
+     */
+    @Override
+    public void forEach(Parser parser, TaskVisitor visitor) throws FridayException {
+        for (Task task : readCurrentList(parser)) {
+            visitor.visit(task);
+        }
+    }
+
+    /** Reads the snapshot and journal as they are on disk, without compacting anything. */
+    private TaskList readCurrentList(Parser parser) throws FridayException {
+        flush();
+        if (saveFormat == SaveFormat.SEGMENTED) {
+            return segments != null ? new TaskList(segments) : loadSegmentedTaskList(parser);
+        }
+        TaskList list = new TaskList();
+        SnapshotHeader header = SnapshotHeader.legacy();
+        // Corrupted lines were already reported and quarantined by the load.
+        LoadReport ignored = new LoadReport();
+        if (Files.exists(snapshotPath(saveFormat))) {
+            header = readSnapshot(saveFormat, list, parser, ignored);
+        } else if (Files.exists(snapshotPath(otherFormat()))) {
+            header = readSnapshot(otherFormat(), list, parser, ignored);
+        }
+        journal.replay(list, parser, header.getSeq());
+        return list;
+    }
+
+    private SaveFormat otherFormat() {
+        return saveFormat == SaveFormat.TEXT ? SaveFormat.BINARY : SaveFormat.TEXT;
+    }
+
+    private void touchSegment(int index) throws FridayException {
+        if (segments != null) {
+            segments.touch(index);
+        }
+        persistSegments();
+    }
+
+    private void submitRecord(String record) throws FridayException {
+        checkCompactionFailure();
+        writeQueue.submitRecord(record);
+        nextSeq++;
+        recordsSinceSnapshot++;
+    }
+
+    /**
+     * Blocks until every pending write, including a snapshot in progress,
+     * has completed and been forced to disk.
+     *
+     * @throws FridayException If a pending write failed.
+     */
+    @Override
+    public void flush() throws FridayException {
+        writeQueue.flush();
+        try {
+            compactor.submit(() -> null).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FridayException("Interrupted while waiting for a snapshot to be written.");
+        } catch (ExecutionException e) {
+            throw new FridayException("Error waiting for a snapshot to be written: " + e.getMessage());
+        }
+        checkCompactionFailure();
+    }
+
+    /**
+     * Flushes all pending writes, including a snapshot in progress,
+     * and releases the underlying files.
+     *
+     * @throws FridayException If a pending write failed.
+     */
+    @Override
+    public void close() throws FridayException {
+        writeQueue.close();
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FridayException("Interrupted while waiting for a snapshot to be written.");
         }
-        save(lines);
+        checkCompactionFailure();
     }
 }
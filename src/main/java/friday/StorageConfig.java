@@ -0,0 +1,260 @@
+package friday;
+
+/**
+ * Holds the tunable settings used by {@link Storage}.
+ * <p>
+ * Settings can be supplied through system properties, for example
+ * {@code -Dfriday.durability=every-commit}:
+ * <ul>
+ * <li>{@code friday.durability}: one of {@link DurabilityPolicy} (default {@code per-batch})</li>
+ * <li>{@code friday.batch.size}: maximum records coalesced into one write (default 256)</li>
+ * <li>{@code friday.batch.delay}: milliseconds to wait for more records before writing (default 5)</li>
+ * <li>{@code friday.format}: one of {@link SaveFormat} (default {@code text})</li>
+ * <li>{@code friday.lazy}: memory-map a text save file and parse tasks on demand (default false)</li>
+ * <li>{@code friday.parallel}: parse large text save files on all cores (default true)</li>
+ * <li>{@code friday.compact.every}: journal records between background snapshots (default 10000)</li>
+ * <li>{@code friday.segments.recent}: with the segmented format, parse only segments from this many
+ * months ago onwards on load, and the rest on first access (default 0, parse all)</li>
+ * <li>{@code friday.engine}: one of {@link StoreEngine} (default {@code file})</li>
+ * <li>{@code friday.columnar}: hold loaded tasks in primitive columns rather than as objects,
+ * see {@link ColumnarTaskList} (default false)</li>
+ * </ul>
+ */
+public class StorageConfig {
+    private static final DurabilityPolicy DEFAULT_POLICY = DurabilityPolicy.PER_BATCH;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long DEFAULT_BATCH_DELAY_MILLIS = 5;
+    private static final SaveFormat DEFAULT_FORMAT = SaveFormat.TEXT;
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 10_000;
+
+    private final DurabilityPolicy durabilityPolicy;
+    private final int maxBatchSize;
+    private final long maxBatchDelayMillis;
+    private final SaveFormat saveFormat;
+    private final boolean isLazyLoading;
+    private final boolean isParallelLoading;
+    private final long compactionThreshold;
+    private final int recentSegmentMonths;
+    private final StoreEngine storeEngine;
+    private final boolean isColumnar;
+
+    /**
+     * Constructs a {@code StorageConfig} with the default settings.
+     */
+    public StorageConfig() {
+        this(DEFAULT_POLICY, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_DELAY_MILLIS);
+    }
+
+    /**
+     * Constructs a {@code StorageConfig} with the given settings, and the defaults for the others.
+     *
+     * @param durabilityPolicy    When journal writes are forced to disk.
+     * @param maxBatchSize        Maximum number of records coalesced into one write.
+     * @param maxBatchDelayMillis Time to wait for further records before writing a batch.
+     */
+    public StorageConfig(DurabilityPolicy durabilityPolicy, int maxBatchSize, long maxBatchDelayMillis) {
+        this(durabilityPolicy, maxBatchSize, maxBatchDelayMillis, DEFAULT_FORMAT, false, true,
+                DEFAULT_COMPACTION_THRESHOLD, 0, StoreEngine.FILE, false);
+    }
+
+    private StorageConfig(DurabilityPolicy durabilityPolicy, int maxBatchSize, long maxBatchDelayMillis,
+                          SaveFormat saveFormat, boolean isLazyLoading, boolean isParallelLoading,
+                          long compactionThreshold, int recentSegmentMonths, StoreEngine storeEngine,
+                          boolean isColumnar) {
+        this.durabilityPolicy = durabilityPolicy == null ? DEFAULT_POLICY : durabilityPolicy;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxBatchDelayMillis = Math.max(0, maxBatchDelayMillis);
+        this.saveFormat = saveFormat == null ? DEFAULT_FORMAT : saveFormat;
+        this.isLazyLoading = isLazyLoading;
+        this.isParallelLoading = isParallelLoading;
+        this.compactionThreshold = Math.max(1, compactionThreshold);
+        this.recentSegmentMonths = Math.max(0, recentSegmentMonths);
+        this.storeEngine = storeEngine == null ? StoreEngine.FILE : storeEngine;
+        this.isColumnar = isColumnar;
+    }
+
+    /**
+     * Returns a copy of this config that writes snapshots in the given format.
+     *
+     * @param format The snapshot format.
+     * @return The updated {@code StorageConfig}.
+     */
+    public StorageConfig withSaveFormat(SaveFormat format) {
+        return new StorageConfig(durabilityPolicy, maxBatchSize, maxBatchDelayMillis, format, isLazyLoading,
+                isParallelLoading, compactionThreshold, recentSegmentMonths, storeEngine, isColumnar);
+    }
+
+    /**
+     * Returns a copy of this config that memory-maps a text save file on load
+     * and materializes tasks on first access (see {@link LazyTaskList}).
+     *
+     * @param isLazy Whether to load lazily.
+     * @return The updated {@code StorageConfig}.
+     */
+    public StorageConfig withLazyLoading(boolean isLazy) {
+        return new StorageConfig(durabilityPolicy, maxBatchSize, maxBatchDelayMillis, saveFormat, isLazy,
+                isParallelLoading, compactionThreshold, recentSegmentMonths, storeEngine, isColumnar);
+    }
+
+    /**
+     * Returns a copy of this config that parses large text save files on a
+     * fork-join pool (see {@link ParallelTaskLoader}).
+     *
+     * @param isParallel Whether to parse in parallel.
+     * @return The updated {@code StorageConfig}.
+     */
+    public StorageConfig withParallelLoading(boolean isParallel) {
+        return new StorageConfig(durabilityPolicy, maxBatchSize, maxBatchDelayMillis, saveFormat, isLazyLoading,
+                isParallel, compactionThreshold, recentSegmentMonths, storeEngine, isColumnar);
+    }
+
+    /**
+     * Returns a copy of this config that takes a background snapshot after the given
+     * number of journal records (see {@link Storage#compactIfNeeded(TaskList)}).
+     *
+     * @param records Journal records between snapshots.
+     * @return The updated {@code StorageConfig}.
+     */
+    public StorageConfig withCompactionThreshold(long records) {
+        return new StorageConfig(durabilityPolicy, maxBatchSize, maxBatchDelayMillis, saveFormat, isLazyLoading,
+                isParallelLoading, records, recentSegmentMonths, storeEngine, isColumnar);
+    }
+
+    /**
+     * Returns a copy of this config that, with {@link SaveFormat#SEGMENTED}, parses only
+     * the segments from the given number of months ago onwards when loading.
+     *
+     * @param months Number of past months to parse eagerly, or 0 to parse all segments.
+     * @return The updated {@code StorageConfig}.
+     */
+    public StorageConfig withRecentSegmentMonths(int months) {
+        return new StorageConfig(durabilityPolicy, maxBatchSize, maxBatchDelayMillis, saveFormat, isLazyLoading,
+                isParallelLoading, compactionThreshold, months, storeEngine, isColumnar);
+    }
+
+    /**
+     * Returns a copy of this config that selects the given {@link TaskStore} implementation.
+     *
+     * @param engine The storage engine.
+     * @return The updated {@code StorageConfig}.
+     */
+    public StorageConfig withStoreEngine(StoreEngine engine) {
+        return new StorageConfig(durabilityPolicy, maxBatchSize, maxBatchDelayMillis, saveFormat, isLazyLoading,
+                isParallelLoading, compactionThreshold, recentSegmentMonths, engine, isColumnar);
+    }
+
+    /**
+     * Returns a copy of this config that holds eagerly loaded tasks in primitive
+     * columns (see {@link ColumnarTaskList}).
+     *
+     * @param isColumnar Whether to hold tasks in columns.
+     * @return The updated {@code StorageConfig}.
+     */
+    public StorageConfig withColumnarMemory(boolean isColumnar) {
+        return new StorageConfig(durabilityPolicy, maxBatchSize, maxBatchDelayMillis, saveFormat, isLazyLoading,
+                isParallelLoading, compactionThreshold, recentSegmentMonths, storeEngine, isColumnar);
+    }
+
+    /**
+     * Reads the settings from system properties, falling back to the defaults
+     * for any property that is missing or invalid.
+     *
+     * @return The resulting {@code StorageConfig}.
+     */
+    public static StorageConfig fromSystemProperties() {
+        DurabilityPolicy policy = DEFAULT_POLICY;
+        String policyName = System.getProperty("friday.durability");
+        if (policyName != null) {
+            try {
+                policy = DurabilityPolicy.fromString(policyName);
+            } catch (FridayException e) {
+                // Keep the default policy.
+            }
+        }
+        int batchSize = (int) readLong("friday.batch.size", DEFAULT_BATCH_SIZE);
+        long batchDelay = readLong("friday.batch.delay", DEFAULT_BATCH_DELAY_MILLIS);
+        SaveFormat format = DEFAULT_FORMAT;
+        String formatName = System.getProperty("friday.format");
+        if (formatName != null) {
+            try {
+                format = SaveFormat.fromString(formatName);
+            } catch (FridayException e) {
+                // Keep the default format.
+            }
+        }
+        boolean isLazy = Boolean.parseBoolean(System.getProperty("friday.lazy", "false"));
+        boolean isParallel = Boolean.parseBoolean(System.getProperty("friday.parallel", "true"));
+        long compactEvery = readLong("friday.compact.every", DEFAULT_COMPACTION_THRESHOLD);
+        int recentMonths = (int) readLong("friday.segments.recent", 0);
+        StoreEngine engine = StoreEngine.FILE;
+        String engineName = System.getProperty("friday.engine");
+        if (engineName != null) {
+            try {
+                engine = StoreEngine.fromString(engineName);
+            } catch (FridayException e) {
+                // Keep the default engine.
+            }
+        }
+        boolean isColumnar = Boolean.parseBoolean(System.getProperty("friday.columnar", "false"));
+        return new StorageConfig(policy, batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE, batchDelay)
+                .withSaveFormat(format)
+                .withLazyLoading(isLazy)
+                .withParallelLoading(isParallel)
+                .withCompactionThreshold(compactEvery > 0 ? compactEvery : DEFAULT_COMPACTION_THRESHOLD)
+                .withRecentSegmentMonths(recentMonths)
+                .withStoreEngine(engine)
+                .withColumnarMemory(isColumnar);
+    }
+
+    private static long readLong(String key, long defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public DurabilityPolicy getDurabilityPolicy() {
+        return durabilityPolicy;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxBatchDelayMillis() {
+        return maxBatchDelayMillis;
+    }
+
+    public SaveFormat getSaveFormat() {
+        return saveFormat;
+    }
+
+    public boolean isLazyLoading() {
+        return isLazyLoading;
+    }
+
+    public boolean isParallelLoading() {
+        return isParallelLoading;
+    }
+
+    public long getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public int getRecentSegmentMonths() {
+        return recentSegmentMonths;
+    }
+
+    public StoreEngine getStoreEngine() {
+        return storeEngine;
+    }
+
+    public boolean isColumnar() {
+        return isColumnar;
+    }
+}
@@ -0,0 +1,27 @@
+package friday;
+
+/**
+ * The {@link TaskStore} implementation used to persist the task list.
+ */
+public enum StoreEngine {
+    /** Snapshot and journal files, see {@link Storage}. */
+    FILE,
+    /** A single paged B+-tree file, see {@link BTreeTaskStore}. */
+    BTREE;
+
+    /**
+     * Returns the engine with the given name, ignoring case.
+     *
+     * @param name The engine name, e.g. {@code btree}.
+     * @return The matching {@code StoreEngine}.
+     * @throws FridayException If no engine has the given name.
+     */
+    public static StoreEngine fromString(String name) throws FridayException {
+        for (StoreEngine engine : values()) {
+            if (engine.name().equalsIgnoreCase(name.trim())) {
+                return engine;
+            }
+        }
+        throw new FridayException("Unknown storage engine: " + name);
+    }
+}
@@ -3,10 +3,22 @@ package friday;
 /**
  * Represents a generic task with a description and completion status.
  * This class serves as the base class for all specific task types.
+ * <p>
+ * Every change to a task increments its modification count, which lets
+ * {@link #toString()} and {@link #getSaveString()} reuse the strings built for an
+ * unchanged task.
+ * <p>
+ * A task added to a {@link TaskList} is given an id that never changes, unlike its
+ * position in the list, and is saved with it. A task that has not been added to a
+ * list yet has id 0.
  */
 public abstract class Task {
     private final String description;
     private boolean isCompleted;
+    private long id;
+    private int modCount;
+    private CachedString displayed;
+    private CachedString saved;
 
     /**
      * Constructs a Task with a description and isCompleted field.
@@ -34,28 +46,111 @@ public abstract class Task {
         return description;
     }
 
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Gives this task its id, when it is added to a list or read back from storage.
+     *
+     * @param id The id, a positive number, or 0 so that the task is given a new id
+     *           when it is added to a list.
+     */
+    void assignId(long id) {
+        if (this.id != id) {
+            this.id = id;
+            this.modCount++;
+        }
+    }
+
+    /**
+     * Returns the description as it is written in a save string. Every {@code " | "}
+     * becomes {@code " \| "}, so it is not taken for a delimiter. A description that
+     * ends in a space, any number of backslashes and {@code |} gets one more backslash
+     * before the {@code |}, since with the delimiter after it the line would otherwise
+     * split one field early; {@link Parser} removes that backslash again.
+     *
+     * @return The escaped description.
+     */
+    protected String escapedDescription() {
+        String safe = this.description.replace(" | ", " \\| ");
+        int last = safe.length() - 1;
+        if (last < 0 || safe.charAt(last) != '|') {
+            return safe;
+        }
+        int beforeEscapes = last - 1;
+        while (beforeEscapes >= 0 && safe.charAt(beforeEscapes) == '\\') {
+            beforeEscapes--;
+        }
+        if (beforeEscapes < 0 || safe.charAt(beforeEscapes) != ' ') {
+            return safe;
+        }
+        return safe.substring(0, last) + "\\|";
+    }
+
+    /**
+     * Returns the field that ends the save string of a task with an id, or an empty
+     * string if this task has none.
+     *
+     * @return The id field, such as {@code " | #12"}.
+     */
+    protected String idField() {
+        return this.id == 0 ? "" : " | #" + this.id;
+    }
+
+    /**
+     * Returns the number of changes made to this task since it was created.
+     *
+     * @return The modification count.
+     */
+    public int getModCount() {
+        return this.modCount;
+    }
+
     /**
      * Marks this task as isCompleted.
      */
     public void mark() {
-        this.isCompleted = true;
+        if (!this.isCompleted) {
+            this.isCompleted = true;
+            this.modCount++;
+        }
     }
 
     /**
      * Marks this task as not isCompleted.
      */
     public void unmark() {
-        this.isCompleted = false;
+        if (this.isCompleted) {
+            this.isCompleted = false;
+            this.modCount++;
+        }
     }
 
     /**
-     * Returns the string representation of this task for display to the user.
-     * Indicates whether the task is isCompleted and shows its description.
+     * Returns the string representation of this task for display to the user, reusing
+     * the string built by an earlier call if this task has not changed since.
      *
      * @return A formatted string representing the task.
      */
     @Override
-    public String toString() {
+    public final String toString() {
+        CachedString cached = this.displayed;
+        int current = this.modCount;
+        if (cached == null || cached.modCount != current) {
+            cached = new CachedString(current, render());
+            this.displayed = cached;
+        }
+        return cached.text;
+    }
+
+    /**
+     * Builds the string returned by {@link #toString()}.
+     * Indicates whether the task is isCompleted and shows its description.
+     *
+     * @return A formatted string representing the task.
+     */
+    protected String render() {
         return (this.isCompleted ? "[X] "
                 : "[ ] ") + this.description;
     }
@@ -68,4 +163,34 @@ public abstract class Task {
      * @return A formatted save string representing the task.
      */
     public abstract String toSaveString();
+
+    /**
+     * Returns the same string as {@link #toSaveString()}, reusing the string built
+     * by an earlier call if this task has not changed since.
+     *
+     * @return The save string of this task.
+     */
+    public String getSaveString() {
+        CachedString cached = this.saved;
+        int current = this.modCount;
+        if (cached == null || cached.modCount != current) {
+            cached = new CachedString(current, toSaveString());
+            this.saved = cached;
+        }
+        return cached.text;
+    }
+
+    /**
+     * A string built from this task together with the modification count it was built
+     * at. Kept in one immutable object so another thread never sees a mismatched pair.
+     */
+    private static final class CachedString {
+        private final int modCount;
+        private final String text;
+
+        private CachedString(int modCount, String text) {
+            this.modCount = modCount;
+            this.text = text;
+        }
+    }
 }
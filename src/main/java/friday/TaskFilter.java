@@ -0,0 +1,64 @@
+package friday;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A combination of conditions on the tasks of a list, as given to the {@code filter}
+ * command. A task matches if it is of one of the types, has the completion status,
+ * and is dated in one of the months; a condition that is not given matches every task.
+ */
+public class TaskFilter {
+    /**
+     * The types of task a filter can select.
+     */
+    public enum Kind {
+        TODO, DEADLINE, EVENT;
+
+        /**
+         * Returns the kind of the given task.
+         *
+         * @param task The task.
+         * @return Its kind.
+         */
+        public static Kind of(Task task) {
+            if (task instanceof Deadline) {
+                return DEADLINE;
+            } else if (task instanceof Event) {
+                return EVENT;
+            }
+            return TODO;
+        }
+    }
+
+    private final Set<Kind> kinds;
+    private final Boolean isDone;
+    private final Set<YearMonth> months;
+
+    /**
+     * Constructs a {@code TaskFilter}.
+     *
+     * @param kinds  The types to select, or an empty set for any type.
+     * @param isDone The completion status to select, or {@code null} for either.
+     * @param months The months to select dated tasks from, or an empty set for any task.
+     */
+    public TaskFilter(Set<Kind> kinds, Boolean isDone, Set<YearMonth> months) {
+        this.kinds = kinds.isEmpty() ? EnumSet.noneOf(Kind.class) : EnumSet.copyOf(kinds);
+        this.isDone = isDone;
+        this.months = Set.copyOf(months);
+    }
+
+    public Set<Kind> getKinds() {
+        return Collections.unmodifiableSet(kinds);
+    }
+
+    public Boolean isDone() {
+        return isDone;
+    }
+
+    public Set<YearMonth> getMonths() {
+        return months;
+    }
+}
@@ -1,19 +1,99 @@
 package friday;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Represents a list of {@link Task} objects.
  * Provides operations to add, remove, retrieve, and update tasks in the list.
+ * <p>
+ * The list records which positions were added, marked or unmarked, and which stored
+ * positions were deleted, since the changes were last cleared, so that a
+ * {@link TaskStore} can persist only those records (see
+ * {@link TaskStore#saveChanges(TaskList)}). Deleting a task that was added since then
+ * only forgets the addition.
+ * <p>
+ * Every task added to the list is given the next id, which stays with it however
+ * the list changes. Tasks loaded from a save file written before ids existed are
+ * numbered in list order as they are added, 1 to n for a whole file, and a store
+ * saves them with their ids once after loading. Should a task without an id turn up
+ * in a list loaded another way, such as a hand-edited file, it is numbered the first
+ * time an id is needed, and the next {@link TaskStore#saveChanges(TaskList)} saves
+ * the whole list (see {@link #hasAssignedIds()}).
+ * <p>
+ * Unless a store supplies its own backing list, tasks are kept in a
+ * {@link ChunkedTaskList}, so deleting a task by its number does not shift every
+ * later task.
+ * <p>
+ * The list may be shared between threads. Every method that changes the list holds
+ * its lock, so changes are applied one at a time and the indexes are never seen half
+ * updated. Threads that only read, such as a window redrawing the list while commands
+ * run, can instead take a {@link #snapshot()}, which is immutable and obtained without
+ * the lock once it has been taken the first time. {@link #findTasks(String)},
+ * {@link #getUpcomingTasks(LocalDate, int)} and {@link #getTasksBetween(LocalDate, LocalDate)}
+ * read the snapshot through the indexes it carries, and a save writes from
+ * {@link #freeze()}, which reads the snapshot too.
+ * <p>
+ * Tasks in the list are never changed in place once a snapshot may share them:
+ * marking or unmarking a task replaces it with a changed copy (see
+ * {@link #markTask(int)}). A task fetched before it was marked therefore still shows
+ * it as it was.
  */
-public class TaskList {
+public class TaskList implements Iterable<Task> {
     private static final int USER_INDEX_OFFSET = 1;
-    private List<Task> list;
+    private final List<Task> list;
+    private final BitSet changedIndices = new BitSet();
+    /** Built on the first {@link #rankTasks(String, int)} and maintained from then on. */
+    private InvertedIndex findIndex;
+    /** Built on the first event overlap or free-slot query and maintained from then on. */
+    private EventIndex eventIndex;
+    /** Built on the first {@link #filterTasks(TaskFilter)} and maintained from then on. */
+    private BitmapIndex filterIndex;
+    /** Taken on the first {@link #snapshot()} and replaced after every change from then on. */
+    private volatile TaskSnapshot snapshot;
+    private long nextId = 1;
+    private boolean areIdsChecked;
+    /** Whether stored tasks were given ids since the changes were cleared. */
+    private boolean hasAssignedIds;
+    /** Built on the first lookup by id and maintained from then on. */
+    private IdIndex idIndex;
+    /** Stored positions deleted since the changes were cleared, in the order to replay them. */
+    private int[] deletedIndices = new int[0];
+    private int deletionCount;
+    /** Number of tasks at the end of the list added since the changes were cleared. */
+    private int addedCount;
+    private int modCount;
 
     public TaskList() {
-        this.list = new ArrayList<>();
+        this.list = new ChunkedTaskList();
+    }
+
+    /**
+     * Constructs a {@code TaskList} over an existing backing list, such as a
+     * {@link LazyTaskList} that materializes tasks on demand.
+     *
+     * @param list The list holding the tasks.
+     */
+    TaskList(List<Task> list) {
+        this.list = list;
+    }
+
+    /**
+     * Returns whether this list stores its tasks in the given backing list.
+     *
+     * @param backing The backing list to compare with.
+     * @return {@code true} if this list wraps exactly that list.
+     */
+    boolean isBackedBy(List<Task> backing) {
+        return list == backing;
     }
 
     /**
@@ -21,8 +101,50 @@ public class TaskList {
      *
      * @param task The {@code Task} to be added.
      */
-    public void addTask(Task task) {
+    public synchronized void addTask(Task task) {
+        append(task);
+        if (snapshot != null) {
+            snapshot = snapshot.withAdded(task, modCount);
+        }
+    }
+
+    /**
+     * Adds the given tasks to the end of the task list, in order. The snapshot, if
+     * one has been taken, is replaced once rather than after every task.
+     *
+     * @param tasks The tasks to be added.
+     */
+    public synchronized void addTasks(List<Task> tasks) {
+        for (Task task : tasks) {
+            append(task);
+        }
+        if (snapshot != null) {
+            snapshot = snapshot.withAddedAll(tasks, modCount);
+        }
+    }
+
+    private void append(Task task) {
+        checkIds();
+        if (task.getId() == 0) {
+            task.assignId(nextId);
+        }
+        nextId = Math.max(nextId, task.getId() + 1);
         this.list.add(task);
+        if (idIndex != null) {
+            idIndex.put(task.getId(), list.size() - 1);
+        }
+        if (findIndex != null) {
+            findIndex.add(task);
+        }
+        if (eventIndex != null) {
+            eventIndex.add(task);
+        }
+        if (filterIndex != null) {
+            filterIndex.add(task);
+        }
+        changedIndices.set(list.size() - 1);
+        addedCount++;
+        modCount++;
     }
 
     /**
@@ -32,41 +154,369 @@ public class TaskList {
      * @param index The 0-based index of the task to remove.
      * @throws FridayException If the index is invalid.
      */
-    public void deleteTask(int index) throws FridayException {
+    public synchronized void deleteTask(int index) throws FridayException {
         if (index < 0 || index >= list.size()) {
             throw new FridayException("Invalid index for deleteTask: " + index);
         }
-        this.list.remove(index);
+        recordDeletion(index, list.size() - addedCount);
+        Task removed = this.list.remove(index);
+        if (idIndex != null) {
+            idIndex.remove(removed.getId(), index);
+        }
+        if (findIndex != null) {
+            findIndex.remove(removed);
+        }
+        if (eventIndex != null) {
+            eventIndex.remove(removed);
+        }
+        if (filterIndex != null) {
+            filterIndex.remove(removed);
+        }
+        // Later positions move up by one, and so do their change bits.
+        BitSet later = changedIndices.get(index + 1, Math.max(index + 1, changedIndices.length()));
+        changedIndices.clear(index, Math.max(index, changedIndices.length()));
+        later.stream().forEach(i -> changedIndices.set(index + i));
+        modCount++;
+        if (snapshot != null) {
+            snapshot = snapshot.withRemoved(index, modCount);
+        }
+    }
+
+    /**
+     * Deletes the tasks at the given positions as one change. The backing list and
+     * the position-based indexes are compacted in a single pass rather than shifted
+     * once for every deleted task.
+     *
+     * @param positions The 0-based positions of the tasks to remove.
+     * @throws FridayException If a position is invalid.
+     */
+    public synchronized void deleteTasks(BitSet positions) throws FridayException {
+        if (positions.isEmpty()) {
+            return;
+        }
+        if (positions.length() > list.size()) {
+            throw new FridayException("Invalid index for deleteTasks: " + (positions.length() - 1));
+        }
+        List<Task> removed = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            removed.add(list.get(i));
+        }
+        // From the last position down, so each recorded position is still valid when replayed.
+        // Nothing is removed until all are recorded, so the stored tasks are still the same ones.
+        int storedCount = list.size() - addedCount;
+        for (int i = positions.length() - 1; i >= 0; i = positions.previousSetBit(i - 1)) {
+            recordDeletion(i, storedCount);
+        }
+        if (list instanceof ChunkedTaskList chunked) {
+            chunked.removePositions(positions);
+        } else if (list instanceof ColumnarTaskList columnar) {
+            columnar.removePositions(positions);
+        } else {
+            for (int i = positions.length() - 1; i >= 0; i = positions.previousSetBit(i - 1)) {
+                list.remove(i);
+            }
+        }
+        for (Task task : removed) {
+            if (idIndex != null) {
+                idIndex.remove(task.getId(), positions.nextSetBit(0));
+            }
+        }
+        for (Task task : removed) {
+            if (eventIndex != null) {
+                eventIndex.remove(task);
+            }
+            if (filterIndex != null) {
+                filterIndex.remove(task);
+            }
+            if (findIndex != null) {
+                findIndex.remove(task);
+            }
+        }
+        // Close the gaps in the change bits the same way.
+        BitSet remaining = new BitSet();
+        for (int i = 0, kept = 0; i < changedIndices.length(); i++) {
+            if (!positions.get(i)) {
+                remaining.set(kept++, changedIndices.get(i));
+            }
+        }
+        changedIndices.clear();
+        changedIndices.or(remaining);
+        modCount++;
+        if (snapshot != null) {
+            snapshot = snapshot.withRemovedAll(positions, modCount);
+        }
+    }
+
+    /**
+     * Records the deletion of the task now at the given position, unless it was added
+     * since the changes were cleared and so was never stored.
+     *
+     * @param index       The position of the task.
+     * @param storedCount The number of stored tasks at the front of the list, counted
+     *                    before any of the tasks being deleted was removed.
+     */
+    private void recordDeletion(int index, int storedCount) {
+        if (index >= storedCount) {
+            addedCount--;
+            return;
+        }
+        if (deletionCount == deletedIndices.length) {
+            deletedIndices = Arrays.copyOf(deletedIndices, Math.max(8, deletionCount * 2));
+        }
+        deletedIndices[deletionCount++] = index;
     }
 
     /**
      * Marks the task at the specified position as completed.
      * The index is 0-based.
+     * <p>
+     * The task is replaced by a marked copy rather than changed, since a snapshot or
+     * a save in progress may share it; fetch it again to see it marked.
      *
      * @param index The 0-based index of the task to mark.
      * @throws FridayException If the index is invalid.
      */
-    public void markTask(int index) throws FridayException {
+    public synchronized void markTask(int index) throws FridayException {
         if (index < 0 || index >= list.size()) {
             throw new FridayException("Invalid index for markTask: " + index);
         }
-        Task task = this.list.get(index);
-        task.mark();
+        recordChange(index, true);
     }
 
     /**
      * Marks the task at the specified position as not completed.
-     * The index is 0-based.
+     * The index is 0-based. Like {@link #markTask(int)}, this replaces the task.
      *
      * @param index The 0-based index of the task to unmark.
      * @throws FridayException If the index is invalid.
      */
-    public void unmarkTask(int index) throws FridayException {
+    public synchronized void unmarkTask(int index) throws FridayException {
         if (index < 0 || index >= list.size()) {
             throw new FridayException("Invalid index for unmarkTask: " + index);
         }
-        Task task = this.list.get(index);
-        task.unmark();
+        recordChange(index, false);
+    }
+
+    /**
+     * Returns the id the next added task will get.
+     *
+     * @return The next id.
+     */
+    public synchronized long getNextId() {
+        checkIds();
+        return nextId;
+    }
+
+    /**
+     * Makes sure added tasks get ids of at least the given value, as recorded by a
+     * snapshot whose last tasks may have been deleted.
+     *
+     * @param minNextId The smallest id the next added task may get.
+     */
+    public synchronized void reserveIdsBelow(long minNextId) {
+        nextId = Math.max(nextId, minNextId);
+    }
+
+    /**
+     * Returns the task with the given id.
+     *
+     * @param id The id.
+     * @return The task, or {@code null} if no task in the list has that id.
+     */
+    public synchronized Task getById(long id) {
+        return taskOfId(id);
+    }
+
+    /**
+     * Returns the position of the task with the given id.
+     *
+     * @param id The id.
+     * @return The 0-based position of the task, or -1 if no task in the list has that id.
+     */
+    public synchronized int indexOfId(long id) {
+        checkIds();
+        if (idIndex == null) {
+            idIndex = new IdIndex(list.size());
+            recordPositionsFrom(0);
+        }
+        int position = idIndex.get(id);
+        if (position >= idIndex.getStaleFrom()) {
+            // A task before it was deleted since, so the positions from there on are recorded again.
+            recordPositionsFrom(idIndex.getStaleFrom());
+            position = idIndex.get(id);
+        }
+        return position;
+    }
+
+    /** Records the id of every task from the given position onwards, reading ids without keeping tasks. */
+    private void recordPositionsFrom(int start) {
+        for (int i = start; i < list.size(); i++) {
+            idIndex.put(idAt(i), i);
+        }
+        idIndex.markCurrent();
+    }
+
+    /**
+     * Returns the task with the given id, for the indexes, which refer to tasks by id
+     * so that they keep no task of a {@link ColumnarTaskList} alive.
+     */
+    private Task taskOfId(long id) {
+        int index = indexOfId(id);
+        return index < 0 ? null : list.get(index);
+    }
+
+    /** Returns the id of the task at the given position, without caching a lazily loaded one. */
+    private long idAt(int index) {
+        if (list instanceof ColumnarTaskList columnar) {
+            return columnar.idAt(index);
+        } else if (list instanceof LazyTaskList lazy) {
+            return lazy.idAt(index);
+        }
+        return list.get(index).getId();
+    }
+
+    /**
+     * Numbers the tasks loaded without ids, if any, in list order after the largest id
+     * in the list. Tasks only lack ids if the last one does, so only it is looked at
+     * otherwise.
+     */
+    private void checkIds() {
+        if (areIdsChecked) {
+            return;
+        }
+        areIdsChecked = true;
+        if (list.isEmpty()) {
+            return;
+        }
+        Task last = list.get(list.size() - 1);
+        if (last.getId() != 0) {
+            nextId = Math.max(nextId, last.getId() + 1);
+            return;
+        }
+        List<Task> tasks = materializedTasks();
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getId() == 0) {
+                // A columnar list hands out copies, so the numbered task is put back.
+                tasks.get(i).assignId(nextId++);
+                list.set(i, tasks.get(i));
+                hasAssignedIds = true;
+            }
+        }
+        modCount++;
+    }
+
+    private void recordChange(int index, boolean isDone) throws FridayException {
+        Task task = list.get(index);
+        if (task.isCompleted() == isDone) {
+            return;
+        }
+        // A view of the columns is already a copy, and only the columns are shared.
+        Task changed = list instanceof ColumnarTaskList ? task : copyOf(task);
+        if (isDone) {
+            changed.mark();
+        } else {
+            changed.unmark();
+        }
+        list.set(index, changed);
+        if (filterIndex != null) {
+            filterIndex.updateCompletion(changed);
+        }
+        changedIndices.set(index);
+        modCount++;
+        if (snapshot != null) {
+            snapshot = snapshot.withChanged(index, changed, modCount);
+        }
+    }
+
+    /** Returns a copy of the task, sharing its description and dates, which are immutable. */
+    private static Task copyOf(Task task) throws FridayException {
+        Task copy;
+        if (task instanceof Deadline deadline) {
+            copy = new Deadline(deadline.getDescription(), deadline.getDate());
+        } else if (task instanceof Event event) {
+            copy = new Event(event.getDescription(), event.getDate(), event.getStart(), event.getEnd());
+        } else {
+            copy = new ToDo(task.getDescription());
+        }
+        if (task.isCompleted()) {
+            copy.mark();
+        }
+        copy.assignId(task.getId());
+        return copy;
+    }
+
+    /**
+     * Returns the number of changes made through this list since it was created.
+     *
+     * @return The modification count.
+     */
+    public synchronized int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Returns whether any task was added, deleted, marked or unmarked since the
+     * changes were last cleared.
+     *
+     * @return {@code true} if there are unsaved changes.
+     */
+    public synchronized boolean hasChanges() {
+        return deletionCount > 0 || !changedIndices.isEmpty() || hasAssignedIds;
+    }
+
+    /**
+     * Returns whether stored tasks were given ids since the changes were last cleared.
+     * A point operation cannot record an id, so the whole list must be saved.
+     *
+     * @return {@code true} if ids were assigned to stored tasks.
+     */
+    public synchronized boolean hasAssignedIds() {
+        return hasAssignedIds;
+    }
+
+    /**
+     * Returns whether any stored task was deleted since the changes were last cleared.
+     *
+     * @return {@code true} if a task was deleted.
+     */
+    public synchronized boolean hasDeletions() {
+        return deletionCount > 0;
+    }
+
+    /**
+     * Returns the positions of the stored tasks deleted since the changes were last
+     * cleared. Deleting them one after another, in the order given, from the list as
+     * it was when the changes were cleared leaves every remaining task at its current
+     * position, followed by the tasks added since.
+     *
+     * @return The deleted positions, in the order to delete them.
+     */
+    public synchronized int[] getDeletedIndices() {
+        return Arrays.copyOf(deletedIndices, deletionCount);
+    }
+
+    /**
+     * Returns the current 0-based positions of the tasks added, marked or unmarked
+     * since the changes were last cleared, in ascending order.
+     *
+     * @return The changed positions.
+     */
+    public synchronized int[] getChangedIndices() {
+        return changedIndices.stream().toArray();
+    }
+
+    /**
+     * Forgets the recorded changes, typically after they have been persisted.
+     */
+    public synchronized void clearChanges() {
+        hasAssignedIds = false;
+        changedIndices.clear();
+        deletedIndices = new int[0];
+        deletionCount = 0;
+        addedCount = 0;
     }
 
     /**
@@ -74,7 +524,7 @@ public class TaskList {
      *
      * @return The total number of tasks.
      */
-    public int size() {
+    public synchronized int size() {
         return this.list.size();
     }
 
@@ -85,28 +535,154 @@ public class TaskList {
      * @return The {@code Task} at the specified index.
      * @throws FridayException If the index is invalid.
      */
-    public Task get(int index) throws FridayException {
+    public synchronized Task get(int index) throws FridayException {
         if (index < 0 || index >= list.size()) {
             throw new FridayException("Invalid index in getTask: " + index);
         }
-        return this.list.get(index);
+        try {
+            return this.list.get(index);
+        } catch (IllegalStateException e) {
+            // A lazily loaded task failed to parse on first access.
+            if (e.getCause() instanceof FridayException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     /**
-     * Finds all tasks whose string representation contains
-     * the given keyword.
+     * Returns the save string of the task at the specified 0-based index.
+     * Tasks of a lazily loaded list are not materialized just to be saved.
+     *
+     * @param index The 0-based index of the task.
+     * @return The save string of the task.
+     * @throws FridayException If the index is invalid.
+     */
+    public synchronized String getSaveString(int index) throws FridayException {
+        if (list instanceof LazyTaskList lazy && index >= 0 && index < list.size()) {
+            try {
+                return lazy.getSaveString(index);
+            } catch (IllegalStateException e) {
+                // The line failed its checksum on first access.
+                if (e.getCause() instanceof FridayException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return get(index).getSaveString();
+    }
+
+    /**
+     * Returns an immutable snapshot of the tasks as they are now. Once a snapshot
+     * has been taken, every change replaces it with a new one, sharing all but the
+     * part of it the change touched, so later calls return without locking. The
+     * snapshot of a {@link ColumnarTaskList} or a {@link LazyTaskList} keeps its tasks
+     * in columns, so taking it neither creates nor keeps a task object per task.
+     *
+     * @return The current snapshot.
+     */
+    public TaskSnapshot snapshot() {
+        TaskSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                checkIds();
+                boolean isCompact = list instanceof ColumnarTaskList || list instanceof LazyTaskList;
+                snapshot = TaskSnapshot.of(indexedTasks(), modCount, isCompact);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns an unchanging copy of this list, for a save to write from while the list
+     * goes on changing. The copy reads the current {@link #snapshot()}, so it takes
+     * no time once a snapshot exists. A lazily loaded list is copied with its mapped
+     * lines instead, so the tasks that were never read are saved without being parsed.
+     *
+     * @return The copy, which must not be changed.
+     */
+    public synchronized TaskList freeze() {
+        // Numbered first, so the copy saves the ids given to tasks loaded without them.
+        long frozenNextId = getNextId();
+        TaskList frozen = list instanceof LazyTaskList lazy ? new TaskList(lazy.copy()) : new TaskList(snapshot());
+        frozen.nextId = frozenNextId;
+        return frozen;
+    }
+
+    /**
+     * Returns an iterator over the tasks in list order. The iterator does not
+     * support removal; use {@link #deleteTask(int)} instead. It must not be used
+     * while another thread may change the list; iterate a {@link #snapshot()} then.
+     *
+     * @return An iterator over the tasks.
+     */
+    @Override
+    public synchronized Iterator<Task> iterator() {
+        return Collections.unmodifiableList(list).iterator();
+    }
+
+    /**
+     * Finds all tasks whose descriptions contain the given keyword, ignoring case,
+     * whether or not it is a whole word. The search reads the current
+     * {@link #snapshot()} through its indexes, so it does not take the list's lock.
      *
      * @param keyword The keyword to search for.
-     * @return An unmodifiable list of matching {@link Task} objects.
+     * @return An unmodifiable list of matching {@link Task} objects, in list order.
      */
     public List<Task> findTasks(String keyword) {
-        List<Task> results = new ArrayList<>();
-        for (Task task : list) {
-            if (task.toString().contains(keyword)) {
-                results.add(task);
+        return snapshot().findTasks(keyword);
+    }
+
+    /**
+     * Returns the tasks most relevant to the query, best first, tolerating typos;
+     * see {@link InvertedIndex#rank(String, int)}.
+     *
+     * @param query The words to search for.
+     * @param limit The most tasks to return.
+     * @return An unmodifiable list of at most {@code limit} tasks.
+     */
+    public synchronized List<Task> rankTasks(String query, int limit) {
+        return java.util.Collections.unmodifiableList(findIndex().rank(query, limit));
+    }
+
+    /**
+     * Returns a message describing the memory used by the indexes behind {@link #rankTasks(String, int)}.
+     *
+     * @return The message.
+     */
+    public synchronized String describeFindIndex() {
+        return findIndex().describeMemory();
+    }
+
+    /**
+     * Returns a message describing how the tasks themselves are held in memory.
+     *
+     * @return The message.
+     */
+    public synchronized String describeStorage() {
+        if (list instanceof ColumnarTaskList columnar) {
+            long bytes = columnar.allocatedBytes();
+            TaskSnapshot current = snapshot;
+            if (current != null) {
+                bytes += current.allocatedBytes();
             }
+            long perTask = list.isEmpty() ? 0 : bytes / list.size();
+            return "Task storage: " + list.size() + " tasks in columns, about " + perTask + " bytes per task"
+                    + (current == null ? "." : " with the snapshot.");
+        }
+        return "Task storage: " + list.size() + " tasks as objects.";
+    }
+
+    private InvertedIndex findIndex() {
+        if (findIndex == null) {
+            checkIds();
+            findIndex = InvertedIndex.build(indexedTasks(), this::taskOfId);
         }
-        return java.util.Collections.unmodifiableList(results);
+        return findIndex;
     }
 
     /**
@@ -117,24 +693,127 @@ public class TaskList {
      *
      * @param today The reference date to calculate the reminder window.
      * @param days  The number of days ahead to include.
-     * @return An unmodifiable list of tasks occurring within the specified range.
+     * @return An unmodifiable list of tasks occurring within the specified range, ordered by date.
      */
     public List<Task> getUpcomingTasks(LocalDate today, int days) {
-        LocalDate endDate = today.plusDays(days);
-        List<Task> upcoming = new ArrayList<>();
-        for (Task t : list) {
-            if (t instanceof Deadline d) {
-                LocalDate due = d.getDate();
-                if (!due.isBefore(today) && !due.isAfter(endDate)) {
-                    upcoming.add(t);
-                }
-            } else if (t instanceof Event e) {
-                LocalDate eventDate = e.getDate();
-                if (!eventDate.isBefore(today) && !eventDate.isAfter(endDate)) {
-                    upcoming.add(t);
-                }
+        return getTasksBetween(today, today.plusDays(days));
+    }
+
+    /**
+     * Returns a list of tasks dated between the given dates (both inclusive), ordered
+     * by date; tasks on the same date keep their list order.
+     * <p>
+     * Only {@link Deadline} and {@link Event} tasks are considered. Like
+     * {@link #findTasks(String)}, the query reads the current {@link #snapshot()}
+     * without taking the list's lock, except on a {@link SegmentedTaskList}.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return An unmodifiable list of tasks occurring within the range.
+     */
+    public List<Task> getTasksBetween(LocalDate from, LocalDate to) {
+        if (list instanceof SegmentedTaskList segmented) {
+            return getSegmentedTasksBetween(segmented, from, to);
+        }
+        return snapshot().getTasksBetween(from, to);
+    }
+
+    /** Returns the tasks dated in the range, parsing only the months that overlap it. */
+    private synchronized List<Task> getSegmentedTasksBetween(SegmentedTaskList segmented, LocalDate from,
+            LocalDate to) {
+        List<Task> matches = new ArrayList<>();
+        for (Task t : segmented.getTasksInSegments(from, to)) {
+            LocalDate date = DateIndex.dateOf(t);
+            if (!date.isBefore(from) && !date.isAfter(to)) {
+                matches.add(t);
             }
         }
-        return java.util.Collections.unmodifiableList(upcoming);
+        matches.sort(Comparator.comparing(DateIndex::dateOf));
+        return java.util.Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns the events that overlap the given time range, ordered by start time.
+     *
+     * @param start The start of the range.
+     * @param end   The end of the range, exclusive.
+     * @return An unmodifiable list of overlapping events.
+     */
+    public synchronized List<Event> getOverlappingEvents(LocalDateTime start, LocalDateTime end) {
+        List<Event> events = new ArrayList<>();
+        for (Task task : tasksOfIds(eventIndex().overlapping(start, end))) {
+            events.add((Event) task);
+        }
+        return java.util.Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Returns the stretches of time within the given window that no event occupies.
+     *
+     * @param from      The start of the window.
+     * @param to        The end of the window, exclusive.
+     * @param minLength The shortest free slot to report.
+     * @return An unmodifiable list of free slots, in order.
+     */
+    public synchronized List<TimeSlot> getFreeSlots(LocalDateTime from, LocalDateTime to, Duration minLength) {
+        return java.util.Collections.unmodifiableList(eventIndex().free(from, to, minLength));
+    }
+
+    /**
+     * Returns the tasks matching the given filter, in the order they were added.
+     *
+     * @param filter The conditions on type, completion and month.
+     * @return An unmodifiable list of matching tasks.
+     */
+    public synchronized List<Task> filterTasks(TaskFilter filter) {
+        if (filterIndex == null) {
+            checkIds();
+            filterIndex = BitmapIndex.build(indexedTasks());
+        }
+        List<Task> matches = new ArrayList<>();
+        for (long id : filterIndex.select(filter)) {
+            matches.add(taskOfId(id));
+        }
+        return java.util.Collections.unmodifiableList(matches);
+    }
+
+    private EventIndex eventIndex() {
+        if (eventIndex == null) {
+            checkIds();
+            eventIndex = EventIndex.build(indexedTasks());
+        }
+        return eventIndex;
+    }
+
+    private List<Task> tasksOfIds(List<Long> ids) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            tasks.add(taskOfId(id));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the tasks for an index or snapshot to be built from. The tasks of a
+     * {@link ColumnarTaskList} or a {@link LazyTaskList} are read without being
+     * remembered, so they are dropped as soon as the index has taken what it needs.
+     */
+    private List<Task> indexedTasks() {
+        if (list instanceof ColumnarTaskList columnar) {
+            return columnar.views();
+        }
+        if (list instanceof LazyTaskList lazy) {
+            return lazy.views();
+        }
+        return list;
+    }
+
+    /** Returns every task as handed out by {@code get}, so a lazily loaded list caches them. */
+    private List<Task> materializedTasks() {
+        List<Task> tasks = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            tasks.add(list.get(i));
+        }
+        return tasks;
     }
 }
@@ -0,0 +1,445 @@
+package friday;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An immutable view of the tasks of a {@link TaskList} as they were at one moment,
+ * which any number of threads can read without locking while the list changes.
+ * <p>
+ * The snapshot shares the task objects of the list, which {@link TaskList} never
+ * changes in place once they are in it: marking a task replaces it with a marked
+ * copy. A change to the list thus never shows through an older snapshot. The tasks
+ * are kept in chunks of at most {@value #CHUNK_CAPACITY}, and each change produces a
+ * new snapshot sharing every chunk but the one it touches; a change thus copies one
+ * chunk and the array of chunk references, not the whole list.
+ * <p>
+ * A compact snapshot, taken of a {@link ColumnarTaskList} or a {@link LazyTaskList},
+ * keeps the tasks of each chunk in columns of its own and builds a view on every
+ * {@link #get(int)}, so it holds no {@link Task} objects and costs about as much as
+ * the columns themselves.
+ * <p>
+ * {@link #findTasks(String)} and {@link #getTasksBetween(LocalDate, LocalDate)} are
+ * answered from indexes kept with each chunk, built on the first search of the chunk.
+ * A new snapshot shares the indexes of the chunks it shares, so after a change only
+ * the chunk it touched is indexed again, and not even that one after a task is
+ * marked or unmarked.
+ */
+public final class TaskSnapshot extends AbstractList<Task> implements RandomAccess {
+    private static final int CHUNK_CAPACITY = 512;
+
+    private final Chunk[] chunks;
+    /** Position of the first task of each chunk, for locating a position by binary search. */
+    private final int[] starts;
+    private final int size;
+    private final int version;
+    private final boolean isCompact;
+
+    private TaskSnapshot(Chunk[] chunks, int version, boolean isCompact) {
+        this.chunks = chunks;
+        this.starts = new int[chunks.length];
+        int position = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            starts[i] = position;
+            position += chunks[i].size();
+        }
+        this.size = position;
+        this.version = version;
+        this.isCompact = isCompact;
+    }
+
+    /**
+     * Returns a snapshot of the given tasks.
+     *
+     * @param tasks     The tasks, in list order.
+     * @param version   The modification count of the list they were taken from.
+     * @param isCompact Whether to keep the tasks in columns rather than as objects.
+     * @return The snapshot.
+     */
+    static TaskSnapshot of(List<Task> tasks, int version, boolean isCompact) {
+        return new TaskSnapshot(new Chunk[0], version, isCompact).packed(tasks, new Chunk[0], version);
+    }
+
+    /**
+     * Returns a snapshot with the given task added at the end.
+     *
+     * @param task    The task added to the list.
+     * @param version The modification count of the list after the addition.
+     * @return The new snapshot.
+     */
+    TaskSnapshot withAdded(Task task, int version) {
+        return withAddedAll(List.of(task), version);
+    }
+
+    /**
+     * Returns a snapshot with the given tasks added at the end, copying the array of
+     * chunk references once however many tasks there are.
+     *
+     * @param tasks   The tasks added to the list, in order.
+     * @param version The modification count of the list after the additions.
+     * @return The new snapshot.
+     */
+    TaskSnapshot withAddedAll(List<Task> tasks, int version) {
+        if (tasks.isEmpty()) {
+            return withVersion(version);
+        }
+        int last = chunks.length - 1;
+        if (last >= 0 && chunks[last].size() < CHUNK_CAPACITY) {
+            // Fill up the last chunk first.
+            List<Task> added = new ArrayList<>(chunks[last].tasks());
+            added.addAll(tasks);
+            return packed(added, Arrays.copyOf(chunks, last), version);
+        }
+        return packed(tasks, chunks, version);
+    }
+
+    /**
+     * Returns a snapshot without the task at the given position.
+     *
+     * @param index   The 0-based position of the task deleted from the list.
+     * @param version The modification count of the list after the deletion.
+     * @return The new snapshot.
+     */
+    TaskSnapshot withRemoved(int index, int version) {
+        int chunk = chunkOf(index);
+        List<Task> shrunk = new ArrayList<>(chunks[chunk].tasks());
+        shrunk.remove(index - starts[chunk]);
+        int replaced = 1;
+        if (chunk + 1 < chunks.length && shrunk.size() + chunks[chunk + 1].size() <= CHUNK_CAPACITY / 2) {
+            // Merge with the next chunk, so deletions do not leave many tiny chunks.
+            shrunk.addAll(chunks[chunk + 1].tasks());
+            replaced = 2;
+        }
+        Chunk[] copy = new Chunk[chunks.length - replaced + (shrunk.isEmpty() ? 0 : 1)];
+        System.arraycopy(chunks, 0, copy, 0, chunk);
+        if (!shrunk.isEmpty()) {
+            copy[chunk] = chunkOf(shrunk);
+        }
+        System.arraycopy(chunks, chunk + replaced, copy, copy.length - (chunks.length - chunk - replaced),
+                chunks.length - chunk - replaced);
+        return new TaskSnapshot(copy, version, isCompact);
+    }
+
+    /**
+     * Returns a snapshot without the tasks at the given positions, repacking the
+     * remaining tasks into full chunks in one pass.
+     *
+     * @param positions The 0-based positions of the tasks deleted from the list.
+     * @param version   The modification count of the list after the deletions.
+     * @return The new snapshot.
+     */
+    TaskSnapshot withRemovedAll(BitSet positions, int version) {
+        List<Task> kept = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (!positions.get(i)) {
+                kept.add(get(i));
+            }
+        }
+        return packed(kept, new Chunk[0], version);
+    }
+
+    /**
+     * Returns a snapshot with the task at the given position replaced, after it was
+     * marked or unmarked.
+     *
+     * @param index   The 0-based position of the task.
+     * @param task    The task that replaced it in the list.
+     * @param version The modification count of the list after the change.
+     * @return The new snapshot.
+     */
+    TaskSnapshot withChanged(int index, Task task, int version) {
+        int chunk = chunkOf(index);
+        List<Task> changed = new ArrayList<>(chunks[chunk].tasks());
+        changed.set(index - starts[chunk], task);
+        Task previous = chunks[chunk].get(index - starts[chunk]);
+        Chunk[] copy = chunks.clone();
+        copy[chunk] = chunkOf(changed);
+        if (previous.getDescription().equals(task.getDescription())
+                && Objects.equals(DateIndex.dateOf(previous), DateIndex.dateOf(task))) {
+            // Marking or unmarking a task leaves every indexed field as it was.
+            copy[chunk].withIndexOf(chunks[chunk]);
+        }
+        return new TaskSnapshot(copy, version, isCompact);
+    }
+
+    private TaskSnapshot withVersion(int version) {
+        return version == this.version ? this : new TaskSnapshot(chunks, version, isCompact);
+    }
+
+    /** Returns a snapshot of the kept chunks followed by the tasks in full chunks. */
+    private TaskSnapshot packed(List<Task> tasks, Chunk[] kept, int version) {
+        int added = (tasks.size() + CHUNK_CAPACITY - 1) / CHUNK_CAPACITY;
+        Chunk[] copy = Arrays.copyOf(kept, kept.length + added);
+        for (int i = 0; i < added; i++) {
+            int from = i * CHUNK_CAPACITY;
+            copy[kept.length + i] = chunkOf(tasks.subList(from, Math.min(tasks.size(), from + CHUNK_CAPACITY)));
+        }
+        return new TaskSnapshot(copy, version, isCompact);
+    }
+
+    private Chunk chunkOf(List<Task> tasks) {
+        if (isCompact) {
+            return new ColumnChunk(ColumnarTaskList.of(tasks));
+        }
+        return new ObjectChunk(tasks.toArray(new Task[0]));
+    }
+
+    /**
+     * Returns the modification count of the list when this snapshot was taken, so
+     * a reader can tell whether two snapshots show the same state.
+     *
+     * @return The modification count.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int chunk = chunkOf(index);
+        return chunks[chunk].get(index - starts[chunk]);
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain the keyword, ignoring case, in
+     * list order, whether or not it is a whole word. Each chunk is searched through
+     * its own index (see {@link ChunkIndex}), so no lock is needed.
+     *
+     * @param keyword The text to look for.
+     * @return An unmodifiable list of matching tasks.
+     */
+    public List<Task> findTasks(String keyword) {
+        String query = keyword.toLowerCase(Locale.ROOT);
+        List<Task> matches = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            long[] candidates = chunk.index().candidates(query);
+            int count = candidates == null ? chunk.size() : candidates.length;
+            for (int i = 0; i < count; i++) {
+                Task task = chunk.get(candidates == null ? i : (int) candidates[i]);
+                if (task.getDescription().toLowerCase(Locale.ROOT).contains(query)) {
+                    matches.add(task);
+                }
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns the deadlines and events dated within the given number of days from
+     * the given date, ordered by date.
+     *
+     * @param today The first date of the window.
+     * @param days  The number of days ahead to include.
+     * @return An unmodifiable list of upcoming tasks.
+     */
+    public List<Task> getUpcomingTasks(LocalDate today, int days) {
+        return getTasksBetween(today, today.plusDays(days));
+    }
+
+    /**
+     * Returns the deadlines and events dated between the given dates (both
+     * inclusive), ordered by date; tasks on the same date keep their list order.
+     * Each chunk is searched through its own {@link DateIndex}.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return An unmodifiable list of matching tasks.
+     */
+    public List<Task> getTasksBetween(LocalDate from, LocalDate to) {
+        List<Task> matches = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            for (int offset : chunk.index().dates.between(from, to)) {
+                matches.add(chunk.get(offset));
+            }
+        }
+        // The sort is stable and the chunks are in list order, so ties stay in list order.
+        matches.sort(Comparator.comparing(DateIndex::dateOf));
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns the number of bytes allocated for the chunks of a compact snapshot, or
+     * for the references to the tasks of one that is not.
+     *
+     * @return The allocated size in bytes.
+     */
+    long allocatedBytes() {
+        long bytes = (long) chunks.length * Integer.BYTES;
+        for (Chunk chunk : chunks) {
+            bytes += chunk.allocatedBytes();
+        }
+        return bytes;
+    }
+
+    private int chunkOf(int index) {
+        int chunk = Arrays.binarySearch(starts, index);
+        return chunk >= 0 ? chunk : -chunk - 2;
+    }
+
+    /** A run of consecutive tasks of the snapshot, never changed once built. */
+    private abstract static class Chunk {
+        /** Built on the first search of the chunk; two readers racing may both build it. */
+        private volatile ChunkIndex index;
+
+        /** Returns the index of the chunk, building it on first use. */
+        ChunkIndex index() {
+            ChunkIndex current = index;
+            if (current == null) {
+                current = new ChunkIndex(tasks());
+                index = current;
+            }
+            return current;
+        }
+
+        /**
+         * Takes over the index of the chunk this one replaces, if it was built and the
+         * replacement only changed tasks in ways the index does not record.
+         */
+        Chunk withIndexOf(Chunk replaced) {
+            index = replaced.index;
+            return this;
+        }
+
+        abstract int size();
+
+        abstract Task get(int offset);
+
+        abstract long allocatedBytes();
+
+        /** Returns the tasks of the chunk, for building a changed chunk from. */
+        List<Task> tasks() {
+            Task[] tasks = new Task[size()];
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = get(i);
+            }
+            return Arrays.asList(tasks);
+        }
+    }
+
+    /** A chunk holding the task objects of the list. */
+    private static final class ObjectChunk extends Chunk {
+        private final Task[] tasks;
+
+        ObjectChunk(Task[] tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        int size() {
+            return tasks.length;
+        }
+
+        @Override
+        Task get(int offset) {
+            return tasks[offset];
+        }
+
+        @Override
+        long allocatedBytes() {
+            return (long) tasks.length * Long.BYTES;
+        }
+    }
+
+    /** A chunk holding its tasks in columns, building a new view of a task on every read. */
+    private static final class ColumnChunk extends Chunk {
+        private final ColumnarTaskList columns;
+
+        ColumnChunk(ColumnarTaskList columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        int size() {
+            return columns.size();
+        }
+
+        @Override
+        Task get(int offset) {
+            return columns.view(offset);
+        }
+
+        @Override
+        long allocatedBytes() {
+            return columns.allocatedBytes();
+        }
+    }
+
+    /**
+     * The word, trigram and date indexes of one chunk, addressing its tasks by their
+     * offsets in the chunk. A chunk never changes, so neither does its index, and a
+     * change to the list only leaves the one chunk it touched to be indexed again.
+     */
+    private static final class ChunkIndex {
+        /** Limit on the trigram postings of one chunk, about 256 per task of a full chunk. */
+        private static final long MAX_TRIGRAM_POSTINGS = CHUNK_CAPACITY * 256L;
+
+        private final TrigramIndex trigrams = new TrigramIndex(MAX_TRIGRAM_POSTINGS);
+        private final Map<String, Postings> words = new HashMap<>();
+        private final DateIndex dates;
+
+        private ChunkIndex(List<Task> tasks) {
+            for (int offset = 0; offset < tasks.size(); offset++) {
+                String description = tasks.get(offset).getDescription();
+                trigrams.add(offset, description);
+                for (String word : InvertedIndex.tokenize(description)) {
+                    words.computeIfAbsent(word, unused -> new Postings()).append(offset);
+                }
+            }
+            this.dates = DateIndex.build(tasks);
+        }
+
+        /**
+         * Returns the sorted offsets of the tasks that may contain the lower-case query,
+         * or {@code null} if every task must be checked. Queries of three characters or
+         * more go through the trigrams; a shorter one is a single word, or part of one,
+         * and goes through the words containing it.
+         */
+        long[] candidates(String query) {
+            long[] candidates = trigrams.candidates(query);
+            if (candidates != null) {
+                return candidates;
+            }
+            List<String> queryWords = InvertedIndex.tokenize(query);
+            if (queryWords.size() != 1) {
+                return null;
+            }
+            Postings union = new Postings();
+            for (Map.Entry<String, Postings> entry : words.entrySet()) {
+                if (entry.getKey().contains(queryWords.get(0))) {
+                    Postings wordPostings = entry.getValue();
+                    for (int i = 0; i < wordPostings.size; i++) {
+                        union.append(wordPostings.values[i]);
+                    }
+                }
+            }
+            long[] offsets = union.toArray();
+            Arrays.sort(offsets);
+            int distinct = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                if (i == 0 || offsets[i] != offsets[i - 1]) {
+                    offsets[distinct++] = offsets[i];
+                }
+            }
+            return Arrays.copyOf(offsets, distinct);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package friday;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A persistent store of the task list.
+ * <p>
+ * Tasks are addressed by their 0-based position in the list, as in {@link TaskList}.
+ * The application loads the list once with {@link #loadTaskList(Parser)} and then
+ * reports every change with a point operation, so that a store can persist it
+ * without rewriting everything. Stores may also answer date range scans and full
+ * iterations directly from disk.
+ * <p>
+ * {@link Storage} keeps the list in text, binary or segmented files with a journal;
+ * {@link BTreeTaskStore} keeps it in a single paged B+-tree file.
+ */
+public interface TaskStore {
+    /**
+     * Receives tasks from {@link #forEach(Parser, TaskVisitor)}.
+     */
+    interface TaskVisitor {
+        /**
+         * Handles one task.
+         *
+         * @param task The task.
+         * @throws FridayException If the task cannot be handled.
+         */
+        void visit(Task task) throws FridayException;
+    }
+
+    /**
+     * Opens the store selected by the system properties described in
+     * {@link StorageConfig}, saving to {@code ./data/Friday.txt} and its siblings.
+     *
+     * @return The store.
+     */
+    static TaskStore open() {
+        // This represents ./data/Friday.txt
+        return open(Paths.get("data", "Friday.txt"), StorageConfig.fromSystemProperties());
+    }
+
+    /**
+     * Opens the store selected by the given config.
+     *
+     * @param filePath Path of the text save file; other files are kept alongside it.
+     * @param config   The storage settings.
+     * @return The store.
+     */
+    static TaskStore open(Path filePath, StorageConfig config) {
+        if (config.getStoreEngine() == StoreEngine.BTREE) {
+            return new BTreeTaskStore(filePath, config);
+        }
+        return new Storage(filePath, config);
+    }
+
+    /**
+     * Loads every task into memory.
+     *
+     * @param parser The {@code Parser} used to interpret saved tasks.
+     * @return The loaded list.
+     * @throws FridayException If the store cannot be read.
+     */
+    TaskList loadTaskList(Parser parser) throws FridayException;
+
+    /**
+     * Returns what the last {@link #loadTaskList(Parser)} had to salvage from damaged
+     * files. Stores that cannot salvage anything report a clean load.
+     *
+     * @return The report.
+     */
+    default LoadReport getLoadReport() {
+        return new LoadReport();
+    }
+
+    /**
+     * Stores a task at the given position. A position equal to the number of stored
+     * tasks appends a new task; any other position replaces the task stored there.
+     *
+     * @param index The 0-based position.
+     * @param task  The task.
+     * @throws FridayException If the change cannot be stored.
+     */
+    void put(int index, Task task) throws FridayException;
+
+    /**
+     * Deletes the task at the given position; later tasks move up by one.
+     *
+     * @param index The 0-based position.
+     * @throws FridayException If the change cannot be stored.
+     */
+    void delete(int index) throws FridayException;
+
+    /**
+     * Returns the deadlines and events dated within the given inclusive range.
+     *
+     * @param from   The first date.
+     * @param to     The last date.
+     * @param parser The {@code Parser} used to interpret saved tasks.
+     * @return The matching tasks.
+     * @throws FridayException If the store cannot be read.
+     */
+    List<Task> scanByDate(LocalDate from, LocalDate to, Parser parser) throws FridayException;
+
+    /**
+     * Visits every stored task in list order. Stores that can read tasks one at a
+     * time from disk do so without keeping them in memory.
+     *
+     * @param parser  The {@code Parser} used to interpret saved tasks.
+     * @param visitor Receives the tasks.
+     * @throws FridayException If the store cannot be read or the visitor fails.
+     */
+    void forEach(Parser parser, TaskVisitor visitor) throws FridayException;
+
+    /**
+     * Replaces the stored tasks with the given list.
+     *
+     * @param list The tasks to store.
+     * @throws FridayException If the list cannot be stored.
+     */
+    void saveTaskList(TaskList list) throws FridayException;
+
+    /**
+     * Persists only the changes the list recorded since they were last cleared, then
+     * clears them. Deleted tasks are removed with {@link #delete} in the order the list
+     * gives, and then added, marked and unmarked tasks are stored with {@link #put} in
+     * ascending order, so additions append. If that would take more point operations
+     * than there are tasks left, or stored tasks were given ids, the whole list is
+     * saved instead.
+     *
+     * @param list The list, previously loaded from or saved to this store.
+     * @throws FridayException If the changes cannot be stored.
+     */
+    default void saveChanges(TaskList list) throws FridayException {
+        int[] deleted = list.getDeletedIndices();
+        int[] changed = list.getChangedIndices();
+        if (list.hasAssignedIds() || deleted.length + changed.length > Math.max(1, list.size())) {
+            saveTaskList(list);
+            return;
+        }
+        for (int index : deleted) {
+            delete(index);
+        }
+        for (int index : changed) {
+            put(index, list.get(index));
+        }
+        list.clearChanges();
+    }
+
+    /**
+     * Gives the store a chance to reorganise itself after a command.
+     *
+     * @param list The current list.
+     * @throws FridayException If an earlier write failed.
+     */
+    void compactIfNeeded(TaskList list) throws FridayException;
+
+    /**
+     * Blocks until every change so far is on disk.
+     *
+     * @throws FridayException If a pending write failed.
+     */
+    void flush() throws FridayException;
+
+    /**
+     * Flushes all changes and releases the underlying files.
+     *
+     * @throws FridayException If a pending write failed.
+     */
+    void close() throws FridayException;
+}
@@ -0,0 +1,70 @@
+package friday;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The tasks a {@code mark}, {@code unmark} or {@code delete} command applies to when
+ * it names more than one: task numbers and ranges of them, such as {@code 3,7,9-12},
+ * or the tasks matching a search, such as {@code find:assignment}.
+ */
+public class TaskTargets {
+    private final List<int[]> ranges;
+    private final String keyword;
+
+    private TaskTargets(List<int[]> ranges, String keyword) {
+        this.ranges = ranges;
+        this.keyword = keyword;
+    }
+
+    /**
+     * Returns the targets given by task numbers and ranges of them.
+     *
+     * @param ranges The 1-based first and last number of each range, both inclusive.
+     * @return The targets.
+     */
+    public static TaskTargets ofRanges(List<int[]> ranges) {
+        return new TaskTargets(List.copyOf(ranges), null);
+    }
+
+    /**
+     * Returns the targets given by a search.
+     *
+     * @param keyword The keyword, as given to {@code find}.
+     * @return The targets.
+     */
+    public static TaskTargets ofSearch(String keyword) {
+        return new TaskTargets(List.of(), keyword);
+    }
+
+    /**
+     * Returns the positions of the targeted tasks in the given list. Every number is
+     * checked before any position is returned, so a command either applies to all of
+     * its targets or fails without changing anything.
+     *
+     * @param list The current list.
+     * @return The 0-based positions of the targeted tasks.
+     * @throws FridayException If a number is beyond the end of the list, or nothing matches.
+     */
+    public BitSet resolve(TaskList list) throws FridayException {
+        BitSet positions = new BitSet();
+        if (keyword != null) {
+            // The search does not report positions, so each match is located by its id.
+            for (Task task : list.findTasks(keyword)) {
+                positions.set(list.indexOfId(task.getId()));
+            }
+            if (positions.isEmpty()) {
+                throw new FridayException("No tasks match \"" + keyword + "\".");
+            }
+            return positions;
+        }
+        for (int[] range : ranges) {
+            if (range[1] > list.size()) {
+                throw new FridayException("Task number " + range[1] + " is out of range; there are "
+                        + list.size() + " tasks.");
+            }
+            positions.set(range[0] - 1, range[1]);
+        }
+        return positions;
+    }
+}
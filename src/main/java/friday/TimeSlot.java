@@ -0,0 +1,44 @@
+package friday;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * A half-open span of time, from its start up to but excluding its end.
+ */
+public class TimeSlot {
+    private static final DateTimeFormatter OUTPUT = DateTimeFormatter.ofPattern("MMM dd yyyy h:mma", Locale.ENGLISH);
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    /**
+     * Constructs a {@code TimeSlot}.
+     *
+     * @param start The first instant of the slot.
+     * @param end   The instant just after the slot.
+     */
+    public TimeSlot(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public Duration getLength() {
+        return Duration.between(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return start.format(OUTPUT) + " to " + end.format(OUTPUT);
+    }
+}
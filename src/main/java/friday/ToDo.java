@@ -22,13 +22,13 @@ public class ToDo extends Task {
     }
 
     /**
-     * Returns the string representation of this to-do task for display to the user.
+     * Builds the string representation of this to-do task for display to the user.
      *
      * @return A formatted string representing the to-do task.
      */
     @Override
-    public String toString() {
-        return "[T] " + super.toString();
+    protected String render() {
+        return "[T] " + super.render();
     }
 
     /**
@@ -39,7 +39,6 @@ public class ToDo extends Task {
      */
     @Override
     public String toSaveString() {
-        String safeDescription = getDescription().replace(" | ", " \\| ");
-        return "T | " + (isCompleted() ? "1" : "0") + " | " + safeDescription;
+        return "T | " + (isCompleted() ? "1" : "0") + " | " + escapedDescription() + idField();
     }
 }
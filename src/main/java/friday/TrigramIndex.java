@@ -0,0 +1,197 @@
+package friday;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An index from every three-character sequence of the task descriptions to the
+ * ordinals of the tasks containing it, used to answer substring queries.
+ * <p>
+ * Descriptions are indexed in lower case, spaces and punctuation included, so any
+ * fragment of at least three characters can be looked up: every description that
+ * contains the fragment also contains each of its trigrams, so intersecting their
+ * postings yields a small set of candidates that the caller then verifies. Shorter
+ * fragments are not answered and must be served some other way.
+ * <p>
+ * The memory used is bounded by a limit on the total number of postings. Once an
+ * added task would exceed it, the index drops all its postings and stops answering
+ * queries, rather than growing without bound. It goes on counting the postings the
+ * descriptions would need, and once deletions bring that down to half the limit,
+ * {@link #isRebuildable()} tells the owner to add the descriptions again.
+ */
+public class TrigramIndex {
+    /** Default limit on the total number of postings, about 32 MB of ordinals. */
+    public static final long DEFAULT_MAX_POSTINGS = 4_000_000;
+
+    private static final int GRAM_LENGTH = 3;
+    /** Approximate bytes per trigram for its map entry, boxed key and postings header. */
+    private static final long BYTES_PER_TRIGRAM = 96;
+    private static final long BYTES_PER_POSTING = Long.BYTES;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final long maxPostings;
+    private long postingCount;
+    private boolean isOverflowed;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param maxPostings The most postings the index may hold.
+     */
+    public TrigramIndex(long maxPostings) {
+        this.maxPostings = maxPostings;
+    }
+
+    /**
+     * Indexes the description of a task. Ordinals must be added in increasing order.
+     *
+     * @param ordinal     The ordinal of the task.
+     * @param description Its description.
+     */
+    public void add(long ordinal, String description) {
+        long[] grams = trigrams(description.toLowerCase(Locale.ROOT));
+        if (isOverflowed) {
+            postingCount += grams.length;
+            return;
+        }
+        if (postingCount + grams.length > maxPostings) {
+            postings.clear();
+            postingCount += grams.length;
+            isOverflowed = true;
+            return;
+        }
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, unused -> new Postings()).append(ordinal);
+        }
+        postingCount += grams.length;
+    }
+
+    /**
+     * Removes the description of a task from the index.
+     *
+     * @param ordinal     The ordinal of the task.
+     * @param description Its description.
+     */
+    public void remove(long ordinal, String description) {
+        if (isOverflowed) {
+            postingCount -= trigrams(description.toLowerCase(Locale.ROOT)).length;
+            return;
+        }
+        for (long gram : trigrams(description.toLowerCase(Locale.ROOT))) {
+            Postings gramPostings = postings.get(gram);
+            if (gramPostings != null && gramPostings.remove(ordinal)) {
+                postingCount--;
+                if (gramPostings.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the ordinals of the tasks that may contain the given lower-case query.
+     * Every task that contains it is among them, but they must still be verified.
+     *
+     * @param query The lower-case query.
+     * @return The sorted candidate ordinals, or {@code null} if the query is shorter
+     *     than three characters or the index has overflowed.
+     */
+    public long[] candidates(String query) {
+        if (isOverflowed || query.length() < GRAM_LENGTH) {
+            return null;
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (long gram : trigrams(query)) {
+            Postings gramPostings = postings.get(gram);
+            if (gramPostings == null) {
+                return new long[0];
+            }
+            lists.add(gramPostings);
+        }
+        // Starting from the rarest trigram keeps every intersection small.
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        long[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = Postings.intersect(result, lists.get(i).values, lists.get(i).size);
+        }
+        return result;
+    }
+
+    public boolean isOverflowed() {
+        return isOverflowed;
+    }
+
+    /**
+     * Returns whether the index has overflowed but the descriptions now need no more
+     * than half the postings allowed, so it can be rebuilt with room to grow.
+     *
+     * @return {@code true} if the owner should call {@link #clear()} and add every
+     *     description again.
+     */
+    public boolean isRebuildable() {
+        return isOverflowed && postingCount <= maxPostings / 2;
+    }
+
+    /**
+     * Empties the index and lets it answer queries again once descriptions are added.
+     */
+    public void clear() {
+        postings.clear();
+        postingCount = 0;
+        isOverflowed = false;
+    }
+
+    /**
+     * Returns the approximate number of bytes the index occupies.
+     *
+     * @return The estimate, counting map entries and allocated posting arrays.
+     */
+    public long estimatedBytes() {
+        long bytes = postings.size() * BYTES_PER_TRIGRAM;
+        for (Postings gramPostings : postings.values()) {
+            bytes += gramPostings.values.length * BYTES_PER_POSTING;
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns a message for the user describing the size of the index.
+     *
+     * @return The message.
+     */
+    @Override
+    public String toString() {
+        if (isOverflowed) {
+            return "Substring index disabled: it would need " + postingCount + " of at most " + maxPostings
+                    + " postings.";
+        }
+        return String.format("Substring index: %d trigrams, %d of at most %d postings, about %d KB.",
+                postings.size(), postingCount, maxPostings, (estimatedBytes() + 1023) / 1024);
+    }
+
+    /**
+     * Returns the distinct trigrams of the given text, each packed into a long.
+     *
+     * @param text The text.
+     * @return The trigrams in ascending order.
+     */
+    static long[] trigrams(String text) {
+        int count = Math.max(0, text.length() - GRAM_LENGTH + 1);
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+}
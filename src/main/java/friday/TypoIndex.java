@@ -0,0 +1,88 @@
+package friday;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index from the trigrams of the dictionary words of an {@link InvertedIndex} to
+ * the words, for finding the words within a few edits of a query word without
+ * comparing it with every word.
+ * <p>
+ * Each word is padded with two spaces at either end, so a word of {@code n}
+ * characters has {@code n + 2} trigrams, even the first and last characters being
+ * covered by three. One edit changes at most {@value #GRAMS_PER_EDIT} of a word's
+ * trigrams, a swap of adjacent characters being the worst case, so a word within
+ * {@code d} edits of a term shares all but {@code 4d} of the term's distinct trigrams,
+ * and at least one as long as the term has more than {@code 4d} trigrams. Only the
+ * words passing that count, and differing in length by at most {@code d}, are
+ * candidates for the edit distance to be computed.
+ */
+public class TypoIndex {
+    private static final int GRAMS_PER_EDIT = 4;
+    private static final String PADDING = "  ";
+
+    private final Map<Long, Set<String>> wordsByGram = new HashMap<>();
+
+    /**
+     * Indexes a word added to the dictionary.
+     *
+     * @param word The word.
+     */
+    public void add(String word) {
+        for (long gram : gramsOf(word)) {
+            wordsByGram.computeIfAbsent(gram, unused -> new HashSet<>()).add(word);
+        }
+    }
+
+    /**
+     * Removes a word no longer in the dictionary.
+     *
+     * @param word The word.
+     */
+    public void remove(String word) {
+        for (long gram : gramsOf(word)) {
+            Set<String> words = wordsByGram.get(gram);
+            if (words != null && words.remove(word) && words.isEmpty()) {
+                wordsByGram.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Returns the words that may be within the given number of edits of the term.
+     * Every word that is within it is returned, along with some that are not.
+     *
+     * @param term     The query word.
+     * @param maxTypos The largest edit distance wanted, at most {@code (term.length() + 1) / 4}.
+     * @return The candidate words.
+     */
+    public Set<String> candidates(String term, int maxTypos) {
+        long[] grams = gramsOf(term);
+        int minShared = Math.max(1, grams.length - GRAMS_PER_EDIT * maxTypos);
+        Map<String, Integer> shared = new HashMap<>();
+        for (long gram : grams) {
+            Set<String> words = wordsByGram.get(gram);
+            if (words == null) {
+                continue;
+            }
+            for (String word : words) {
+                if (Math.abs(word.length() - term.length()) <= maxTypos) {
+                    shared.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+        Set<String> candidates = new HashSet<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() >= minShared) {
+                candidates.add(entry.getKey());
+            }
+        }
+        return candidates;
+    }
+
+    private static long[] gramsOf(String word) {
+        return TrigramIndex.trigrams(PADDING + word + PADDING);
+    }
+}
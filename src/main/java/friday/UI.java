@@ -1,5 +1,6 @@
 package friday;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Scanner;
 
@@ -9,6 +10,10 @@ import java.util.Scanner;
  */
 public class UI {
     private static final String INDENTATION = "    ";
+    /** Number of tasks listed after a command that changed many of them. */
+    private static final int MAX_TASKS_SHOWN = 10;
+    /** Characters of a long listing collected before they are printed. */
+    private static final int OUTPUT_BLOCK_SIZE = 1 << 14;
     private final Scanner scanner;
 
     public UI() {
@@ -50,13 +55,36 @@ public class UI {
             return;
         }
         System.out.println("Here are the tasks in your list:");
-        for (int i = 0; i < list.size(); i++) {
-            try {
-                System.out.println((i + 1) + ". " + list.get(i));
-            } catch (FridayException e) {
-                System.out.println("Error displaying task at index " + i + ": " + e.getMessage());
+        printNumbered(list.snapshot());
+    }
+
+    /** Prints the tasks one per line, numbered from 1. */
+    private void printNumbered(List<? extends Task> tasks) {
+        // Written in blocks of lines, so a long list is not flushed line by line.
+        StringBuilder output = new StringBuilder(OUTPUT_BLOCK_SIZE);
+        int number = 1;
+        for (Task task : tasks) {
+            appendTask(output.append(number).append(". "), task).append(System.lineSeparator());
+            number++;
+            if (output.length() >= OUTPUT_BLOCK_SIZE) {
+                System.out.print(output);
+                output.setLength(0);
             }
         }
+        System.out.print(output);
+    }
+
+    /** Prints one task on its own indented line. */
+    private void printIndented(Task task) {
+        System.out.println(appendTask(new StringBuilder(INDENTATION), task));
+    }
+
+    /**
+     * Appends a task as it is shown to the user, followed by its id, which the user
+     * can give instead of its number, as in {@code mark #12}.
+     */
+    private static StringBuilder appendTask(StringBuilder output, Task task) {
+        return output.append(task).append(" #").append(task.getId());
     }
 
     /**
@@ -71,7 +99,7 @@ public class UI {
             return;
         }
         System.out.println("Got it. I've added this task:");
-        System.out.println(INDENTATION + task.toString());
+        printIndented(task);
         System.out.println("Now you have " + list.size() + " tasks in the list.");
     }
 
@@ -86,7 +114,7 @@ public class UI {
             return;
         }
         System.out.println("Nice! I've marked this task as done:");
-        System.out.println(INDENTATION + task.toString());
+        printIndented(task);
     }
 
     /**
@@ -100,7 +128,7 @@ public class UI {
             return;
         }
         System.out.println("OK, I've marked this task as not done yet:");
-        System.out.println(INDENTATION + task.toString());
+        printIndented(task);
     }
 
     /**
@@ -115,10 +143,62 @@ public class UI {
             return;
         }
         System.out.println("Noted. I've removed this task:");
-        System.out.println(INDENTATION + task.toString());
+        printIndented(task);
+        System.out.println("Now you have " + list.size() + " tasks in the list.");
+    }
+
+    /**
+     * Prints a confirmation message after several tasks are marked as done.
+     *
+     * @param tasks The tasks that were marked.
+     */
+    public void printMarkTasks(List<Task> tasks) {
+        System.out.println("Nice! I've marked these " + tasks.size() + " tasks as done:");
+        printSome(tasks);
+    }
+
+    /**
+     * Prints a confirmation message after several tasks are marked as not done.
+     *
+     * @param tasks The tasks that were unmarked.
+     */
+    public void printUnmarkTasks(List<Task> tasks) {
+        System.out.println("OK, I've marked these " + tasks.size() + " tasks as not done yet:");
+        printSome(tasks);
+    }
+
+    /**
+     * Prints a confirmation message after several tasks are deleted.
+     *
+     * @param tasks The tasks that were removed.
+     * @param list  The {@code TaskList} after deletion.
+     */
+    public void printDeleteTasks(List<Task> tasks, TaskList list) {
+        System.out.println("Noted. I've removed these " + tasks.size() + " tasks:");
+        printSome(tasks);
         System.out.println("Now you have " + list.size() + " tasks in the list.");
     }
 
+    /** Prints the first few of the tasks and how many more there are. */
+    private void printSome(List<Task> tasks) {
+        int shown = Math.min(tasks.size(), MAX_TASKS_SHOWN);
+        for (int i = 0; i < shown; i++) {
+            printIndented(tasks.get(i));
+        }
+        if (tasks.size() > shown) {
+            System.out.println(INDENTATION + "...and " + (tasks.size() - shown) + " more.");
+        }
+    }
+
+    /**
+     * Prints a warning about tasks that could not be loaded at startup.
+     *
+     * @param warning The warning to display. Must not be null.
+     */
+    public void printLoadWarning(String warning) {
+        System.out.println(warning);
+    }
+
     /**
      * Prints an error message to inform the user of an exception.
      *
@@ -144,10 +224,56 @@ public class UI {
             return;
         }
         System.out.println("Here are the matching tasks in your list:");
-        List<Task> matches = list.findTasks(keyword);
-        for (int i = 0; i < matches.size(); i++) {
-            System.out.println((i + 1) + ". " + matches.get(i));
+        printNumbered(list.findTasks(keyword));
+    }
+
+    /**
+     * Prints the results of a ranked search, best first.
+     *
+     * @param matches The matching tasks, best first.
+     */
+    public void printRankedResults(List<Task> matches) {
+        if (matches.isEmpty()) {
+            System.out.println("No matching tasks found.");
+            return;
+        }
+        System.out.println("Here are the best matching tasks in your list:");
+        printNumbered(matches);
+    }
+
+    /**
+     * Prints how many tasks an import added, and the lines it could not import.
+     *
+     * @param imported   The number of tasks added.
+     * @param errorCount The number of lines that were not valid tasks.
+     * @param errors     Descriptions of the first of those lines.
+     */
+    public void printImportReport(int imported, int errorCount, List<String> errors) {
+        System.out.println("Imported " + imported + " tasks.");
+        if (errorCount == 0) {
+            return;
+        }
+        System.out.println("Skipped " + errorCount + " lines that are not valid tasks:");
+        for (String error : errors) {
+            System.out.println("    " + error);
+        }
+        if (errorCount > errors.size()) {
+            System.out.println("    ...and " + (errorCount - errors.size()) + " more.");
+        }
+    }
+
+    /**
+     * Prints the tasks matching a filter, in the order they were added.
+     *
+     * @param matches The matching tasks.
+     */
+    public void printFilterResults(List<Task> matches) {
+        if (matches.isEmpty()) {
+            System.out.println("No matching tasks found.");
+            return;
         }
+        System.out.println("Here are the matching tasks in your list:");
+        printNumbered(matches);
     }
 
     /**
@@ -166,9 +292,75 @@ public class UI {
             return;
         }
         System.out.println("Here are your upcoming tasks in the next " + days + " days:");
-        for (int i = 0; i < tasks.size(); i++) {
-            System.out.println((i + 1) + ". " + tasks.get(i));
+        printNumbered(tasks);
+    }
+
+    /**
+     * Displays the tasks dated within the given range.
+     *
+     * @param tasks The tasks in the range. Must not be null.
+     * @param from  The first date of the range.
+     * @param to    The last date of the range.
+     */
+    public void printTasksBetween(List<Task> tasks, LocalDate from, LocalDate to) {
+        if (tasks.isEmpty()) {
+            System.out.println("No tasks between " + from + " and " + to + ".");
+            return;
+        }
+        System.out.println("Here are your tasks between " + from + " and " + to + ":");
+        printNumbered(tasks);
+    }
+
+    /**
+     * Warns that a newly added event overlaps existing events.
+     *
+     * @param conflicts The overlapping events. Must not be null.
+     */
+    public void printConflicts(List<Event> conflicts) {
+        System.out.println("Heads up, this clashes with:");
+        for (int i = 0; i < conflicts.size(); i++) {
+            printIndented(conflicts.get(i));
+        }
+    }
+
+    /**
+     * Displays the events that overlap a time range.
+     *
+     * @param events The overlapping events. Must not be null.
+     * @param range  The queried range.
+     */
+    public void printOverlaps(List<Event> events, TimeSlot range) {
+        if (events.isEmpty()) {
+            System.out.println("Nothing is scheduled from " + range + ".");
+            return;
+        }
+        System.out.println("Here are your events overlapping " + range + ":");
+        printNumbered(events);
+    }
+
+    /**
+     * Displays free slots.
+     *
+     * @param slots   The free slots. Must not be null.
+     * @param minutes The shortest slot length that was asked for.
+     */
+    public void printFreeSlots(List<TimeSlot> slots, int minutes) {
+        if (slots.isEmpty()) {
+            System.out.println("No free slots of at least " + minutes + " minutes.");
+            return;
+        }
+        System.out.println("Here are your free slots of at least " + minutes + " minutes:");
+        for (int i = 0; i < slots.size(); i++) {
+            System.out.println((i + 1) + ". " + slots.get(i));
         }
     }
 
+    /**
+     * Prints how much memory the search indexes use.
+     *
+     * @param description The description of the indexes.
+     */
+    public void printIndexStats(String description) {
+        System.out.println(description);
+    }
 }
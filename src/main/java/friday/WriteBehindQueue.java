@@ -0,0 +1,241 @@
+package friday;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous persistence stage behind {@link Storage}.
+ * <p>
+ * Journal records and other write actions are queued by the caller and applied in
+ * submission order on a single background thread, so command handling never waits
+ * on disk. Consecutive records are coalesced over a small count or time window
+ * (see {@link StorageConfig}) and written to the {@link Journal} in one batch.
+ * <p>
+ * Failures on the background thread are reported to the caller on its next
+ * submission, {@link #flush()} or {@link #close()}.
+ */
+public class WriteBehindQueue {
+    private final BlockingQueue<Job> jobs = new LinkedBlockingQueue<>();
+    private final Journal journal;
+    private final StorageConfig config;
+    private final Thread worker;
+
+    private volatile FridayException failure;
+    private volatile boolean isClosed = false;
+
+    /**
+     * An I/O action executed on the background thread.
+     */
+    public interface WriteAction {
+        /**
+         * Performs the action.
+         *
+         * @throws FridayException If the action fails.
+         */
+        void run() throws FridayException;
+    }
+
+    /**
+     * Constructs a {@code WriteBehindQueue} and starts its background thread.
+     *
+     * @param journal The journal that records are appended to.
+     * @param config  The batching and durability settings.
+     */
+    public WriteBehindQueue(Journal journal, StorageConfig config) {
+        this.journal = journal;
+        this.config = config;
+        this.worker = new Thread(this::run, "friday-write-behind");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues a journal record to be written.
+     *
+     * @param record The journal record.
+     * @throws FridayException If an earlier write failed or the queue is closed.
+     */
+    public void submitRecord(String record) throws FridayException {
+        submit(new Job(record, null, null));
+    }
+
+    /**
+     * Queues an action to run after every record submitted before it.
+     *
+     * @param action The action to run on the background thread.
+     * @throws FridayException If an earlier write failed or the queue is closed.
+     */
+    public void submitAction(WriteAction action) throws FridayException {
+        submit(new Job(null, action, null));
+    }
+
+    /**
+     * Blocks until everything submitted so far has been written and forced to disk,
+     * regardless of the configured durability policy.
+     *
+     * @throws FridayException If any pending write failed.
+     */
+    public void flush() throws FridayException {
+        CountDownLatch done = new CountDownLatch(1);
+        submit(new Job(null, null, done));
+        awaitUninterruptibly(done);
+        throwPendingFailure();
+    }
+
+    /**
+     * Flushes all pending writes and stops the background thread.
+     * Calling this more than once has no further effect.
+     *
+     * @throws FridayException If any pending write failed.
+     */
+    public void close() throws FridayException {
+        if (isClosed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            isClosed = true;
+            jobs.add(Job.STOP);
+            joinUninterruptibly(worker);
+            journal.close();
+        }
+    }
+
+    private void submit(Job job) throws FridayException {
+        throwPendingFailure();
+        if (isClosed) {
+            throw new FridayException("Storage has already been closed.");
+        }
+        jobs.add(job);
+    }
+
+    private void throwPendingFailure() throws FridayException {
+        FridayException pending = failure;
+        if (pending != null) {
+            failure = null;
+            throw pending;
+        }
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>();
+        Job next = null;
+        while (true) {
+            Job job = (next != null) ? next : takeUninterruptibly();
+            next = null;
+            if (job == Job.STOP) {
+                return;
+            }
+            if (job.record != null) {
+                batch.add(job.record);
+                next = fillBatch(batch);
+                try {
+                    journal.write(batch, config.getDurabilityPolicy());
+                } catch (FridayException e) {
+                    failure = e;
+                }
+                batch.clear();
+            } else if (job.action != null) {
+                try {
+                    job.action.run();
+                } catch (FridayException e) {
+                    failure = e;
+                }
+            } else {
+                try {
+                    journal.force();
+                } catch (FridayException e) {
+                    failure = e;
+                }
+                job.done.countDown();
+            }
+        }
+    }
+
+    /**
+     * Adds further queued records to the batch until it is full, the batch window
+     * has elapsed, or a job other than a record is reached.
+     *
+     * @return The non-record job that ended the batch, or {@code null}.
+     */
+    private Job fillBatch(List<String> batch) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getMaxBatchDelayMillis());
+        while (batch.size() < config.getMaxBatchSize()) {
+            Job job = jobs.poll();
+            if (job == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                try {
+                    job = jobs.poll(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    return null;
+                }
+                if (job == null) {
+                    return null;
+                }
+            }
+            if (job.record == null) {
+                return job;
+            }
+            batch.add(job.record);
+        }
+        return null;
+    }
+
+    private Job takeUninterruptibly() {
+        while (true) {
+            try {
+                return jobs.take();
+            } catch (InterruptedException e) {
+                // Keep waiting; the queue is only stopped through close().
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException e) {
+                // Keep waiting so that the flush guarantee holds.
+            }
+        }
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        while (true) {
+            try {
+                thread.join();
+                return;
+            } catch (InterruptedException e) {
+                // Keep waiting so that every pending write completes.
+            }
+        }
+    }
+
+    /**
+     * A unit of work for the background thread: exactly one of a record,
+     * an action, or a flush latch.
+     */
+    private static final class Job {
+        private static final Job STOP = new Job(null, null, null);
+
+        private final String record;
+        private final WriteAction action;
+        private final CountDownLatch done;
+
+        private Job(String record, WriteAction action, CountDownLatch done) {
+            this.record = record;
+            this.action = action;
+            this.done = done;
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package friday;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
 
 import org.junit.jupiter.api.Test;
 
@@ -24,4 +29,120 @@ public class ParserTest {
         Parser parser = new Parser();
         assertThrows(FridayException.class, () -> parser.parseIndex("mark two"));
     }
+
+    @Test
+    public void parseId_hashPrefixedNumber_returnsId() throws FridayException {
+        Parser parser = new Parser();
+        assertEquals(1234, parser.parseId("mark #1234"));
+        assertEquals(0, parser.parseId("mark 2"));
+        assertThrows(FridayException.class, () -> parser.parseId("mark #x"));
+    }
+
+    private static ParsedCommand lex(String input) {
+        return new CommandLexer().lex(input, new ParsedCommand());
+    }
+
+    @Test
+    public void parseTargets_rangesAndSearches_resolveAgainstTheList() throws FridayException {
+        Parser parser = new Parser();
+        TaskList list = new TaskList();
+        for (int i = 1; i <= 12; i++) {
+            list.addTask(new ToDo(i % 4 == 0 ? "assignment " + i : "chore " + i));
+        }
+        assertEquals(null, parser.parseTargets(lex("mark 2")));
+        assertEquals(null, parser.parseTargets(lex("mark #2")));
+        assertEquals("{2, 6, 8, 9, 10, 11}", parser.parseTargets(lex("delete 3,7, 9-12")).resolve(list).toString());
+        assertEquals("{3, 7, 11}", parser.parseTargets(lex("mark find:assignment")).resolve(list).toString());
+        assertThrows(FridayException.class, () -> parser.parseTargets(lex("mark 5-2")));
+        assertThrows(FridayException.class, () -> parser.parseTargets(lex("mark 1,x")));
+        assertThrows(FridayException.class, () -> parser.parseTargets(lex("mark 1-13")).resolve(list));
+        assertEquals("{0, 1, 2, 4}", parser.parseTargets(lex("delete +1 - 3 ,5,")).resolve(list).toString());
+        assertEquals("{0, 1}", parser.parseTargets(lex("markx 1,2")).resolve(list).toString());
+        assertThrows(FridayException.class, () -> parser.parseTargets(lex("mark 1-2-3")));
+        assertThrows(FridayException.class, () -> parser.parseTargets(lex("mark 0,1")));
+        assertThrows(FridayException.class, () -> parser.parseTargets(lex("mark -1,2")));
+        assertThrows(FridayException.class, () -> parser.parseTargets(lex("mark 1,,2")));
+        assertThrows(FridayException.class, () -> parser.parseTargets(lex("mark 99999999999-1")));
+        assertThrows(FridayException.class, () -> parser.parseTargets(lex("mark find: ")));
+    }
+
+    @Test
+    public void commandLexer_findsKeywordAndTaskNumberWithoutAllocating() {
+        CommandLexer lexer = new CommandLexer();
+        ParsedCommand command = new ParsedCommand();
+        assertEquals(ParsedCommand.Keyword.UNMARK, lexer.lex("  unmark   12 ", command).getKeyword());
+        assertEquals(12, command.getTaskNumber());
+        assertEquals(ParsedCommand.Keyword.DELETE, lexer.lex("delete #40", command).getKeyword());
+        assertTrue(command.isId());
+        assertFalse(lexer.lex("mark 3-5", command).hasTaskNumber());
+        assertEquals("3-5", command.getArgument());
+        assertEquals(ParsedCommand.Keyword.UNKNOWN, lexer.lex("list all", command).getKeyword());
+        assertEquals(ParsedCommand.Keyword.LIST, lexer.lex("list", command).getKeyword());
+        assertEquals(ParsedCommand.Keyword.TODO, lexer.lex("todobuy milk", command).getKeyword());
+        lexer.lex("event team  sync /from 2026-02-21 1400 /to 1530", command);
+        assertEquals(7, command.getWordCount());
+        assertEquals(2, command.indexOfWord("/from", 0));
+        assertEquals("team  sync", command.getWords(0, 2));
+        assertEquals("1530", command.getWord(6));
+        assertTrue(command.isWord(5, "/to"));
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        String[] inputs = {"mark 12", "unmark 7", "delete #1234"};
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 30_000; i++) {
+            lexer.lex(inputs[i % inputs.length], command);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 30_000, "lexing allocated " + allocated + " bytes");
+    }
+
+    @Test
+    public void parseLineToTask_readsIdField() throws FridayException {
+        Parser parser = new Parser();
+        assertEquals(7, parser.parseLineToTask("D | 1 | essay | 2026-02-20 | #7").getId());
+        assertEquals(0, parser.parseLineToTask("T | 0 | legacy").getId());
+        assertThrows(FridayException.class, () -> parser.parseLineToTask("T | 0 | bad | #0"));
+    }
+
+    @Test
+    public void parseLineToTask_roundTripsEscapedDescriptionsAndDates() throws FridayException {
+        Parser parser = new Parser();
+        for (String description : new String[] {"a | b", "a \\ | b", "x | y | z", "a |  | b"}) {
+            Task todo = new ToDo(description);
+            assertEquals(todo.toString(), parser.parseLineToTask(todo.toSaveString()).toString());
+        }
+        // As before, an escape typed into a description is not itself escaped.
+        assertEquals("[T] [ ] a | b", parser.parseLineToTask(new ToDo("a \\| b").toSaveString()).toString());
+        Task event = parser.parseLineToTask("E | 1 | talk \\| Q&A | 2024-02-29 | 0905 | 2359 | #3");
+        assertEquals("E | 1 | talk \\| Q&A | 2024-02-29 | 0905 | 2359 | #3", event.toSaveString());
+        // Forms the digit scanner leaves to DateTimeFormatter still load or fail as before.
+        assertEquals("D | 0 | far | +10000-01-01", parser.parseLineToTask("D | 0 | far | +10000-01-01").toSaveString());
+        assertThrows(FridayException.class, () -> parser.parseLineToTask("D | 0 | x | 2023-02-29"));
+        assertThrows(FridayException.class, () -> parser.parseLineToTask("E | 0 | x | 2024-01-01 | 0960 | 1000"));
+        String record = "1 | ADD | T | 0 | inside a record | #4";
+        assertEquals("T | 0 | inside a record | #4",
+                parser.parseLineToTask(record, record.indexOf("T |"), record.length()).toSaveString());
+    }
+
+    @Test
+    public void parseLineToTask_roundTripsDescriptionsEndingInABar() throws FridayException {
+        Parser parser = new Parser();
+        for (String description : new String[] {"foo |", "foo \\|", "foo \\\\|", "a | |", "foo|", "|"}) {
+            Task todo = new ToDo(description);
+            todo.assignId(7);
+            Task loaded = parser.parseLineToTask(todo.toSaveString());
+            assertEquals(description, loaded.getDescription());
+            assertEquals(7, loaded.getId());
+            Task deadline = new Deadline(description, LocalDate.of(2024, 2, 29));
+            assertEquals(description, parser.parseLineToTask(deadline.toSaveString()).getDescription());
+            Task event = new Event(description, LocalDate.of(2024, 2, 29), LocalTime.of(9, 5), LocalTime.of(10, 0));
+            assertEquals(event.toSaveString(), parser.parseLineToTask(event.toSaveString()).toSaveString());
+        }
+        assertEquals("T | 0 | foo \\| | #7", parser.parseLineToTask("T | 0 | foo \\| | #7").toSaveString());
+        String record = "2 | ADD | T | 1 | foo \\| | #9";
+        Task added = parser.parseLineToTask(record, record.indexOf("T |"), record.length());
+        assertEquals("foo |", added.getDescription());
+        assertEquals(9, added.getId());
+    }
 }
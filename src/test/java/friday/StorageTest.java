@@ -0,0 +1,455 @@
+package friday;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void loadTaskList_replaysJournalOnSnapshot() throws FridayException {
+        Path file = tempDir.resolve("Friday.txt");
+        Storage storage = new Storage(file);
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("a"));
+        storage.saveTaskList(list);
+
+        ToDo b = new ToDo("b");
+        list.addTask(b);
+        storage.appendAdd(b);
+        list.markTask(1);
+        storage.appendMark(1);
+        list.deleteTask(0);
+        storage.appendDelete(0);
+        storage.close();
+
+        TaskList loaded = new Storage(file).loadTaskList(new Parser());
+        assertEquals(1, loaded.size());
+        assertEquals("[T] [X] b", loaded.get(0).toString());
+    }
+
+    @Test
+    public void handleImport_addsValidLinesAndJournalsThem() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Path tickets = tempDir.resolve("tickets.txt");
+        Files.write(tickets, List.of(
+                "# exported tickets",
+                "todo read book",
+                "deadline essay /by 2026-02-20",
+                "",
+                "event talk /from 2026-02-21 1400 /to 1530",
+                "deadline no date",
+                "D | 1 | report | 2026-03-01 | #1",
+                "mark 1",
+                "todos buy milk",
+                "bogus line",
+                "T 0 not quite saved"));
+        Storage storage = new Storage(file);
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("existing"));
+        storage.saveTaskList(list);
+        storage.flush();
+        List<String> snapshot = Files.readAllLines(file);
+
+        List<String> errors = new ArrayList<>();
+        UI ui = new UI() {
+            @Override
+            public void printImportReport(int imported, int errorCount, List<String> reported) {
+                errors.addAll(reported);
+            }
+        };
+        Friday.handleCommand("import " + tickets, list, storage, ui, new Parser());
+        storage.flush();
+        assertEquals(5, errors.size());
+        assertTrue(errors.get(3).startsWith("line 10: Unknown command"), errors.get(3));
+        assertTrue(errors.get(4).startsWith("line 11: Unknown command"), errors.get(4));
+        assertEquals(snapshot, Files.readAllLines(file));
+        storage.close();
+
+        TaskList loaded = new Storage(file).loadTaskList(new Parser());
+        assertEquals(5, loaded.size());
+        assertEquals("essay", loaded.get(2).getDescription());
+        assertEquals("D | 1 | report | 2026-03-01 | #5", loaded.get(4).getSaveString());
+    }
+
+    @Test
+    public void saveChanges_journalsCommandsWithoutRewritingTheSnapshot() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Storage storage = new Storage(file);
+        TaskList list = new TaskList();
+        for (String description : List.of("a", "b", "c", "d", "e")) {
+            list.addTask(new ToDo(description));
+        }
+        storage.saveTaskList(list);
+        storage.flush();
+        List<String> snapshot = Files.readAllLines(file);
+
+        for (String command : List.of("todo f", "mark 2", "delete 1", "todo g", "delete 2-3", "unmark 1")) {
+            Friday.handleCommand(command, list, storage, new UI(), new Parser());
+        }
+        // Additions deleted before they were saved are never written at all.
+        list.addTask(new ToDo("h"));
+        list.markTask(0);
+        list.deleteTask(0);
+        list.deleteTask(list.size() - 1);
+        storage.saveChanges(list);
+        assertFalse(list.hasChanges());
+        storage.flush();
+
+        assertEquals(snapshot, Files.readAllLines(file));
+        storage.close();
+        TaskList loaded = new Storage(file).loadTaskList(new Parser());
+        assertEquals(list.size(), loaded.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(list.get(i).getSaveString(), loaded.get(i).getSaveString());
+        }
+    }
+
+    @Test
+    public void saveChanges_rangeDeleteAcrossAddedTasksReplaysOnReload() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Storage storage = new Storage(file);
+        TaskList list = new TaskList();
+        for (int i = 1; i <= 10; i++) {
+            list.addTask(new ToDo("stored " + i));
+        }
+        storage.saveTaskList(list);
+        storage.flush();
+
+        // Added without being saved, so the range holds a stored task and two unsaved ones.
+        for (int i = 11; i <= 13; i++) {
+            list.addTask(new ToDo("added " + i));
+        }
+        Friday.handleCommand("delete 10-12", list, storage, new UI(), new Parser());
+        storage.close();
+
+        TaskList loaded = new Storage(file).loadTaskList(new Parser());
+        assertEquals(10, loaded.size());
+        assertEquals("[T] [ ] stored 9", loaded.get(8).toString());
+        assertEquals("[T] [ ] added 13", loaded.get(9).toString());
+    }
+
+    @Test
+    public void close_flushesEveryPolicy() throws FridayException {
+        for (DurabilityPolicy policy : DurabilityPolicy.values()) {
+            Path file = tempDir.resolve(policy + ".txt");
+            Storage storage = new Storage(file, new StorageConfig(policy, 2, 50));
+            for (int i = 0; i < 5; i++) {
+                storage.appendAdd(new ToDo("task " + i));
+            }
+            storage.close();
+
+            assertEquals(5, new Storage(file).loadTaskList(new Parser()).size());
+        }
+    }
+
+    @Test
+    public void loadTaskList_foldsJournalIntoSnapshot() throws FridayException {
+        Path file = tempDir.resolve("Friday.txt");
+        Storage storage = new Storage(file);
+        storage.appendAdd(new ToDo("a"));
+        storage.close();
+
+        Storage reopened = new Storage(file);
+        reopened.loadTaskList(new Parser());
+        reopened.close();
+
+        assertTrue(Files.exists(file));
+        assertTrue(Files.notExists(tempDir.resolve("Friday.journal")));
+        assertEquals(1, new Storage(file).loadTaskList(new Parser()).size());
+    }
+
+    @Test
+    public void loadTaskList_migratesTextToBinary() throws FridayException {
+        Path file = tempDir.resolve("Friday.txt");
+        Storage text = new Storage(file);
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read | book"));
+        list.addTask(new Deadline("essay", "2026-02-20"));
+        list.addTask(new Event("talk", "1969-12-31", "1400", "1530"));
+        list.markTask(1);
+        text.saveTaskList(list);
+        text.close();
+
+        StorageConfig binaryConfig = new StorageConfig().withSaveFormat(SaveFormat.BINARY);
+        Storage binary = new Storage(file, binaryConfig);
+        TaskList migrated = binary.loadTaskList(new Parser());
+        binary.close();
+
+        assertTrue(Files.exists(tempDir.resolve("Friday.bin")));
+        assertTrue(Files.notExists(file));
+        TaskList loaded = new Storage(file, binaryConfig).loadTaskList(new Parser());
+        assertEquals(3, loaded.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(list.get(i).toSaveString(), migrated.get(i).toSaveString());
+            assertEquals(list.get(i).toSaveString(), loaded.get(i).toSaveString());
+        }
+    }
+
+    @Test
+    public void loadTaskList_lazyMapsSnapshotAndReplaysJournal() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Files.write(file, List.of("T | 0 | a", "", "D | 1 | b | 2026-02-20", "T | 0 | c"));
+        Storage storage = new Storage(file);
+        storage.appendDelete(0);
+        storage.close();
+
+        StorageConfig lazyConfig = new StorageConfig().withLazyLoading(true);
+        TaskList loaded = new Storage(file, lazyConfig).loadTaskList(new Parser());
+
+        assertEquals(2, loaded.size());
+        assertEquals("D | 1 | b | 2026-02-20 | #2", loaded.getSaveString(0));
+        assertEquals("[T] [ ] c", loaded.get(1).toString());
+        assertEquals(1, loaded.findTasks("b").size());
+    }
+
+    @Test
+    public void loadTaskList_numbersLegacyTasksAlikeLazilyAndEagerly() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Files.write(file, List.of("T | 0 | a", "D | 1 | b | 2026-02-20", "T | 0 | c"));
+        Storage storage = new Storage(file);
+        storage.appendDelete(0);
+        storage.close();
+
+        StorageConfig lazyConfig = new StorageConfig().withLazyLoading(true);
+        Storage lazy = new Storage(file, lazyConfig);
+        TaskList loaded = lazy.loadTaskList(new Parser());
+        assertEquals(2, loaded.get(0).getId());
+        assertEquals(3, loaded.get(1).getId());
+        loaded.addTask(new ToDo("d"));
+        lazy.saveChanges(loaded);
+        lazy.close();
+
+        // The ids were saved once with a snapshot, not with a record for every task.
+        assertEquals(1, Files.readAllLines(tempDir.resolve("Friday.journal")).size());
+        TaskList eager = new Storage(file).loadTaskList(new Parser());
+        assertEquals("D | 1 | b | 2026-02-20 | #2", eager.getSaveString(0));
+        assertEquals("T | 0 | d | #4", eager.getSaveString(2));
+        TaskList reloaded = new Storage(file, lazyConfig).loadTaskList(new Parser());
+        assertEquals("T | 0 | c | #3", reloaded.getSaveString(1));
+        assertEquals(5, reloaded.getNextId());
+    }
+
+    @Test
+    public void loadTaskList_parallelQuarantinesCorruptLines() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            lines.add(i % 2 == 0 ? "T | 0 | todo " + i : "D | 1 | deadline " + i + " | 2026-02-20");
+        }
+        Files.write(file, lines);
+        Storage numbering = new Storage(file);
+        TaskList loaded = numbering.loadTaskList(new Parser());
+        numbering.close();
+        assertEquals(100_000, loaded.size());
+        assertEquals("D | 1 | deadline 99999 | 2026-02-20 | #100000", loaded.getSaveString(99_999));
+
+        lines.set(70_000, "D | 0 | broken | 2026-13-01");
+        lines.set(90_000, "X | 0 | unknown");
+        Files.write(file, lines);
+        Storage storage = new Storage(file);
+        TaskList salvaged = storage.loadTaskList(new Parser());
+        storage.close();
+        assertEquals(99_998, salvaged.size());
+        assertEquals(2, storage.getLoadReport().getQuarantinedCount());
+        List<String> quarantined = Files.readAllLines(tempDir.resolve("Friday.quarantine.txt"));
+        assertTrue(quarantined.get(0).startsWith("# line 70001:"), quarantined.get(0));
+        assertEquals("X | 0 | unknown", quarantined.get(3));
+
+        Storage reopened = new Storage(file);
+        assertEquals(99_998, reopened.loadTaskList(new Parser()).size());
+        assertTrue(reopened.getLoadReport().isClean());
+        assertEquals(4, Files.readAllLines(tempDir.resolve("Friday.quarantine.txt")).size());
+    }
+
+    @Test
+    public void loadTaskList_salvagesAroundChecksumMismatchAndTornEnd() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        TaskList list = new TaskList();
+        for (String description : List.of("a", "b", "c", "d")) {
+            list.addTask(new ToDo(description));
+        }
+        Storage storage = new Storage(file);
+        storage.saveTaskList(list);
+        storage.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("# snapshot seq=0 count=4 next=5", lines.get(0));
+        lines.set(2, lines.get(2).replace("T | 0 | b", "T | 1 | b"));
+        Files.write(file, lines.subList(0, 4));
+        Storage reopened = new Storage(file);
+        TaskList salvaged = reopened.loadTaskList(new Parser());
+        reopened.close();
+
+        LoadReport report = reopened.getLoadReport();
+        assertEquals("T | 0 | c | #3", salvaged.getSaveString(1));
+        assertEquals(2, report.getLoadedCount());
+        assertEquals(1, report.getQuarantinedCount());
+        assertEquals(1, report.getMissingCount());
+        assertTrue(report.toString().startsWith("Your save file was damaged. Recovered 2 tasks."), report.toString());
+    }
+
+    @Test
+    public void loadTaskList_discardsTornFinalRecord() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Path journal = tempDir.resolve("Friday.journal");
+        Files.writeString(journal, "1 | A | T | 0 | a\n2 | A | T | 0 | b\n3 | M | ");
+        Storage storage = new Storage(file);
+        TaskList loaded = storage.loadTaskList(new Parser());
+        assertEquals(2, loaded.size());
+        assertEquals("[T] [ ] b", loaded.get(1).toString());
+
+        ToDo c = new ToDo("c");
+        loaded.addTask(c);
+        storage.appendAdd(c);
+        storage.close();
+        assertEquals(3, new Storage(file).loadTaskList(new Parser()).size());
+    }
+
+    @Test
+    public void loadTaskList_recoversFromInterruptedCompaction() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Files.write(file, List.of("# snapshot seq=2 count=2", "T | 0 | a", "T | 1 | b"));
+        Files.write(tempDir.resolve("Friday.txt.tmp"), List.of("# snapshot seq=9 count=5", "T | 0 | a"));
+        Files.write(tempDir.resolve("Friday.journal.old"), List.of("1 | A | T | 0 | a", "2 | M | 1", "3 | D | 0"));
+        Files.write(tempDir.resolve("Friday.journal"), List.of("4 | A | T | 0 | c"));
+
+        Storage storage = new Storage(file);
+        TaskList loaded = storage.loadTaskList(new Parser());
+        // The snapshot taken after replaying is written in the background.
+        storage.close();
+        assertEquals(2, loaded.size());
+        assertEquals("[T] [X] b", loaded.get(0).toString());
+        assertEquals("[T] [ ] c", loaded.get(1).toString());
+        assertTrue(Files.notExists(tempDir.resolve("Friday.txt.tmp")));
+    }
+
+    @Test
+    public void compactIfNeeded_snapshotsInBackground() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Storage storage = new Storage(file, new StorageConfig().withCompactionThreshold(3));
+        TaskList list = storage.loadTaskList(new Parser());
+        for (int i = 0; i < 4; i++) {
+            ToDo task = new ToDo("task " + i);
+            list.addTask(task);
+            storage.appendAdd(task);
+            storage.compactIfNeeded(list);
+        }
+        storage.flush();
+        assertEquals("# snapshot seq=3 count=3 next=4", Files.readAllLines(file).get(0));
+        storage.close();
+
+        assertEquals(4, new Storage(file).loadTaskList(new Parser()).size());
+    }
+
+    @Test
+    public void loadTaskList_migratesIntoMonthSegments() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Files.write(file, List.of("T | 0 | a", "D | 0 | b | 2026-02-20", "E | 0 | c | 2026-03-01 | 1400 | 1500"));
+        StorageConfig segmentedConfig = new StorageConfig().withSaveFormat(SaveFormat.SEGMENTED);
+        Storage storage = new Storage(file, segmentedConfig);
+        TaskList list = storage.loadTaskList(new Parser());
+        storage.flush();
+
+        Path segments = tempDir.resolve("Friday.segments");
+        assertEquals(List.of("1 | T | 0 | a | #1"), Files.readAllLines(segments.resolve("undated.txt")));
+        assertEquals(List.of("2 | D | 0 | b | 2026-02-20 | #2"), Files.readAllLines(segments.resolve("2026-02.txt")));
+        assertTrue(Files.notExists(file));
+
+        Files.writeString(segments.resolve("undated.txt"), "1 | T | 1 | edited elsewhere\n");
+        list.markTask(1);
+        storage.appendMark(1);
+        list.deleteTask(2);
+        storage.appendDelete(2);
+        storage.close();
+
+        assertEquals("1 | T | 1 | edited elsewhere", Files.readAllLines(segments.resolve("undated.txt")).get(0));
+        assertTrue(Files.notExists(segments.resolve("2026-03.txt")));
+        TaskList loaded = new Storage(file, segmentedConfig.withRecentSegmentMonths(1)).loadTaskList(new Parser());
+        assertEquals(2, loaded.size());
+        assertEquals("D | 1 | b | 2026-02-20 | #2", loaded.get(1).toSaveString());
+        assertEquals(1, loaded.getUpcomingTasks(LocalDate.of(2026, 2, 15), 10).size());
+    }
+
+    @Test
+    public void bTreeTaskStore_pointUpdatesAndDateScansSurviveReopening() throws Exception {
+        Path file = tempDir.resolve("Friday.txt");
+        Files.write(file, List.of("T | 0 | imported"));
+        StorageConfig config = new StorageConfig().withStoreEngine(StoreEngine.BTREE);
+        TaskStore store = TaskStore.open(file, config);
+        TaskList list = store.loadTaskList(new Parser());
+        assertEquals(1, list.size());
+
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < 500; i++) {
+            store.put(list.size(), new Deadline("deadline " + i, start.plusDays(i % 60)));
+            list.addTask(new ToDo("placeholder"));
+        }
+        store.put(list.size(), new ToDo("x".repeat(5000)));
+        Task done = new ToDo("imported");
+        done.mark();
+        store.put(0, done);
+        store.delete(1);
+        store.close();
+
+        TaskStore reopened = TaskStore.open(file, config);
+        TaskList loaded = reopened.loadTaskList(new Parser());
+        assertEquals(501, loaded.size());
+        assertEquals("T | 1 | imported | #1", loaded.get(0).toSaveString());
+        assertEquals("deadline 1", loaded.get(1).getDescription());
+        assertEquals(5000, loaded.get(500).getDescription().length());
+        List<Task> january = reopened.scanByDate(start, start.plusDays(30), new Parser());
+        assertEquals(267, january.size());
+        reopened.close();
+    }
+
+    @Test
+    public void loadTaskList_keepsIdsOfDeletedTasksReservedInEveryEngine() throws Exception {
+        StorageConfig text = new StorageConfig();
+        assertEquals(3, idAfterDeleteRestartAdd(tempDir.resolve("text").resolve("Friday.txt"), text));
+        StorageConfig segmented = new StorageConfig().withSaveFormat(SaveFormat.SEGMENTED);
+        assertEquals(3, idAfterDeleteRestartAdd(tempDir.resolve("segmented").resolve("Friday.txt"), segmented));
+        StorageConfig bTree = new StorageConfig().withStoreEngine(StoreEngine.BTREE);
+        assertEquals(3, idAfterDeleteRestartAdd(tempDir.resolve("btree").resolve("Friday.txt"), bTree));
+    }
+
+    /** Adds two tasks, deletes the second, restarts, adds a third and returns its id after another restart. */
+    private static long idAfterDeleteRestartAdd(Path file, StorageConfig config) throws Exception {
+        Files.createDirectories(file.getParent());
+        TaskStore store = TaskStore.open(file, config);
+        TaskList list = store.loadTaskList(new Parser());
+        list.addTask(new ToDo("a"));
+        store.saveChanges(list);
+        list.addTask(new ToDo("b"));
+        store.saveChanges(list);
+        list.deleteTask(list.indexOfId(2));
+        store.saveChanges(list);
+        store.close();
+
+        store = TaskStore.open(file, config);
+        list = store.loadTaskList(new Parser());
+        list.addTask(new ToDo("c"));
+        store.saveChanges(list);
+        assertEquals(-1, list.indexOfId(2));
+        store.close();
+
+        store = TaskStore.open(file, config);
+        list = store.loadTaskList(new Parser());
+        store.close();
+        assertEquals(2, list.size());
+        assertEquals("c", list.get(1).getDescription());
+        return list.get(1).getId();
+    }
+}
@@ -0,0 +1,183 @@
+package friday;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures read throughput of a shared {@link TaskList} under a mixed read and write
+ * load, in the manner of a JMH benchmark: warm-up iterations, then timed measurement
+ * iterations, for an increasing number of threads.
+ * <p>
+ * Every thread performs operations until the iteration ends. One operation in
+ * {@code writeEvery} marks or unmarks a random task; the others read, in one of
+ * three ways:
+ * <ul>
+ * <li>{@code get} reads a handful of random tasks,</li>
+ * <li>{@code find} looks for the tasks containing a random number, and</li>
+ * <li>{@code remind} lists the tasks dated in a random week.</li>
+ * </ul>
+ * In {@code snapshot} mode the reads go through a {@link TaskList#snapshot()} and its
+ * indexes without locking. In {@code locked} mode, for comparison, each read holds
+ * the list's lock, as every read did before snapshots: {@link TaskList#get(int)}
+ * takes it itself, and a query is made inside a block synchronized on the list.
+ * <p>
+ * Run with {@code java -cp <classes> friday.TaskListBenchmark [tasks] [maxThreads] [writeEvery]}.
+ */
+public class TaskListBenchmark {
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final long ITERATION_MILLIS = 1000;
+    private static final int READS_PER_OPERATION = 16;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2026, 1, 1);
+    private static final int DATED_DAYS = 365;
+    private static final int REMIND_DAYS = 7;
+
+    /** What a read operation does. */
+    private enum Read {
+        GET, FIND, REMIND
+    }
+
+    private static volatile int sink;
+
+    /**
+     * Runs the benchmark and prints the throughput for each thread count.
+     *
+     * @param args The number of tasks, the largest thread count and how often a write occurs.
+     * @throws Exception If the list cannot be built or a thread is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int writeEvery = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        TaskList list = new TaskList();
+        for (int i = 0; i < tasks; i++) {
+            // Every other task is a deadline, spread over a year for remind to find.
+            list.addTask(i % 2 == 0
+                    ? new ToDo("task number " + i)
+                    : new Deadline("task number " + i, FIRST_DATE.plusDays(i % DATED_DAYS)));
+        }
+        list.snapshot();
+        System.out.println("tasks=" + tasks + " writeEvery=" + writeEvery + " cores="
+                + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %-10s %8s %16s %16s%n", "read", "mode", "threads", "ops/s", "ops/s/thread");
+        for (Read read : Read.values()) {
+            for (boolean isLocked : new boolean[] {false, true}) {
+                for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                        runIteration(list, threads, writeEvery, read, isLocked);
+                    }
+                    double total = 0;
+                    for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+                        total += runIteration(list, threads, writeEvery, read, isLocked);
+                    }
+                    double perSecond = total / MEASUREMENT_ITERATIONS;
+                    System.out.printf("%-8s %-10s %8d %16.0f %16.0f%n", read.name().toLowerCase(Locale.ROOT),
+                            isLocked ? "locked" : "snapshot", threads, perSecond, perSecond / threads);
+                }
+            }
+        }
+    }
+
+    /** Runs the threads for one iteration and returns the operations completed per second. */
+    private static double runIteration(TaskList list, int threads, int writeEvery, Read read, boolean isLocked)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    long count = 0;
+                    int checksum = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline[0]) {
+                        if (count % writeEvery == 0) {
+                            write(list, random);
+                        } else {
+                            checksum ^= read(list, random, read, isLocked);
+                        }
+                        count++;
+                    }
+                    operations.add(count);
+                    blackhole(checksum);
+                } catch (InterruptedException | FridayException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        long began = System.nanoTime();
+        deadline[0] = began + ITERATION_MILLIS * 1_000_000;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum() * 1e9 / (System.nanoTime() - began);
+    }
+
+    private static void write(TaskList list, ThreadLocalRandom random) throws FridayException {
+        int index = random.nextInt(list.size());
+        if (random.nextBoolean()) {
+            list.markTask(index);
+        } else {
+            list.unmarkTask(index);
+        }
+    }
+
+    private static int read(TaskList list, ThreadLocalRandom random, Read read, boolean isLocked)
+            throws FridayException {
+        if (read == Read.GET) {
+            return isLocked ? readLocked(list, random) : readSnapshot(list, random);
+        }
+        if (!isLocked) {
+            return query(list.snapshot(), random, read);
+        }
+        synchronized (list) {
+            return query(list.snapshot(), random, read);
+        }
+    }
+
+    /** Runs one find or remind query and returns the number of tasks it found. */
+    private static int query(TaskSnapshot snapshot, ThreadLocalRandom random, Read read) {
+        if (read == Read.FIND) {
+            return snapshot.findTasks("number " + random.nextInt(snapshot.size())).size();
+        }
+        LocalDate from = FIRST_DATE.plusDays(random.nextInt(DATED_DAYS));
+        return snapshot.getUpcomingTasks(from, REMIND_DAYS).size();
+    }
+
+    private static int readSnapshot(TaskList list, ThreadLocalRandom random) {
+        TaskSnapshot snapshot = list.snapshot();
+        int length = 0;
+        for (int i = 0; i < READS_PER_OPERATION; i++) {
+            length += snapshot.get(random.nextInt(snapshot.size())).getDescription().length();
+        }
+        return length;
+    }
+
+    private static int readLocked(TaskList list, ThreadLocalRandom random) throws FridayException {
+        int length = 0;
+        for (int i = 0; i < READS_PER_OPERATION; i++) {
+            length += list.get(random.nextInt(list.size())).getDescription().length();
+        }
+        return length;
+    }
+
+    /**
+     * Publishes what a thread read in one iteration so the reads are not optimized
+     * away. It is called once per thread and iteration, since a shared volatile
+     * written on every read would itself limit the throughput being measured.
+     */
+    private static void blackhole(int checksum) {
+        sink = checksum;
+    }
+}
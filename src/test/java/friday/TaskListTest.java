@@ -1,8 +1,23 @@
 package friday;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongFunction;
+
 import org.junit.jupiter.api.Test;
 
 public class TaskListTest {
@@ -28,5 +43,494 @@ public class TaskListTest {
         assertEquals(1, list.size());
         assertTrue(list.get(0).toString().contains("b"));
     }
-}
 
+    @Test
+    public void changeTracking_recordsChangedPositionsUntilCleared() throws FridayException {
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("a"));
+        list.addTask(new ToDo("b"));
+        list.addTask(new ToDo("c"));
+        list.clearChanges();
+        assertFalse(list.hasChanges());
+
+        list.markTask(2);
+        list.markTask(2);
+        list.deleteTask(0);
+        assertArrayEquals(new int[] {1}, list.getChangedIndices());
+        assertTrue(list.hasDeletions());
+        assertEquals(5, list.getModCount());
+
+        Task task = list.get(1);
+        String saved = task.getSaveString();
+        assertSame(saved, task.getSaveString());
+        list.unmarkTask(1);
+        assertSame(saved, task.getSaveString());
+        assertEquals("T | 0 | c | #3", list.get(1).getSaveString());
+        task.unmark();
+        assertEquals("T | 0 | c | #3", task.getSaveString());
+    }
+
+    @Test
+    public void findTasks_matchesWholeWordsAndSubstringsAlike() throws FridayException {
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        list.addTask(new ToDo("buy notebook"));
+        list.addTask(new Deadline("return Book", LocalDate.of(2026, 2, 20)));
+        assertEquals(3, list.findTasks("book").size());
+        assertEquals(3, list.findTasks("boo").size());
+        assertEquals(1, list.findTasks("ad bo").size());
+        assertEquals(1, list.findTasks("notebook").size());
+
+        list.deleteTask(0);
+        list.addTask(new ToDo("book club"));
+        List<Task> matches = list.findTasks("book");
+        assertEquals(3, matches.size());
+        assertEquals("buy notebook", matches.get(0).getDescription());
+        assertEquals("book club", matches.get(2).getDescription());
+        assertEquals(0, list.findTasks("read").size());
+    }
+
+    @Test
+    public void trigramIndex_findsFragmentsAndStaysWithinItsLimit() throws FridayException {
+        List<Task> tasks = List.of(new ToDo("submit assignment"), new ToDo("CS2030 lab"),
+                new Deadline("ES2001 essay", LocalDate.of(2026, 2, 20)));
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).assignId(i + 1);
+        }
+        Task added = new ToDo("reassign seats");
+        added.assignId(4);
+        LongFunction<Task> byId = id -> id == 4 ? added : tasks.get((int) id - 1);
+        InvertedIndex index = InvertedIndex.build(tasks, byId);
+        assertEquals(1, index.find("assig").size());
+        assertEquals("ES2001 essay", index.find("ES20").get(0).getDescription());
+        assertEquals(2, index.find("s20").size());
+        assertEquals(0, index.find("ssay lab").size());
+
+        index.remove(tasks.get(0));
+        assertEquals(0, index.find("assig").size());
+        index.add(added);
+        assertEquals(1, index.find("assig").size());
+        assertTrue(index.describeMemory().contains("of at most 4000000 postings"));
+
+        InvertedIndex bounded = InvertedIndex.build(tasks, 20, byId);
+        assertTrue(bounded.describeMemory().contains("disabled"));
+        assertEquals(1, bounded.find("assig").size());
+        assertEquals(2, bounded.find("s20").size());
+
+        // 15 + 8 + 10 trigrams overflow a limit of 30; back at 15 they fit in half of it.
+        InvertedIndex recovering = InvertedIndex.build(tasks, 30, byId);
+        assertTrue(recovering.describeMemory().contains("would need 33 of at most 30"));
+        recovering.remove(tasks.get(2));
+        assertTrue(recovering.describeMemory().contains("disabled"));
+        recovering.remove(tasks.get(1));
+        assertTrue(recovering.describeMemory().contains("15 of at most 30 postings"));
+        assertEquals(1, recovering.find("assig").size());
+        recovering.add(added);
+        assertEquals(2, recovering.find("assig").size());
+    }
+
+    @Test
+    public void rankTasks_ordersByRelevanceAndToleratesTypos() throws FridayException {
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read the long report about the budget for next year"));
+        list.addTask(new ToDo("budget report"));
+        list.addTask(new ToDo("budget"));
+        list.addTask(new ToDo("buy milk"));
+        List<Task> ranked = list.rankTasks("budget report", 10);
+        assertEquals(3, ranked.size());
+        assertEquals("budget report", ranked.get(0).getDescription());
+        assertEquals("budget report", list.rankTasks("budgte reprot", 1).get(0).getDescription());
+        assertEquals(2, list.rankTasks("budget", 2).size());
+        assertEquals(0, list.rankTasks("mlk", 10).size());
+        assertEquals(1, InvertedIndex.editDistance("milk", "mlik", 2));
+        assertEquals(3, InvertedIndex.editDistance("report", "budget", 2));
+    }
+
+    @Test
+    public void typoIndex_findsEveryWordWithinTheEditDistance() {
+        TypoIndex index = new TypoIndex();
+        List<String> words = new ArrayList<>();
+        Random random = new Random(15);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(9);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(4)));
+            }
+            words.add(word.toString());
+            index.add(word.toString());
+        }
+        index.add("zzzzz");
+        assertTrue(index.candidates("zzzyz", 1).contains("zzzzz"));
+        index.remove("zzzzz");
+        assertFalse(index.candidates("zzzyz", 1).contains("zzzzz"));
+        for (String term : words.subList(0, 200)) {
+            int maxTypos = InvertedIndex.maxTypos(term);
+            if (maxTypos == 0) {
+                continue;
+            }
+            Set<String> candidates = index.candidates(term, maxTypos);
+            for (String word : words) {
+                if (InvertedIndex.editDistance(term, word, maxTypos) <= maxTypos) {
+                    assertTrue(candidates.contains(word), term + " ~ " + word);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void chunkedTaskList_matchesArrayListAcrossSplitsAndMerges() throws FridayException {
+        ChunkedTaskList chunked = new ChunkedTaskList(4);
+        List<Task> expected = new ArrayList<>();
+        Random random = new Random(16);
+        for (int i = 0; i < 2000; i++) {
+            int choice = random.nextInt(3);
+            if (choice < 2 || expected.isEmpty()) {
+                Task task = new ToDo("task " + i);
+                int index = choice == 0 ? expected.size() : random.nextInt(expected.size() + 1);
+                chunked.add(index, task);
+                expected.add(index, task);
+            } else {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), chunked.remove(index));
+            }
+        }
+        assertEquals(expected, chunked);
+        while (!expected.isEmpty()) {
+            assertSame(expected.remove(0), chunked.remove(0));
+            assertEquals(expected.size(), chunked.size());
+        }
+        assertTrue(chunked.isEmpty());
+    }
+
+    @Test
+    public void taskIds_surviveDeletionsAndAreNeverReused() throws FridayException {
+        Parser parser = new Parser();
+        TaskList list = new TaskList(new ChunkedTaskList(List.of(parser.parseLineToTask("T | 0 | a"),
+                parser.parseLineToTask("T | 0 | b"), parser.parseLineToTask("T | 0 | c"))));
+        assertEquals(4, list.getNextId());
+        assertEquals("T | 0 | b | #2", list.getSaveString(1));
+        assertTrue(list.hasChanges());
+
+        list.deleteTask(0);
+        assertEquals(1, list.indexOfId(3));
+        assertEquals("c", list.getById(3).getDescription());
+        list.deleteTask(1);
+        list.addTask(new ToDo("d"));
+        assertEquals(4, list.get(1).getId());
+        assertEquals(-1, list.indexOfId(3));
+
+        TaskList reloaded = new TaskList();
+        reloaded.reserveIdsBelow(9);
+        reloaded.addTask(parser.parseLineToTask(list.getSaveString(0)));
+        reloaded.addTask(new ToDo("e"));
+        assertEquals(2, reloaded.get(0).getId());
+        assertEquals(9, reloaded.get(1).getId());
+
+        // Ids out of order, as after editing the save file by hand, are still found.
+        TaskList edited = new TaskList();
+        for (String line : List.of("T | 0 | a | #5", "T | 0 | b | #9", "T | 0 | c | #2", "T | 0 | d | #7")) {
+            edited.addTask(parser.parseLineToTask(line));
+        }
+        assertEquals(2, edited.indexOfId(2));
+        assertEquals(-1, edited.indexOfId(4));
+        assertEquals(1, reloaded.indexOfId(9));
+        assertEquals(-1, reloaded.indexOfId(5));
+    }
+
+    @Test
+    public void indexOfId_followsTasksAsDeletionsMoveThem() throws FridayException {
+        for (TaskList list : List.of(new TaskList(), new TaskList(new ColumnarTaskList()))) {
+            List<Long> expected = new ArrayList<>();
+            Random random = new Random(7);
+            for (int round = 0; round < 2000; round++) {
+                int choice = random.nextInt(10);
+                if (choice < 5 || expected.isEmpty()) {
+                    list.addTask(new ToDo("task " + round));
+                    expected.add(list.get(list.size() - 1).getId());
+                } else if (choice < 7) {
+                    int index = random.nextInt(expected.size());
+                    list.deleteTask(index);
+                    expected.remove(index);
+                } else if (choice < 8) {
+                    BitSet positions = new BitSet();
+                    positions.set(random.nextInt(expected.size()));
+                    positions.set(random.nextInt(expected.size()));
+                    list.deleteTasks(positions);
+                    for (int i = positions.length() - 1; i >= 0; i = positions.previousSetBit(i - 1)) {
+                        expected.remove(i);
+                    }
+                } else {
+                    int index = random.nextInt(expected.size());
+                    assertEquals(index, list.indexOfId(expected.get(index)));
+                    assertEquals(-1, list.indexOfId(round + 10_000));
+                }
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(i, list.indexOfId(expected.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void segmentedTaskList_drainsAndScansOnlyTheSegmentsInvolved() throws FridayException {
+        SegmentedTaskList segments = SegmentedTaskList.of(List.of(
+                new Deadline("feb", LocalDate.of(2026, 2, 20)), new ToDo("read"),
+                new Deadline("mar", LocalDate.of(2026, 3, 1)), new Deadline("feb 2", LocalDate.of(2026, 2, 1))),
+                new Parser());
+        assertEquals(Set.of("2026-02.txt", "2026-03.txt", "undated.txt"),
+                segments.drainDirtySegments().keySet());
+
+        segments.remove(0);
+        segments.add(new Event("talk", LocalDate.of(2026, 2, 5), LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        assertEquals(List.of("4 | D | 0 | feb 2 | 2026-02-01", "5 | E | 0 | talk | 2026-02-05 | 0900 | 1000"),
+                segments.drainDirtySegments().get("2026-02.txt"));
+        segments.remove(1);
+        assertEquals(List.of(), segments.drainDirtySegments().get("2026-03.txt"));
+
+        List<Task> february = segments.getTasksInSegments(LocalDate.of(2026, 2, 10), LocalDate.of(2026, 3, 31));
+        assertEquals("feb 2", february.get(0).getDescription());
+        assertEquals("talk", february.get(1).getDescription());
+        assertEquals(2, february.size());
+        assertTrue(segments.getTasksInSegments(LocalDate.of(2026, 4, 1), LocalDate.of(2026, 3, 1)).isEmpty());
+    }
+
+    @Test
+    public void columnarTaskList_writesChangesBackToItsColumns() throws FridayException {
+        ColumnarTaskList columns = new ColumnarTaskList();
+        TaskList list = new TaskList(columns);
+        LocalDate day = LocalDate.of(2026, 10, 20);
+        list.addTask(new ToDo("read book"));
+        list.addTask(new Deadline("essay", day));
+        list.addTask(new Event("talk \u00e9t\u00e9", day, LocalTime.of(14, 0), LocalTime.of(15, 30)));
+        list.markTask(2);
+        list.deleteTask(0);
+
+        ColumnarTaskList copy = columns.copy();
+        assertEquals(2, copy.size());
+        assertEquals("D | 0 | essay | 2026-10-20 | #2", copy.get(0).getSaveString());
+        assertEquals("E | 1 | talk \u00e9t\u00e9 | 2026-10-20 | 1400 | 1530 | #3", copy.get(1).getSaveString());
+        assertEquals(list.get(1).getSaveString(), list.findTasks("talk").get(0).getSaveString());
+        assertTrue(list.describeStorage().contains("in columns"));
+    }
+
+    @Test
+    public void filterTasks_combinesBitmapsAndFollowsChanges() throws FridayException {
+        TaskList list = new TaskList();
+        for (int i = 0; i < 5000; i++) {
+            list.addTask(new ToDo("chore " + i));
+        }
+        list.addTask(new Deadline("essay", LocalDate.of(2026, 3, 10)));
+        list.addTask(new Event("talk", LocalDate.of(2026, 4, 1), LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        list.addTask(new Deadline("report", LocalDate.of(2026, 4, 2)));
+        TaskFilter dueInSpring = new TaskFilter(Set.of(TaskFilter.Kind.DEADLINE, TaskFilter.Kind.EVENT), false,
+                Set.of(YearMonth.of(2026, 3), YearMonth.of(2026, 4)));
+        assertEquals(3, list.filterTasks(dueInSpring).size());
+
+        list.markTask(5000);
+        list.deleteTask(5002);
+        List<Task> undone = list.filterTasks(dueInSpring);
+        assertEquals(1, undone.size());
+        assertEquals("talk", undone.get(0).getDescription());
+        TaskFilter doneTodos = new TaskFilter(Set.of(TaskFilter.Kind.TODO), true, Set.of());
+        assertTrue(list.filterTasks(doneTodos).isEmpty());
+        for (int i = 0; i < 4000; i++) {
+            list.markTask(i);
+        }
+        list.deleteTask(0);
+        assertEquals(3999, list.filterTasks(doneTodos).size());
+        assertEquals(1001, list.filterTasks(new TaskFilter(Set.of(), false, Set.of())).size());
+        assertEquals(5001, list.filterTasks(new TaskFilter(Set.of(), null, Set.of())).size());
+    }
+
+    @Test
+    public void snapshot_staysUnchangedWhileTheListChanges() throws Exception {
+        TaskList list = new TaskList();
+        for (int i = 0; i < 1500; i++) {
+            list.addTask(new ToDo("chore " + i));
+        }
+        TaskSnapshot before = list.snapshot();
+        assertSame(before, list.snapshot());
+        list.markTask(0);
+        list.deleteTask(700);
+        list.addTask(new Deadline("essay", LocalDate.of(2026, 3, 10)));
+
+        TaskSnapshot after = list.snapshot();
+        assertEquals(1500, before.size());
+        assertEquals("[T] [ ] chore 0", before.get(0).toString());
+        assertEquals("chore 700", before.get(700).getDescription());
+        assertEquals(1500, after.size());
+        assertEquals("[T] [X] chore 0", after.get(0).toString());
+        assertEquals("chore 701", after.get(700).getDescription());
+        assertEquals(1, after.findTasks("ESSAY").size());
+        assertEquals(list.getModCount(), after.getVersion());
+
+        // Readers see whole snapshots while a writer keeps changing the list.
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2000; i++) {
+                    list.addTask(new ToDo("extra " + i));
+                    list.markTask(list.size() - 1);
+                    list.deleteTask(0);
+                }
+            } catch (FridayException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        int lastVersion = after.getVersion();
+        while (writer.isAlive()) {
+            TaskSnapshot current = list.snapshot();
+            assertTrue(current.getVersion() >= lastVersion);
+            assertTrue(current.size() == 1500 || current.size() == 1501);
+            for (Task task : current) {
+                assertTrue(task.getId() > 0);
+            }
+            lastVersion = current.getVersion();
+        }
+        writer.join();
+        assertEquals(list.size(), list.snapshot().size());
+        assertEquals(list.get(0).getId(), list.snapshot().get(0).getId());
+    }
+
+    @Test
+    public void deleteTasks_compactsListIndexesAndSnapshotInOnePass() throws FridayException {
+        for (TaskList list : List.of(new TaskList(new ChunkedTaskList(4)), new TaskList(new ColumnarTaskList()))) {
+            for (int i = 0; i < 30; i++) {
+                list.addTask(new Deadline("essay " + i, LocalDate.of(2026, 3, 1 + i % 28)));
+            }
+            TaskSnapshot before = list.snapshot();
+            assertEquals(30, list.findTasks("essay").size());
+            assertEquals(2, list.getTasksBetween(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 2)).size());
+            list.clearChanges();
+            list.markTask(29);
+            BitSet doomed = new BitSet();
+            doomed.set(0, 10);
+            doomed.set(15);
+            doomed.set(28);
+            list.deleteTasks(doomed);
+
+            assertEquals(18, list.size());
+            assertEquals("essay 10", list.get(0).getDescription());
+            assertEquals("essay 29", list.get(17).getDescription());
+            assertArrayEquals(new int[] {17}, list.getChangedIndices());
+            assertEquals(18, list.findTasks("essay").size());
+            assertEquals(-1, list.indexOfId(1));
+            assertEquals(4, list.indexOfId(15));
+            assertEquals(30, before.size());
+            assertEquals(18, list.snapshot().size());
+            assertEquals("essay 16", list.snapshot().get(5).getDescription());
+            assertEquals(1, list.getTasksBetween(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 2)).size());
+        }
+    }
+
+    @Test
+    public void snapshotQueries_matchAScanAcrossChunksAndChanges() throws FridayException {
+        String[] words = {"essay", "read", "lab", "x", "quiz", "Essays", "a-b"};
+        LocalDate start = LocalDate.of(2026, 3, 1);
+        for (TaskList list : List.of(new TaskList(), new TaskList(new ColumnarTaskList()))) {
+            Random random = new Random(7);
+            for (int round = 0; round < 1200; round++) {
+                int action = random.nextInt(10);
+                if (action < 6 || list.size() == 0) {
+                    String description = words[random.nextInt(words.length)] + " "
+                            + words[random.nextInt(words.length)];
+                    list.addTask(random.nextBoolean()
+                            ? new ToDo(description)
+                            : new Deadline(description, start.plusDays(random.nextInt(60))));
+                } else if (action < 8) {
+                    list.markTask(random.nextInt(list.size()));
+                } else {
+                    list.deleteTask(random.nextInt(list.size()));
+                }
+                if (round % 100 != 99) {
+                    continue;
+                }
+                TaskSnapshot snapshot = list.snapshot();
+                for (String keyword : new String[] {"ESSAY", "x", "ab", "a-", "ad l", "-", "zzz"}) {
+                    List<String> expected = new ArrayList<>();
+                    for (Task task : snapshot) {
+                        if (task.getDescription().toLowerCase(Locale.ROOT).contains(keyword.toLowerCase(Locale.ROOT))) {
+                            expected.add(task.getSaveString());
+                        }
+                    }
+                    List<String> found = new ArrayList<>();
+                    for (Task task : list.findTasks(keyword)) {
+                        found.add(task.getSaveString());
+                    }
+                    assertEquals(expected, found, keyword);
+                }
+                LocalDate from = start.plusDays(random.nextInt(30));
+                LocalDate to = from.plusDays(random.nextInt(20));
+                List<String> expected = new ArrayList<>();
+                for (int day = 0; !from.plusDays(day).isAfter(to); day++) {
+                    for (Task task : snapshot) {
+                        if (from.plusDays(day).equals(DateIndex.dateOf(task))) {
+                            expected.add(task.getSaveString());
+                        }
+                    }
+                }
+                List<String> found = new ArrayList<>();
+                for (Task task : list.getTasksBetween(from, to)) {
+                    found.add(task.getSaveString());
+                }
+                assertEquals(expected, found);
+            }
+        }
+    }
+
+    @Test
+    public void getTasksBetween_ordersByDateAndFollowsDeletions() throws FridayException {
+        TaskList list = new TaskList();
+        list.addTask(new Deadline("late", LocalDate.of(2026, 3, 10)));
+        list.addTask(new ToDo("undated"));
+        list.addTask(new Deadline("early", LocalDate.of(2026, 3, 1)));
+        List<Task> march = list.getTasksBetween(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31));
+        assertEquals("early", march.get(0).getDescription());
+        assertEquals("late", march.get(1).getDescription());
+
+        list.deleteTask(2);
+        list.addTask(new Deadline("new", LocalDate.of(2026, 3, 5)));
+        assertEquals(2, list.getTasksBetween(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)).size());
+        assertEquals(1, list.getUpcomingTasks(LocalDate.of(2026, 3, 2), 3).size());
+    }
+
+    @Test
+    public void eventIndex_findsOverlapsAndFreeSlots() throws FridayException {
+        TaskList list = new TaskList();
+        LocalDate day = LocalDate.of(2026, 10, 20);
+        list.addTask(new Event("standup", day, LocalTime.of(9, 0), LocalTime.of(9, 30)));
+        list.addTask(new Event("review", day, LocalTime.of(14, 0), LocalTime.of(16, 0)));
+        list.addTask(new Event("overnight", day, LocalTime.of(23, 0), LocalTime.of(1, 0)));
+
+        List<Event> overlaps = list.getOverlappingEvents(day.atTime(15, 0), day.atTime(17, 0));
+        assertEquals(1, overlaps.size());
+        assertEquals("review", overlaps.get(0).getDescription());
+        assertEquals(1, list.getOverlappingEvents(day.plusDays(1).atTime(0, 30), day.plusDays(1).atTime(2, 0)).size());
+
+        List<TimeSlot> free = list.getFreeSlots(day.atStartOfDay(), day.plusDays(1).atStartOfDay(),
+                Duration.ofHours(2));
+        assertEquals(3, free.size());
+        assertEquals(day.atTime(9, 30), free.get(1).getStart());
+        assertEquals(day.atTime(14, 0), free.get(1).getEnd());
+
+        list.deleteTask(1);
+        assertTrue(list.getOverlappingEvents(day.atTime(15, 0), day.atTime(17, 0)).isEmpty());
+    }
+
+    @Test
+    public void toString_isReusedUntilTheTaskChanges() throws FridayException {
+        Event event = new Event("standup", LocalDate.of(2026, 10, 20), LocalTime.of(9, 0), LocalTime.of(21, 30));
+        Deadline deadline = new Deadline("essay", LocalDate.of(2026, 10, 20));
+        String rendered = event.toString();
+        assertEquals("[E] [ ] standup (from: Oct 20 2026 9:00AM to: 9:30PM)", rendered);
+        assertSame(rendered, event.toString());
+        assertEquals("[D] [ ] essay (by: Oct 20 2026)", deadline.toString());
+
+        event.mark();
+        assertEquals("[E] [X] standup (from: Oct 20 2026 9:00AM to: 9:30PM)", event.toString());
+        event.unmark();
+        assertEquals(rendered, event.toString());
+        assertSame(DateLabels.of(LocalDate.of(2026, 10, 20)), DateLabels.of(LocalDate.of(2026, 10, 20)));
+    }
+}